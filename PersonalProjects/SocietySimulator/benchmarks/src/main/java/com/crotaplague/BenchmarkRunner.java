@@ -0,0 +1,32 @@
+package com.crotaplague;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the usual JMH command line (e.g. "fptp -p voters=100000"), with the GC
+ * profiler always attached so every score comes with its allocation rate (gc.alloc.rate.norm is bytes
+ * per operation), and results written to jmh-result.json unless -rf / -rff say otherwise.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+        builder.addProfiler(GCProfiler.class);
+        if (!cmd.getResultFormat().hasValue()) builder.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue()) builder.result("jmh-result.json");
+        if (cmd.getIncludes().isEmpty()) builder.include(ElectionBenchmark.class.getSimpleName());
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,177 @@
+package com.crotaplague;
+
+import com.crotaplague.Ballots.Condorcet;
+import com.crotaplague.Ballots.FirstChoiceMethod;
+import com.crotaplague.Ballots.PairwiseMatrix;
+import com.crotaplague.Ballots.Positional;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every election method on one seeded synthetic population per parameter set.
+ *
+ * Single-winner methods run one race (candidates drawn from the whole electorate); the Condorcet and
+ * positional ones rank it themselves, and pairwiseMatrix times the matrix alone over ballots ranked once.
+ * STV, SPAV and Phragmén run every state block over per-county candidates; list PR, MMP and popular
+ * shares run over the whole country. Run through BenchmarkRunner to get the GC profiler's allocation
+ * rates next to the scores.
+ */
+// qualified: com.crotaplague.State is the simulator's state
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xms4g", "-Xmx4g"})
+public class ElectionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int voters;
+
+    @Param({"5", "20"})
+    public int candidates;
+
+    @Param({"30", "120"})
+    public int issues;
+
+    @Param({"3", "12"})
+    public int parties;
+
+    @Param({"42"})
+    public long seed;
+
+    private SyntheticPopulation population;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        population = SyntheticPopulation.build(seed, voters, candidates, issues, parties);
+    }
+
+    @Benchmark
+    public Representative fptp() {
+        return VotingUtils.runFPTP(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative rcv() {
+        return VotingUtils.runRCVElection(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative approval() {
+        return VotingUtils.runApprovalElection(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative star() {
+        return ElectionUtils.runStarElectionOptimized(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative schulze() {
+        return Condorcet.schulze().run(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative rankedPairs() {
+        return Condorcet.rankedPairs().run(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative copeland() {
+        return Condorcet.copeland().run(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative borda() {
+        return Positional.borda().run(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public Representative dowdall() {
+        return Positional.dowdall().run(population.candidates, population.voters);
+    }
+
+    @Benchmark
+    public PairwiseMatrix pairwiseMatrix(Ranked ranked) {
+        return PairwiseMatrix.of(ranked.ballots);
+    }
+
+    @Benchmark
+    public List<Representative> stv() {
+        return RandomScripts.runStv(population.blocks, population.pool);
+    }
+
+    @Benchmark
+    public List<Representative> spav() {
+        return ProportionalApproval.runBlocks(population.blocks, population.pool, ProportionalApproval.Method.SPAV);
+    }
+
+    @Benchmark
+    public List<Representative> phragmen() {
+        return ProportionalApproval.runBlocks(population.blocks, population.pool, ProportionalApproval.Method.PHRAGMEN);
+    }
+
+    @Benchmark
+    public List<Representative> listProportional() {
+        return population.country.simulateProportional();
+    }
+
+    // FPTP county seats plus D'Hondt list seats, as in the sweeps; lists undoes each run's additions
+    @Benchmark
+    public List<Representative> mixedMember(PartyLists lists) {
+        return population.country.simulateMixedMember((FirstChoiceMethod) VotingUtils::runFPTP).all();
+    }
+
+    @Benchmark
+    public Map<String, Double> popularShares() {
+        return OptimizedVoteUtils.computePopularPartyShares(population.pool, population.voters,
+                VotingUtils.FavoriteMode.TOP_RANK, true);
+    }
+
+    // hybrid path limited to the top 3 parties and 8 candidates per voter (chunk-local scratch arena)
+    @Benchmark
+    public Map<String, Double> popularSharesTopK() {
+        return OptimizedVoteUtils.computePopularPartyShares(population.pool, population.voters,
+                VotingUtils.FavoriteMode.TOP_RANK, true, false, 3, 8);
+    }
+
+    /** The race's ballots, ranked once per trial, for pairwiseMatrix. */
+    @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+    public static class Ranked {
+        RankedBallots ballots;
+
+        @Setup(Level.Trial)
+        public void rank(ElectionBenchmark benchmark) {
+            ballots = RankedBallots.rank(benchmark.population.candidates, benchmark.population.voters);
+        }
+    }
+
+    /**
+     * Party lists as built. Every MMP run draws fresh county candidates, which join their party's list;
+     * the lists are put back after each run so they don't grow over the measurement.
+     */
+    @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+    public static class PartyLists {
+        private final Map<Party, List<Representative>> initial = new IdentityHashMap<>();
+
+        @Setup(Level.Trial)
+        public void snapshot(ElectionBenchmark benchmark) {
+            for (Party p : benchmark.population.parties) initial.put(p, new ArrayList<>(p.getOptions()));
+        }
+
+        @TearDown(Level.Invocation)
+        public void restore() {
+            for (Map.Entry<Party, List<Representative>> e : initial.entrySet()) {
+                List<Representative> options = e.getKey().getOptions();
+                options.clear();
+                options.addAll(e.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.crotaplague;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legislature.run over a seeded chamber: one operation is a fresh Legislature sitting for the given
+ * number of sessions (default calendar). At every term end a share of the seats changes hands, drawn
+ * from the rest of the candidate pool, so stance vectors take the incremental refresh path as they
+ * would after an election. Every invocation starts from the same chamber and an empty law registry.
+ */
+// qualified: com.crotaplague.State is the simulator's state
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xms4g", "-Xmx4g"})
+public class LegislatureBenchmark {
+
+    @Param({"2000"})
+    public int seats;
+
+    @Param({"10000"})
+    public int sessions;
+
+    // share of the seats that change hands at each term end
+    @Param({"0.1"})
+    public double turnover;
+
+    @Param({"120"})
+    public int issues;
+
+    @Param({"12"})
+    public int parties;
+
+    @Param({"42"})
+    public long seed;
+
+    private SyntheticPopulation population;
+    private List<Representative> initialChamber;
+    private List<Representative> bench;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // enough candidates per county that the pool covers the chamber with some left over
+        int perCounty = (seats * 3 / 2) / (SyntheticPopulation.STATES * SyntheticPopulation.COUNTIES_PER_STATE) + 1;
+        population = SyntheticPopulation.build(seed, seats * 10, perCounty, issues, parties);
+        initialChamber = new ArrayList<>(population.pool.subList(0, seats));
+        bench = new ArrayList<>(population.pool.subList(seats, population.pool.size()));
+    }
+
+    @Setup(Level.Invocation)
+    public void resetChamber() {
+        List<Representative> chamber = population.country.getChamber();
+        chamber.clear();
+        chamber.addAll(initialChamber);
+        LawRegistry registry = population.country.getLawRegistry();
+        for (Law law : new ArrayList<>(registry.asList())) registry.remove(law);
+    }
+
+    @Benchmark
+    public Legislature.Stats run() {
+        Legislature legislature = new Legislature(population.country, new Legislature.Config(), seed);
+        Random churn = new Random(seed);
+        legislature.setOnTermEnd(l -> {
+            List<Representative> chamber = population.country.getChamber();
+            int changes = (int) Math.round(chamber.size() * turnover);
+            for (int i = 0; i < changes; i++) {
+                chamber.set(churn.nextInt(chamber.size()), bench.get(churn.nextInt(bench.size())));
+            }
+        });
+        legislature.run(sessions);
+        return legislature.getStats();
+    }
+}
@@ -0,0 +1,125 @@
+package com.crotaplague;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Seeded country for benchmarks: issues, parties, citizens with values, states split into counties, and
+ * candidates, all drawn from one Random so the same parameters always give the same population. Nothing
+ * is read from the simulator's data files.
+ */
+final class SyntheticPopulation {
+
+    static final int STATES = 8;
+    static final int COUNTIES_PER_STATE = 4;
+
+    final Country country;
+    final List<Citizen> voters;
+    final List<Party> parties;
+    // one race's candidates, for the single-winner methods
+    final List<Representative> candidates;
+    // candidates per county, for STV blocks and party lists
+    final List<Representative> pool;
+    final List<VotingBlock> blocks;
+
+    private SyntheticPopulation(Country country, List<Citizen> voters, List<Party> parties,
+                                List<Representative> candidates, List<Representative> pool, List<VotingBlock> blocks) {
+        this.country = country;
+        this.voters = voters;
+        this.parties = parties;
+        this.candidates = candidates;
+        this.pool = pool;
+        this.blocks = blocks;
+    }
+
+    static SyntheticPopulation build(long seed, int voterCount, int candidateCount, int issueCount, int partyCount) {
+        Random rng = new Random(seed);
+        loadIssues(rng, issueCount);
+
+        if (Country.names == null) {
+            Country.names = new String[100];
+            for (int i = 0; i < Country.names.length; i++) Country.names[i] = "State " + i;
+        }
+        Country country = new Country(false);
+        List<State> states = new ArrayList<>(STATES);
+        for (int s = 0; s < STATES; s++) states.add(new State(country, "State " + s));
+        country.resetStates(states);
+
+        List<Party> parties = new ArrayList<>(partyCount);
+        for (int p = 0; p < partyCount; p++) {
+            Party party = new Party("Party " + p, rng.nextInt(101));
+            addValues(rng, issueCount, 4 + rng.nextInt(8), party::addValue);
+            parties.add(party);
+        }
+        country.replaceParties(parties);
+
+        List<Citizen> voters = new ArrayList<>(voterCount);
+        for (int v = 0; v < voterCount; v++) {
+            Citizen c = new Citizen(country);
+            c.setBias((int) Math.round(50 + rng.nextGaussian() * 20));
+            addValues(rng, issueCount, 1 + rng.nextInt(8), c::addValue);
+            country.addCitizen(states.get(rng.nextInt(STATES)), c);
+            voters.add(c);
+        }
+        for (State s : states) s.citizensToCounties(COUNTIES_PER_STATE);
+
+        // one race's field, drawn from the whole electorate
+        List<Representative> candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            candidates.add(candidate(voters.get(rng.nextInt(voterCount)), parties, rng));
+        }
+
+        // per county, candidates living there; party lists and posExists are filled from this pool
+        List<Representative> pool = new ArrayList<>();
+        List<VotingBlock> blocks = new ArrayList<>(STATES);
+        for (State s : states) {
+            for (County county : s.getCounties()) {
+                List<Citizen> residents = county.getCitizens();
+                if (residents.isEmpty()) continue;
+                for (int i = 0; i < candidateCount; i++) {
+                    pool.add(candidate(residents.get(rng.nextInt(residents.size())), parties, rng));
+                }
+            }
+            blocks.add(new VotingBlock(s));
+        }
+        for (Representative r : pool) r.getParty().addOption(r);
+        country.posExists.clear();
+        country.posExists.addAll(pool);
+
+        return new SyntheticPopulation(country, voters, parties, candidates, pool, blocks);
+    }
+
+    private static Representative candidate(Citizen from, List<Party> parties, Random rng) {
+        Representative rep = new Representative(from);
+        rep.setParty(parties.get(rng.nextInt(parties.size())));
+        return rep;
+    }
+
+    private static void addValues(Random rng, int issueCount, int count, java.util.function.Consumer<Value> sink) {
+        Set<Integer> picked = new HashSet<>();
+        for (int k = 0; k < count && picked.size() < issueCount; k++) {
+            int issue = rng.nextInt(issueCount);
+            if (picked.add(issue)) sink.accept(new Value("issue" + issue, rng.nextInt(11), rng.nextInt(21) - 10));
+        }
+    }
+
+    // ValueAssigner reads its issues from a file; write a seeded one
+    private static void loadIssues(Random rng, int issueCount) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < issueCount; i++) {
+            sb.append("issue").append(i).append(',').append(1 + rng.nextInt(10)).append(',')
+                    .append(rng.nextInt(11)).append(',').append(rng.nextInt(11)).append('\n');
+        }
+        try {
+            Path file = Files.createTempFile("issues", ".txt");
+            file.toFile().deleteOnExit();
+            Files.writeString(file, sb);
+            ValueAssigner.init(file.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.crotaplague.Ballots;
+
+import com.crotaplague.SimulationExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PairwiseMatrix against a per-ballot count, and Condorcet.strongestPaths (blocked Floyd–Warshall)
+ * against the textbook triple loop, on seeded random rankings: complete and truncated, candidate counts
+ * on both sides of the tile size, and enough voters for several counting chunks.
+ */
+class PairwiseMatrixTest {
+
+    @BeforeAll
+    static void setUp() {
+        // more workers than the sandbox has cores, so the chunked and tiled paths fork
+        SimulationExecutor.configure(4, 16);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        SimulationExecutor.configure(Runtime.getRuntime().availableProcessors(), 2048);
+    }
+
+    @Test
+    void matchesNaiveCount() {
+        Random rng = new Random(3L);
+        for (int t = 0; t < 120; t++) {
+            int n = 1 + rng.nextInt(140);
+            int[][] rankings = rankings(rng, n, rng.nextInt(9000));
+            assertArrayEquals(naive(n, rankings), PairwiseMatrix.of(n, rankings).toArray(), "trial " + t + " n=" + n);
+        }
+    }
+
+    @Test
+    void matchesNaiveCountOverManyChunks() {
+        Random rng = new Random(11L);
+        int n = 12;
+        int[][] rankings = rankings(rng, n, 100_000);
+        assertArrayEquals(naive(n, rankings), PairwiseMatrix.of(n, rankings).toArray());
+    }
+
+    @Test
+    void strongestPathsMatchUnblockedFloydWarshall() {
+        Random rng = new Random(5L);
+        // 47..49 and 95..97 straddle tile edges; 520 takes the parallel path
+        int[] sizes = {1, 2, 3, 7, 47, 48, 49, 95, 96, 97, 130, 520};
+        for (int n : sizes) {
+            PairwiseMatrix m = PairwiseMatrix.of(n, rankings(rng, n, n >= 500 ? 300 : 2000));
+            assertArrayEquals(offDiagonal(floydWarshall(m), n), offDiagonal(Condorcet.strongestPaths(m), n), "n=" + n);
+        }
+    }
+
+    @Test
+    void condorcetWinnerWinsEveryMethod() {
+        Random rng = new Random(8L);
+        for (int t = 0; t < 200; t++) {
+            int n = 1 + rng.nextInt(30);
+            PairwiseMatrix m = PairwiseMatrix.of(n, rankings(rng, n, 1 + rng.nextInt(400)));
+            int cw = Condorcet.condorcetWinner(m);
+            if (cw < 0) continue;
+            assertEquals(cw, Condorcet.schulzeWinner(m), "schulze, trial " + t);
+            assertEquals(cw, Condorcet.rankedPairsWinner(m), "ranked pairs, trial " + t);
+            assertEquals(cw, Condorcet.copelandWinner(m), "copeland, trial " + t);
+        }
+    }
+
+    // random orders over n candidates; a quarter of the ballots rank only a prefix
+    private static int[][] rankings(Random rng, int n, int voters) {
+        List<Integer> order = new ArrayList<>(n);
+        for (int c = 0; c < n; c++) order.add(c);
+        int[][] out = new int[voters][];
+        for (int v = 0; v < voters; v++) {
+            Collections.shuffle(order, rng);
+            int len = rng.nextInt(4) == 0 ? rng.nextInt(n + 1) : n;
+            out[v] = order.subList(0, len).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return out;
+    }
+
+    // prefer[a * n + b]: ballots ranking a above b (ranked above unranked; two unranked are no preference)
+    private static int[] naive(int n, int[][] rankings) {
+        int[] prefer = new int[n * n];
+        int[] pos = new int[n];
+        for (int[] ballot : rankings) {
+            Arrays.fill(pos, Integer.MAX_VALUE);
+            for (int k = 0; k < ballot.length; k++) pos[ballot[k]] = k;
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    if (pos[a] < pos[b]) prefer[a * n + b]++;
+                }
+            }
+        }
+        return prefer;
+    }
+
+    // strongestPaths leaves the diagonal meaningless
+    private static int[] offDiagonal(int[] p, int n) {
+        for (int i = 0; i < n; i++) p[i * n + i] = 0;
+        return p;
+    }
+
+    // widest paths over the winning margins, one k at a time over the whole matrix
+    private static int[] floydWarshall(PairwiseMatrix m) {
+        int n = m.size();
+        int[] p = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && m.prefer(i, j) > m.prefer(j, i)) p[i * n + j] = m.prefer(i, j);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                if (i == k) continue;
+                for (int j = 0; j < n; j++) {
+                    if (j == i || j == k) continue;
+                    p[i * n + j] = Math.max(p[i * n + j], Math.min(p[i * n + k], p[k * n + j]));
+                }
+            }
+        }
+        return p;
+    }
+}
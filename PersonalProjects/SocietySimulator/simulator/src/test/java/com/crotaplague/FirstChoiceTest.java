@@ -0,0 +1,112 @@
+package com.crotaplague;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * FirstChoice's branch-and-bound search against its full scan: on seeded fields from one candidate to
+ * several hundred, some without a party and some sharing a bias, every voter's first() must be scan()'s
+ * choice (including its tie-break), and tally() must count exactly those choices.
+ */
+class FirstChoiceTest {
+
+    private static final int ISSUES = 60;
+    private static final int VOTERS = 100_000;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ISSUES; i++) sb.append("issue").append(i).append(",5,5,5\n");
+        Path file = Files.createTempFile("issues", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, sb);
+        ValueAssigner.init(file.toString());
+    }
+
+    @Test
+    void firstMatchesScan() {
+        Random rng = new Random(3L);
+        List<Party> parties = parties(rng, 12);
+        List<Citizen> voters = citizens(rng, VOTERS, 8);
+        for (int candidates : new int[]{1, 2, 7, 40, 300}) {
+            FirstChoice.Searcher s = FirstChoice.of(field(rng, parties, candidates, 101)).searcher();
+            for (int v = 0; v < voters.size(); v++) {
+                Citizen voter = voters.get(v);
+                assertEquals(s.scan(voter), s.first(voter), candidates + " candidates, voter " + v);
+            }
+        }
+    }
+
+    @Test
+    void firstMatchesScanWithSharedBiases() {
+        // candidates crowd onto a few biases, so equal scores and the lower-index tie-break come up
+        Random rng = new Random(17L);
+        List<Party> parties = parties(rng, 4);
+        List<Citizen> voters = citizens(rng, VOTERS / 4, 3);
+        FirstChoice.Searcher s = FirstChoice.of(field(rng, parties, 60, 5)).searcher();
+        for (int v = 0; v < voters.size(); v++) {
+            Citizen voter = voters.get(v);
+            assertEquals(s.scan(voter), s.first(voter), "voter " + v);
+        }
+    }
+
+    @Test
+    void tallyCountsScanChoices() {
+        Random rng = new Random(29L);
+        List<Party> parties = parties(rng, 6);
+        List<Citizen> voters = citizens(rng, VOTERS / 2, 6);
+        List<Representative> field = field(rng, parties, 25, 101);
+        FirstChoice fc = FirstChoice.of(field);
+        FirstChoice.Searcher s = fc.searcher();
+        long[] expected = new long[field.size()];
+        for (Citizen voter : voters) expected[s.scan(voter)]++;
+        assertArrayEquals(expected, fc.tally(voters));
+    }
+
+    private static List<Party> parties(Random rng, int count) {
+        List<Party> parties = new ArrayList<>(count);
+        for (int p = 0; p < count; p++) {
+            Party party = new Party("P" + p, rng.nextInt(100));
+            for (int k = 0; k < 8; k++) party.addValue(value(rng));
+            parties.add(party);
+        }
+        return parties;
+    }
+
+    private static List<Citizen> citizens(Random rng, int count, int maxValues) {
+        List<Citizen> out = new ArrayList<>(count);
+        for (int v = 0; v < count; v++) {
+            Citizen c = new Citizen(null);
+            c.setBias(rng.nextInt(101));
+            for (int k = 0, n = 1 + rng.nextInt(maxValues); k < n; k++) c.addValue(value(rng));
+            out.add(c);
+        }
+        return out;
+    }
+
+    // every seventeenth candidate runs without a party; biases drawn from `biases` evenly spaced values
+    private static List<Representative> field(Random rng, List<Party> parties, int count, int biases) {
+        List<Citizen> people = citizens(rng, count, 7);
+        List<Representative> field = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            Citizen person = people.get(c);
+            person.setBias(biases >= 101 ? rng.nextInt(101) : rng.nextInt(biases) * (100 / (biases - 1)));
+            Representative rep = new Representative(person);
+            if (c % 17 != 0) rep.setParty(parties.get(rng.nextInt(parties.size())));
+            field.add(rep);
+        }
+        return field;
+    }
+
+    private static Value value(Random rng) {
+        return new Value("issue" + rng.nextInt(ISSUES), rng.nextInt(11), rng.nextInt(21) - 10);
+    }
+}
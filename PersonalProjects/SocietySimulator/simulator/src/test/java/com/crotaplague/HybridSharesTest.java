@@ -0,0 +1,123 @@
+package com.crotaplague;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The hybrid path of computePopularPartyShares against LegacyHybridShares, the implementation it replaced:
+ * on fixed seeds the shares (and their order) must be identical, sequential and parallel, sparse and dense
+ * voters, and after a voter's values change between calls.
+ */
+class HybridSharesTest {
+
+    private static final int ISSUES = 120;
+    private static final long[] SEEDS = {1L, 7L, 42L, 2024L};
+    // (topPartiesToConsider, maxRepsToEvaluatePerVoter), including the benchmark's (3, 8)
+    private static final int[][] LIMITS = {{3, 8}, {Integer.MAX_VALUE, 0}, {1, 2}, {2, 0}, {5, 3}};
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ISSUES; i++) sb.append("issue").append(i).append(",5,5,5\n");
+        Path file = Files.createTempFile("issues", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, sb);
+        ValueAssigner.init(file.toString());
+        // more workers than the sandbox has cores, and small races still fork
+        SimulationExecutor.configure(4, 16);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        SimulationExecutor.configure(Runtime.getRuntime().availableProcessors(), 2048);
+    }
+
+    @Test
+    void matchesLegacyOnFixedSeeds() {
+        for (long seed : SEEDS) {
+            Population pop = new Population(seed, 3000, 24, 6, 8, 0);
+            assertAllMatch(pop, "seed " + seed);
+        }
+    }
+
+    @Test
+    void matchesLegacyForDenseVoters() {
+        // a quarter of the voters hold more issues than the dense threshold
+        Population pop = new Population(99L, 2000, 16, 4, 8, 500);
+        assertAllMatch(pop, "dense");
+    }
+
+    @Test
+    void seesValuesAddedBetweenCalls() {
+        Population pop = new Population(5L, 1500, 12, 4, 6, 0);
+        assertAllMatch(pop, "before");
+        Random rng = new Random(6L);
+        for (int i = 0; i < pop.voters.size(); i += 3) {
+            pop.voters.get(i).addValue(new Value("issue" + rng.nextInt(ISSUES), 10, rng.nextInt(21) - 10));
+        }
+        assertAllMatch(pop, "after");
+    }
+
+    private static void assertAllMatch(Population pop, String label) {
+        for (VotingUtils.FavoriteMode mode : VotingUtils.FavoriteMode.values()) {
+            for (int[] limit : LIMITS) {
+                Map<String, Double> expected = LegacyHybridShares.compute(pop.candidates, pop.voters, mode, limit[0], limit[1]);
+                assertFalse(expected.isEmpty());
+                for (boolean parallel : new boolean[]{false, true}) {
+                    Map<String, Double> actual = OptimizedVoteUtils.computePopularPartyShares(
+                            pop.candidates, pop.voters, mode, parallel, false, limit[0], limit[1]);
+                    String where = label + " " + mode + " K=" + limit[0] + " M=" + limit[1] + " parallel=" + parallel;
+                    assertEquals(expected, actual, where);
+                    assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()), where);
+                }
+            }
+        }
+    }
+
+    /** Seeded voters and candidates; every value comes from one Random, nothing from the data files. */
+    private static final class Population {
+        final List<Citizen> voters;
+        final List<Representative> candidates;
+
+        Population(long seed, int voterCount, int candidateCount, int partyCount, int maxValues, int denseVoters) {
+            Random rng = new Random(seed);
+            List<Party> parties = new ArrayList<>();
+            for (int p = 0; p < partyCount; p++) {
+                Party party = new Party("Party " + p, rng.nextInt(101));
+                addValues(rng, party::addValue, 4 + rng.nextInt(8));
+                parties.add(party);
+            }
+            voters = new ArrayList<>(voterCount);
+            for (int v = 0; v < voterCount; v++) {
+                Citizen c = new Citizen(null);
+                c.setBias(rng.nextInt(101));
+                addValues(rng, c::addValue, v < denseVoters ? 70 + rng.nextInt(40) : 1 + rng.nextInt(maxValues));
+                voters.add(c);
+            }
+            candidates = new ArrayList<>(candidateCount);
+            for (int i = 0; i < candidateCount; i++) {
+                Representative rep = new Representative(voters.get(rng.nextInt(voterCount)));
+                // every fifth candidate runs without a party
+                rep.setParty(i % 5 == 4 ? null : parties.get(rng.nextInt(partyCount)));
+                candidates.add(rep);
+            }
+        }
+
+        private static void addValues(Random rng, java.util.function.Consumer<Value> sink, int count) {
+            Set<Integer> picked = new HashSet<>();
+            while (picked.size() < Math.min(count, ISSUES)) {
+                int issue = rng.nextInt(ISSUES);
+                if (picked.add(issue)) sink.accept(new Value("issue" + issue, rng.nextInt(11), rng.nextInt(21) - 10));
+            }
+        }
+    }
+}
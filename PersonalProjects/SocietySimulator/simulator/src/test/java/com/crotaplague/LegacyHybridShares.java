@@ -0,0 +1,338 @@
+package com.crotaplague;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.*;
+
+/**
+ * The hybrid path of OptimizedVoteUtils.computePopularPartyShares as it was before the scratch arena and
+ * cached voter profiles (sequential, since chunking doesn't change the counts): dense profiles from
+ * ProfileFactory for every voter, a voter×party matrix, and fresh arrays per voter. Kept as the oracle
+ * the current code has to match exactly.
+ */
+final class LegacyHybridShares {
+
+    private static final String INDEPENDENT = "Independent/None";
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int DENSE_THRESHOLD = 64;
+
+    private LegacyHybridShares() {}
+
+    static Map<String, Double> compute(List<Representative> candidates, List<Citizen> voters,
+                                       VotingUtils.FavoriteMode mode, int topPartiesToConsider,
+                                       int maxRepsToEvaluatePerVoter) {
+        if (candidates == null || candidates.isEmpty() || voters == null || voters.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final ProfileFactory.Profiles prof = ProfileFactory.buildProfiles(voters, candidates);
+        final int numVoters = voters.size();
+        final int numReps = candidates.size();
+        final int numParties = prof.partyProfiles.length;
+
+        final double[] repBias = new double[numReps];
+        final int[] repToPartyIdx = new int[numReps];
+        for (int ri = 0; ri < numReps; ri++) {
+            Representative r = candidates.get(ri);
+            repBias[ri] = r == null ? 0.0 : r.getBias();
+            repToPartyIdx[ri] = prof.repToPartyIndex[ri];
+        }
+
+        final int[][] partyToRepsArr = new int[numParties][];
+        final int[] independentReps;
+        {
+            Map<Integer, List<Integer>> tmp = new HashMap<>();
+            List<Integer> indep = new ArrayList<>();
+            for (int ri = 0; ri < numReps; ri++) {
+                int pidx = repToPartyIdx[ri];
+                if (pidx < 0) indep.add(ri);
+                else tmp.computeIfAbsent(pidx, k -> new ArrayList<>()).add(ri);
+            }
+            for (int pi = 0; pi < numParties; pi++) {
+                List<Integer> list = tmp.getOrDefault(pi, List.of());
+                partyToRepsArr[pi] = list.stream().mapToInt(Integer::intValue).toArray();
+            }
+            independentReps = indep.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        final String[] partyNames = new String[numParties];
+        {
+            Party[] partyByIndex = new Party[numParties];
+            for (Map.Entry<Party, Integer> e : prof.partyIndex.entrySet()) {
+                int idx = e.getValue();
+                if (idx >= 0 && idx < numParties) partyByIndex[idx] = e.getKey();
+            }
+            for (int i = 0; i < numParties; i++) {
+                Party p = partyByIndex[i];
+                partyNames[i] = (p == null || p.getName() == null) ? INDEPENDENT : p.getName();
+            }
+        }
+        int independentIndex = -1;
+        for (int i = 0; i < numParties; i++) {
+            if (INDEPENDENT.equals(partyNames[i])) { independentIndex = i; break; }
+        }
+        final int totalSlots = (independentIndex >= 0) ? numParties : (numParties + 1);
+        final int indepSlot = (independentIndex >= 0) ? independentIndex : numParties;
+        final String[] outputNames;
+        if (independentIndex >= 0) {
+            outputNames = partyNames;
+        } else {
+            outputNames = Arrays.copyOf(partyNames, totalSlots);
+            outputNames[indepSlot] = INDEPENDENT;
+        }
+
+        final int[][] voterIndices = new int[numVoters][];
+        final double[][] voterImportance = new double[numVoters][];
+        final double[][] voterOpinion = new double[numVoters][];
+        final int[] voterLens = new int[numVoters];
+        for (int vi = 0; vi < numVoters; vi++) {
+            double[] imp = prof.voterProfiles[vi].importance;
+            double[] op = prof.voterProfiles[vi].opinion;
+            int cnt = 0;
+            for (double w : imp) if (w > 0.0) cnt++;
+            voterLens[vi] = cnt;
+            int[] idx = new int[cnt];
+            double[] viImp = new double[cnt];
+            double[] viOp = new double[cnt];
+            int pos = 0;
+            for (int i = 0; i < imp.length; i++) {
+                if (imp[i] > 0.0) {
+                    idx[pos] = i;
+                    viImp[pos] = imp[i];
+                    viOp[pos] = op[i];
+                    pos++;
+                }
+            }
+            voterIndices[vi] = idx;
+            voterImportance[vi] = viImp;
+            voterOpinion[vi] = viOp;
+        }
+
+        final double[][] voterPartyScores = new double[numVoters][numParties];
+        for (int vi = 0; vi < numVoters; vi++) {
+            for (int pi = 0; pi < numParties; pi++) {
+                voterPartyScores[vi][pi] = voterLens[vi] >= DENSE_THRESHOLD
+                        ? alignmentScore(prof.voterProfiles[vi], prof.partyProfiles[pi])
+                        : alignmentScoreSparse(voterIndices[vi], voterImportance[vi], voterOpinion[vi], prof.partyProfiles[pi]);
+            }
+        }
+
+        final long[] total = new long[totalSlots];
+        for (int vi = 0; vi < numVoters; vi++) {
+            double voterBias = voters.get(vi).getBias();
+            final double[] pScores = voterPartyScores[vi];
+
+            int K = Math.max(1, Math.min(topPartiesToConsider, numParties));
+            int[] topParties = topKPartiesByHeap(pScores, K);
+
+            int totalCandidates = independentReps.length;
+            for (int p : topParties) totalCandidates += partyToRepsArr[p].length;
+            if (totalCandidates == 0) continue;
+            int[] candBufTemp = new int[totalCandidates];
+            int pos = 0;
+            for (int p : topParties) for (int r : partyToRepsArr[p]) candBufTemp[pos++] = r;
+            for (int r : independentReps) candBufTemp[pos++] = r;
+
+            final int[] selected;
+            if (maxRepsToEvaluatePerVoter > 0 && pos > maxRepsToEvaluatePerVoter) {
+                selected = selectTopMByPartyAlignment(candBufTemp, pos, maxRepsToEvaluatePerVoter, pScores, prof);
+            } else {
+                selected = Arrays.copyOf(candBufTemp, pos);
+            }
+            if (selected.length == 0) continue;
+
+            int bestRep = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int ri : selected) {
+                int pidx = repToPartyIdx[ri];
+                double partyAlignment = (pidx >= 0 && pidx < pScores.length) ? pScores[pidx] : 0.0;
+                double personalAlignment = voterLens[vi] >= DENSE_THRESHOLD
+                        ? alignmentScore(prof.voterProfiles[vi], prof.repProfiles[ri])
+                        : alignmentScoreSparse(voterIndices[vi], voterImportance[vi], voterOpinion[vi], prof.repProfiles[ri]);
+                double repB = repBias[ri];
+                double score = computeScore(mode, voterBias, repB, partyAlignment, personalAlignment);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestRep = ri;
+                } else if (score == bestScore && bestRep >= 0) {
+                    double da = Math.abs(voterBias - repBias[bestRep]);
+                    double db = Math.abs(voterBias - repB);
+                    if (db < da) bestRep = ri;
+                    else if (db == da && ri < bestRep) bestRep = ri;
+                }
+            }
+            if (bestRep >= 0) {
+                int partyIdx = repToPartyIdx[bestRep];
+                if (partyIdx >= 0 && partyIdx < numParties) total[partyIdx]++;
+                else total[indepSlot]++;
+            }
+        }
+
+        long totalVotes = 0L;
+        for (long v : total) totalVotes += v;
+        if (totalVotes == 0) return Collections.emptyMap();
+        LinkedHashMap<String, Double> out = new LinkedHashMap<>();
+        Integer[] idx = new Integer[totalSlots];
+        for (int i = 0; i < totalSlots; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> Long.compare(total[b], total[a]));
+        for (int id : idx) {
+            if (total[id] > 0) out.put(outputNames[id], total[id] / (double) totalVotes);
+        }
+        return out;
+    }
+
+    private static double alignmentScore(ValueProfile a, ValueProfile b) {
+        final double[] ai = a.importance;
+        final double[] bi = b.importance;
+        final double[] ao = a.opinion;
+        final double[] bo = b.opinion;
+        final int len = ai.length;
+        final int s = SPECIES.length();
+
+        int i = 0;
+        DoubleVector vsumContrib = DoubleVector.zero(SPECIES);
+        DoubleVector vsumWeight = DoubleVector.zero(SPECIES);
+        DoubleVector v20 = DoubleVector.broadcast(SPECIES, 20.0);
+        DoubleVector vone = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector vzero = DoubleVector.zero(SPECIES);
+        for (; i + s <= len; i += s) {
+            DoubleVector wa = DoubleVector.fromArray(SPECIES, ai, i).mul(DoubleVector.fromArray(SPECIES, bi, i));
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, ao, i).sub(DoubleVector.fromArray(SPECIES, bo, i)).abs();
+            DoubleVector sim = vone.sub(diff.div(v20)).max(vzero).min(vone);
+            vsumContrib = vsumContrib.add(wa.mul(sim));
+            vsumWeight = vsumWeight.add(wa);
+        }
+        double sumContrib = vsumContrib.reduceLanes(VectorOperators.ADD);
+        double sumWeight = vsumWeight.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) {
+            double w = ai[i] * bi[i];
+            double sim = 1.0 - (Math.abs(ao[i] - bo[i]) / 20.0);
+            if (sim < 0.0) sim = 0.0;
+            else if (sim > 1.0) sim = 1.0;
+            sumContrib += w * sim;
+            sumWeight += w;
+        }
+        return sumWeight > 0.0 ? (sumContrib / sumWeight) : 0.0;
+    }
+
+    private static double alignmentScoreSparse(int[] idx, double[] vimp, double[] vop, ValueProfile rep) {
+        double sumW = 0.0;
+        double sumContrib = 0.0;
+        for (int k = 0; k < idx.length; k++) {
+            int i = idx[k];
+            double ai = vimp[k];
+            double bi = rep.importance[i];
+            if (bi <= 0.0 || ai <= 0.0) continue;
+            double w = ai * bi;
+            double sim = 1.0 - (Math.abs(vop[k] - rep.opinion[i]) / 20.0);
+            if (sim < 0.0) sim = 0.0;
+            else if (sim > 1.0) sim = 1.0;
+            sumContrib += w * sim;
+            sumW += w;
+        }
+        return sumW > 0.0 ? (sumContrib / sumW) : 0.0;
+    }
+
+    private static int[] topKPartiesByHeap(double[] scores, int k) {
+        final int n = scores.length;
+        if (k >= n) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+        int[] heapIdx = new int[k];
+        double[] heapVals = new double[k];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            double v = scores[i];
+            if (size < k) {
+                heapIdx[size] = i;
+                heapVals[size] = v;
+                siftUp(heapIdx, heapVals, size);
+                size++;
+            } else if (v > heapVals[0]) {
+                heapIdx[0] = i;
+                heapVals[0] = v;
+                siftDown(heapIdx, heapVals, 0, size);
+            }
+        }
+        return Arrays.copyOf(heapIdx, size);
+    }
+
+    private static int[] selectTopMByPartyAlignment(int[] candIdx, int len, int m, double[] pScores,
+                                                    ProfileFactory.Profiles prof) {
+        int[] heapIdx = new int[m];
+        double[] heapVals = new double[m];
+        int heapSize = 0;
+        for (int i = 0; i < len; i++) {
+            int ri = candIdx[i];
+            int partyIdx = prof.repToPartyIndex[ri];
+            double val = (partyIdx >= 0 && partyIdx < pScores.length) ? pScores[partyIdx] : 0.0;
+            if (heapSize < m) {
+                heapIdx[heapSize] = ri;
+                heapVals[heapSize] = val;
+                siftUp(heapIdx, heapVals, heapSize);
+                heapSize++;
+            } else if (val > heapVals[0]) {
+                heapIdx[0] = ri;
+                heapVals[0] = val;
+                siftDown(heapIdx, heapVals, 0, heapSize);
+            }
+        }
+        return Arrays.copyOf(heapIdx, heapSize);
+    }
+
+    private static void siftUp(int[] heap, double[] vals, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (vals[i] < vals[parent]) {
+                swap(heap, vals, i, parent);
+                i = parent;
+            } else break;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] vals, int i, int size) {
+        while (true) {
+            int left = (i << 1) + 1;
+            if (left >= size) break;
+            int right = left + 1;
+            int smallest = left;
+            if (right < size && vals[right] < vals[left]) smallest = right;
+            if (vals[smallest] < vals[i]) {
+                swap(heap, vals, i, smallest);
+                i = smallest;
+            } else break;
+        }
+    }
+
+    private static void swap(int[] heap, double[] vals, int i, int j) {
+        int t = heap[i]; heap[i] = heap[j]; heap[j] = t;
+        double d = vals[i]; vals[i] = vals[j]; vals[j] = d;
+    }
+
+    private static double computeScore(VotingUtils.FavoriteMode mode, double voterBias, double repBias,
+                                       double partyAlign, double personalAlign) {
+        final double PARTY_VS_PERSONAL = 0.70;
+        double combined = clamp01(partyAlign * PARTY_VS_PERSONAL + personalAlign * (1.0 - PARTY_VS_PERSONAL));
+        if (mode == VotingUtils.FavoriteMode.TOP_RANK) {
+            final double BW = 0.60, VW = 0.40;
+            double biasSim = clamp01(1.0 - (Math.abs(voterBias - repBias) / 100.0));
+            double normBiasDist = Math.abs(voterBias - repBias) / 100.0;
+            double valuesMult = 1.0 - (normBiasDist * normBiasDist);
+            return clamp01(BW * biasSim + VW * combined * valuesMult);
+        } else {
+            double biasDiff = Math.abs(voterBias - repBias) / 100.0;
+            double biasSim = Math.exp(-4.0 * biasDiff);
+            return clamp01(biasSim * Math.pow(combined, 2.2));
+        }
+    }
+
+    private static double clamp01(double v) {
+        if (v <= 0.0) return 0.0;
+        if (v >= 1.0) return 1.0;
+        return v;
+    }
+}
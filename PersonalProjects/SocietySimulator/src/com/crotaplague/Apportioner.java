@@ -0,0 +1,276 @@
+package com.crotaplague;
+
+import java.util.*;
+
+/**
+ * Apportions seats (counties, districts) to states by population.
+ *
+ * Divisor methods (Huntington-Hill, Webster, Jefferson, Adams) run on a priority queue: every state
+ * starts at the per-state minimum and each further seat goes to the state with the highest priority
+ * population / d(seats), so a full apportionment costs O(seats log states). Hamilton (largest
+ * remainder) is a sort over the states; it is not house monotone, so it is always recomputed in full.
+ *
+ * An Apportioner also remembers its last result. update() with a new seat total or new populations
+ * only moves the difference: divisor methods are house monotone, so seats are added or removed off the
+ * heap, then single seats are exchanged while some state's next seat outranks another state's last
+ * seat. Ties go to the lower state index.
+ */
+public final class Apportioner {
+
+    public enum Method { HAMILTON, HUNTINGTON_HILL, WEBSTER, JEFFERSON, ADAMS }
+
+    private final Method method;
+    private final int minimum;
+
+    // last result, for incremental updates
+    private long[] population;
+    private int[] seats;
+
+    public Apportioner(Method method) {
+        this(method, 1);
+    }
+
+    /**
+     * @param minimumPerState seats every state gets before the method applies (the repo has always used 1)
+     */
+    public Apportioner(Method method, int minimumPerState) {
+        this.method = Objects.requireNonNull(method, "method");
+        this.minimum = Math.max(0, minimumPerState);
+    }
+
+    public Method getMethod() { return method; }
+
+    /** One-shot apportionment; populations[i] is state i's population. */
+    public static int[] apportion(Method method, long[] populations, int totalSeats, int minimumPerState) {
+        return new Apportioner(method, minimumPerState).update(populations, totalSeats);
+    }
+
+    /** State -> seats, in list order, using each state's citizen count as its population. */
+    public Map<State, Integer> update(List<State> states, int totalSeats) {
+        Map<State, Integer> allocation = new LinkedHashMap<>();
+        if (states == null || states.isEmpty() || totalSeats <= 0) return allocation;
+        long[] pop = new long[states.size()];
+        for (int i = 0; i < pop.length; i++) pop[i] = states.get(i).getCitizens().size();
+        int[] out = update(pop, totalSeats);
+        for (int i = 0; i < out.length; i++) allocation.put(states.get(i), out[i]);
+        return allocation;
+    }
+
+    /**
+     * Apportions totalSeats over the given populations. When the number of states is unchanged the
+     * previous result is the starting point and only the delta is moved. Returns a copy.
+     */
+    public synchronized int[] update(long[] populations, int totalSeats) {
+        final int n = populations.length;
+        if (n == 0 || totalSeats <= 0) {
+            population = null;
+            seats = null;
+            return new int[n];
+        }
+        final long[] pop = populations.clone();
+        int[] result;
+        if (totalSeats < (long) n * minimum) {
+            // not enough seats for the floor: fill it in state order (deterministic)
+            result = new int[n];
+            int left = totalSeats;
+            for (int i = 0; i < n && left > 0; i++) {
+                int give = Math.min(minimum, left);
+                result[i] = give;
+                left -= give;
+            }
+        } else if (method == Method.HAMILTON) {
+            result = hamilton(pop, totalSeats);
+        } else if (seats != null && seats.length == n && belowFloor(seats) == 0) {
+            result = seats.clone();
+            adjustDivisor(pop, result, totalSeats);
+        } else {
+            result = divisorFromScratch(pop, totalSeats);
+        }
+        population = pop;
+        seats = result;
+        return result.clone();
+    }
+
+    /** Last result, or null before the first update. */
+    public synchronized int[] current() {
+        return seats == null ? null : seats.clone();
+    }
+
+    // -------------------- divisor methods --------------------
+
+    private double divisor(int s) {
+        switch (method) {
+            case JEFFERSON: return s + 1.0;
+            case ADAMS: return s;
+            case WEBSTER: return s + 0.5;
+            case HUNTINGTON_HILL: return Math.sqrt((double) s * (s + 1.0));
+            default: throw new IllegalStateException("not a divisor method: " + method);
+        }
+    }
+
+    /** Priority of the next seat for a state holding s seats. */
+    private double next(long pop, int s) {
+        double d = divisor(s);
+        if (d <= 0.0) return pop > 0 ? Double.POSITIVE_INFINITY : 0.0;
+        return pop / d;
+    }
+
+    /** Priority of the last seat a state holding s seats received (s above the floor). */
+    private double last(long pop, int s) {
+        return next(pop, s - 1);
+    }
+
+    private int belowFloor(int[] s) {
+        int c = 0;
+        for (int v : s) if (v < minimum) c++;
+        return c;
+    }
+
+    private static final class Entry {
+        final double priority;
+        final int state;
+        final int seatsAtPush;
+
+        Entry(double priority, int state, int seatsAtPush) {
+            this.priority = priority;
+            this.state = state;
+            this.seatsAtPush = seatsAtPush;
+        }
+    }
+
+    // highest priority first, lower index on ties
+    private static final Comparator<Entry> BY_PRIORITY_DESC = (a, b) -> {
+        int c = Double.compare(b.priority, a.priority);
+        return c != 0 ? c : Integer.compare(a.state, b.state);
+    };
+    // lowest priority first, higher index on ties (the seat a tie-break would give away last)
+    private static final Comparator<Entry> BY_PRIORITY_ASC = (a, b) -> {
+        int c = Double.compare(a.priority, b.priority);
+        return c != 0 ? c : Integer.compare(b.state, a.state);
+    };
+
+    private int[] divisorFromScratch(long[] pop, int totalSeats) {
+        final int n = pop.length;
+        int[] s = new int[n];
+        Arrays.fill(s, minimum);
+        PriorityQueue<Entry> heap = new PriorityQueue<>(n, BY_PRIORITY_DESC);
+        for (int i = 0; i < n; i++) heap.add(new Entry(next(pop[i], s[i]), i, s[i]));
+        for (int left = totalSeats - n * minimum; left > 0; left--) {
+            Entry e = heap.poll();
+            int i = e.state;
+            s[i]++;
+            heap.add(new Entry(next(pop[i], s[i]), i, s[i]));
+        }
+        return s;
+    }
+
+    /**
+     * Brings a previous allocation to the new total and populations. Stale heap entries are
+     * skipped lazily (an entry is live only while the state still holds seatsAtPush seats).
+     */
+    private void adjustDivisor(long[] pop, int[] s, int totalSeats) {
+        final int n = pop.length;
+        PriorityQueue<Entry> nextHeap = new PriorityQueue<>(n, BY_PRIORITY_DESC);
+        PriorityQueue<Entry> lastHeap = new PriorityQueue<>(n, BY_PRIORITY_ASC);
+        for (int i = 0; i < n; i++) {
+            nextHeap.add(new Entry(next(pop[i], s[i]), i, s[i]));
+            if (s[i] > minimum) lastHeap.add(new Entry(last(pop[i], s[i]), i, s[i]));
+        }
+
+        int held = 0;
+        for (int v : s) held += v;
+
+        // 1) seat count: add off the top, or take back the weakest last seats
+        while (held < totalSeats) {
+            Entry e = pollLive(nextHeap, s);
+            give(e.state, pop, s, nextHeap, lastHeap);
+            held++;
+        }
+        while (held > totalSeats) {
+            Entry e = pollLive(lastHeap, s);
+            if (e == null) break;
+            take(e.state, pop, s, nextHeap, lastHeap);
+            held--;
+        }
+
+        // 2) exchanges until no state's next seat outranks another state's last seat
+        while (true) {
+            Entry hi = peekLive(nextHeap, s);
+            Entry lo = peekLive(lastHeap, s);
+            if (hi == null || lo == null || hi.state == lo.state || !(hi.priority > lo.priority)) break;
+            nextHeap.poll();
+            lastHeap.poll();
+            take(lo.state, pop, s, nextHeap, lastHeap);
+            give(hi.state, pop, s, nextHeap, lastHeap);
+        }
+    }
+
+    private void give(int i, long[] pop, int[] s, PriorityQueue<Entry> nextHeap, PriorityQueue<Entry> lastHeap) {
+        s[i]++;
+        nextHeap.add(new Entry(next(pop[i], s[i]), i, s[i]));
+        lastHeap.add(new Entry(last(pop[i], s[i]), i, s[i]));
+    }
+
+    private void take(int i, long[] pop, int[] s, PriorityQueue<Entry> nextHeap, PriorityQueue<Entry> lastHeap) {
+        s[i]--;
+        nextHeap.add(new Entry(next(pop[i], s[i]), i, s[i]));
+        if (s[i] > minimum) lastHeap.add(new Entry(last(pop[i], s[i]), i, s[i]));
+    }
+
+    private static Entry peekLive(PriorityQueue<Entry> heap, int[] s) {
+        Entry e;
+        while ((e = heap.peek()) != null && s[e.state] != e.seatsAtPush) heap.poll();
+        return e;
+    }
+
+    private static Entry pollLive(PriorityQueue<Entry> heap, int[] s) {
+        Entry e = peekLive(heap, s);
+        if (e != null) heap.poll();
+        return e;
+    }
+
+    // -------------------- Hamilton --------------------
+
+    /**
+     * Largest remainder over the seats left after the floor. Remainder ties go to the larger
+     * population, then the lower index. Not house monotone, so always computed from scratch.
+     */
+    private int[] hamilton(long[] pop, int totalSeats) {
+        final int n = pop.length;
+        int[] s = new int[n];
+        Arrays.fill(s, minimum);
+        int seatsLeft = totalSeats - n * minimum;
+
+        long totalPopulation = 0L;
+        for (long p : pop) totalPopulation += p;
+        if (totalPopulation <= 0L) {
+            // fallback: distribute evenly in round-robin
+            for (int i = 0; seatsLeft-- > 0; i++) s[i % n]++;
+            return s;
+        }
+
+        double factor = seatsLeft / (double) totalPopulation;
+        double[] rema = new double[n];
+        int assigned = 0;
+        for (int i = 0; i < n; i++) {
+            double exact = pop[i] * factor;
+            int fl = (int) Math.floor(exact);
+            s[i] += fl;
+            rema[i] = exact - fl;
+            assigned += fl;
+        }
+        int remaining = seatsLeft - assigned;
+
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        Arrays.sort(idx, (ia, ib) -> {
+            int c1 = Double.compare(rema[ib], rema[ia]);
+            if (c1 != 0) return c1;
+            int c2 = Long.compare(pop[ib], pop[ia]); // larger pop first
+            if (c2 != 0) return c2;
+            return Integer.compare(ia, ib);
+        });
+        for (int i = 0; i < remaining; i++) s[idx[i % n]]++;
+        return s;
+    }
+}
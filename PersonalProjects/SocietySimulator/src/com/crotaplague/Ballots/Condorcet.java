@@ -0,0 +1,196 @@
+package com.crotaplague.Ballots;
+
+import com.crotaplague.RankedBallots;
+import com.crotaplague.Representative;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Condorcet-consistent single-winner methods over a PairwiseMatrix.
+ *
+ * Voters rank every candidate (RankedBallots), the rankings are folded into the pairwise matrix once per
+ * set of ballots (RankedBallots.pairwise), and each method reads only the matrix. Remaining ties go to
+ * the lower candidate index.
+ */
+public final class Condorcet {
+
+    // tile edge for the blocked strongest-path pass (3 int tiles fit in L1)
+    private static final int BLOCK = 48;
+    private static final int PARALLEL_FROM = 512;
+
+    private Condorcet() {}
+
+    public static RankedMethod schulze() {
+        return ballots -> elect(ballots, Condorcet::schulzeWinner);
+    }
+
+    public static RankedMethod rankedPairs() {
+        return ballots -> elect(ballots, Condorcet::rankedPairsWinner);
+    }
+
+    public static RankedMethod copeland() {
+        return ballots -> elect(ballots, Condorcet::copelandWinner);
+    }
+
+    private static Representative elect(RankedBallots ballots, ToIntFunction<PairwiseMatrix> winner) {
+        if (ballots.candidateCount() == 0 || ballots.voterCount() == 0) return null;
+        int w = winner.applyAsInt(ballots.pairwise());
+        return w < 0 ? null : ballots.getCandidates().get(w);
+    }
+
+    /** Candidate beating every other head to head, or -1. */
+    public static int condorcetWinner(PairwiseMatrix m) {
+        final int n = m.size();
+        for (int a = 0; a < n; a++) {
+            boolean beatsAll = true;
+            for (int b = 0; b < n && beatsAll; b++) {
+                if (a != b && m.margin(a, b) <= 0) beatsAll = false;
+            }
+            if (beatsAll) return a;
+        }
+        return -1;
+    }
+
+    /* ---------------- Schulze ---------------- */
+
+    public static int schulzeWinner(PairwiseMatrix m) {
+        final int n = m.size();
+        if (n == 0) return -1;
+        final int[] p = strongestPaths(m);
+        for (int a = 0; a < n; a++) {
+            boolean wins = true;
+            for (int b = 0; b < n && wins; b++) {
+                if (a != b && p[b * n + a] > p[a * n + b]) wins = false;
+            }
+            if (wins) return a;
+        }
+        return 0;
+    }
+
+    /**
+     * Strength of the strongest path from a to b (row-major, a * n + b), where a link a -> b has strength
+     * prefer(a, b) if a beats b and 0 otherwise. The diagonal is meaningless.
+     *
+     * Widest paths are Floyd–Warshall over the (max, min) semiring, run blocked: for each diagonal tile,
+     * close it, then its row and column tiles, then every other tile (independent of each other, so in
+     * parallel for large n). Each pass touches three BLOCK x BLOCK tiles at a time.
+     */
+    public static int[] strongestPaths(PairwiseMatrix m) {
+        final int n = m.size();
+        final int[] p = new int[n * n];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                if (a != b && m.prefer(a, b) > m.prefer(b, a)) p[a * n + b] = m.prefer(a, b);
+            }
+        }
+
+        final int tiles = (n + BLOCK - 1) / BLOCK;
+        for (int kt = 0; kt < tiles; kt++) {
+            final int k = kt;
+            relax(p, n, k, k, k);
+            for (int t = 0; t < tiles; t++) {
+                if (t == k) continue;
+                relax(p, n, k, t, k);
+                relax(p, n, t, k, k);
+            }
+            IntStream rows = IntStream.range(0, tiles);
+            if (n >= PARALLEL_FROM) rows = rows.parallel();
+            rows.forEach(it -> {
+                if (it == k) return;
+                for (int jt = 0; jt < tiles; jt++) {
+                    if (jt != k) relax(p, n, it, jt, k);
+                }
+            });
+        }
+        return p;
+    }
+
+    // p[i][j] = max(p[i][j], min(p[i][k], p[k][j])) for i, j, k in the given tiles
+    private static void relax(int[] p, int n, int it, int jt, int kt) {
+        final int i0 = it * BLOCK, i1 = Math.min(n, i0 + BLOCK);
+        final int j0 = jt * BLOCK, j1 = Math.min(n, j0 + BLOCK);
+        final int k0 = kt * BLOCK, k1 = Math.min(n, k0 + BLOCK);
+        for (int k = k0; k < k1; k++) {
+            final int rowK = k * n;
+            for (int i = i0; i < i1; i++) {
+                final int rowI = i * n;
+                final int pik = p[rowI + k];
+                if (pik == 0) continue;
+                for (int j = j0; j < j1; j++) {
+                    int via = Math.min(pik, p[rowK + j]);
+                    if (via > p[rowI + j]) p[rowI + j] = via;
+                }
+            }
+        }
+    }
+
+    /* ---------------- Ranked Pairs ---------------- */
+
+    /**
+     * Tideman's ranked pairs: majorities are locked in order of margin (then winning votes, then index),
+     * skipping any that would close a cycle; the winner is the candidate nothing locks above. Cycle checks
+     * use a transitive-closure bitset per candidate.
+     */
+    public static int rankedPairsWinner(PairwiseMatrix m) {
+        final int n = m.size();
+        if (n == 0) return -1;
+        List<long[]> pairs = new ArrayList<>();
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                if (a != b && m.margin(a, b) > 0) pairs.add(new long[]{m.margin(a, b), m.prefer(a, b), a, b});
+            }
+        }
+        pairs.sort((x, y) -> {
+            int c = Long.compare(y[0], x[0]);
+            if (c == 0) c = Long.compare(y[1], x[1]);
+            if (c == 0) c = Long.compare(x[2], y[2]);
+            return c != 0 ? c : Long.compare(x[3], y[3]);
+        });
+
+        final int words = (n + 63) >>> 6;
+        // reach[x] = candidates locked below x, directly or transitively
+        final long[][] reach = new long[n][words];
+        final boolean[] beaten = new boolean[n];
+        for (long[] pair : pairs) {
+            int a = (int) pair[2], b = (int) pair[3];
+            if ((reach[b][a >>> 6] & (1L << a)) != 0) continue; // b already above a
+            beaten[b] = true;
+            for (int x = 0; x < n; x++) {
+                if (x != a && (reach[x][a >>> 6] & (1L << a)) == 0) continue;
+                long[] rx = reach[x];
+                rx[b >>> 6] |= 1L << b;
+                for (int w = 0; w < words; w++) rx[w] |= reach[b][w];
+            }
+        }
+        for (int c = 0; c < n; c++) if (!beaten[c]) return c;
+        return 0;
+    }
+
+    /* ---------------- Copeland ---------------- */
+
+    /** Most head-to-head wins (a tie counts half); ties go to the larger total pairwise support. */
+    public static int copelandWinner(PairwiseMatrix m) {
+        final int n = m.size();
+        if (n == 0) return -1;
+        int best = -1, bestScore = Integer.MIN_VALUE;
+        long bestSupport = Long.MIN_VALUE;
+        for (int a = 0; a < n; a++) {
+            int score = 0;
+            long support = 0;
+            for (int b = 0; b < n; b++) {
+                if (a == b) continue;
+                int margin = m.margin(a, b);
+                score += margin > 0 ? 2 : (margin == 0 ? 1 : 0);
+                support += m.prefer(a, b);
+            }
+            if (score > bestScore || (score == bestScore && support > bestSupport)) {
+                best = a;
+                bestScore = score;
+                bestSupport = support;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,24 @@
+package com.crotaplague.Ballots;
+
+import com.crotaplague.Citizen;
+import com.crotaplague.FirstChoice;
+import com.crotaplague.Representative;
+
+import java.util.List;
+
+/**
+ * An ElectionMethod that only needs each voter's first choice, counted per candidate index. A caller that
+ * already has the count (see Country.simulateMixedMember, which also reads it for the list vote) hands it
+ * over instead of the method counting it again.
+ */
+@FunctionalInterface
+public interface FirstChoiceMethod extends ElectionMethod {
+    Representative run(List<Representative> candidates, long[] firstChoices);
+
+    @Override
+    default Representative run(List<Representative> candidates, List<Citizen> voters) {
+        if (candidates == null || candidates.isEmpty()) return null;
+        if (voters == null || voters.isEmpty()) return null;
+        return run(candidates, FirstChoice.of(candidates).tally(voters));
+    }
+}
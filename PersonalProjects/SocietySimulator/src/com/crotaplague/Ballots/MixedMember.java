@@ -0,0 +1,83 @@
+package com.crotaplague.Ballots;
+
+/**
+ * Compensatory list seats for a mixed-member proportional chamber.
+ *
+ * Every party's entitlement is the allocator's share of the whole chamber (constituency plus list
+ * seats) from the party vote; its list seats are the entitlement minus the constituencies it won. A
+ * party winning more constituencies than its entitlement keeps them as overhang. Constituency seats
+ * without a party (or whose party got no list votes) are taken off the chamber before allocating.
+ */
+public final class MixedMember {
+
+    public enum Overhang {
+        /** Overhang seats are kept on top of the chamber (New Zealand, Scotland). */
+        KEEP,
+        /** The chamber grows until every party's entitlement covers its constituencies (German leveling). */
+        LEVEL
+    }
+
+    // leveling never grows the allocation base past this many times its starting size
+    private static final int MAX_LEVELING_FACTOR = 64;
+
+    private MixedMember() {}
+
+    /**
+     * List seats per party. votes[i] is party i's list vote, won[i] its constituency seats;
+     * unattached is the number of constituency seats held outside the parties in votes.
+     */
+    public static int[] listSeats(long[] votes, int[] won, int unattached, int listSeats, SeatAllocator allocator, Overhang overhang) {
+        final int n = votes.length;
+        if (won.length != n) throw new IllegalArgumentException("votes and constituency wins differ in length");
+        int constituencies = unattached;
+        for (int w : won) constituencies += w;
+        // seats of parties without list votes can't be compensated, so they count like independents
+        int base = Math.max(0, constituencies + listSeats);
+        for (int i = 0; i < n; i++) if (votes[i] <= 0) base -= won[i];
+        base -= unattached;
+        if (base <= 0) return new int[n];
+
+        int[] entitled = allocator.allocate(votes, base);
+        if (overhang == Overhang.LEVEL && !covers(entitled, votes, won)) {
+            entitled = level(votes, won, base, allocator);
+        }
+
+        int[] list = new int[n];
+        for (int i = 0; i < n; i++) list[i] = Math.max(0, entitled[i] - won[i]);
+        return list;
+    }
+
+    // smallest covering base by doubling then bisection (exact for divisor methods, which are house-monotone)
+    private static int[] level(long[] votes, int[] won, int base, SeatAllocator allocator) {
+        int lo = base, hi = base;
+        int[] best = null;
+        while (hi < base * MAX_LEVELING_FACTOR) {
+            hi = Math.min(hi * 2, base * MAX_LEVELING_FACTOR);
+            int[] e = allocator.allocate(votes, hi);
+            if (covers(e, votes, won)) {
+                best = e;
+                break;
+            }
+            lo = hi;
+        }
+        if (best == null) return allocator.allocate(votes, hi);
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            int[] e = allocator.allocate(votes, mid);
+            if (covers(e, votes, won)) {
+                hi = mid;
+                best = e;
+            } else {
+                lo = mid;
+            }
+        }
+        return best;
+    }
+
+    private static boolean covers(int[] entitled, long[] votes, int[] won) {
+        for (int i = 0; i < votes.length; i++) {
+            if (votes[i] > 0 && entitled[i] < won[i]) return false;
+        }
+        return true;
+    }
+}
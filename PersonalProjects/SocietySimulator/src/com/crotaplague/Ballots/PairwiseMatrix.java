@@ -0,0 +1,117 @@
+package com.crotaplague.Ballots;
+
+import com.crotaplague.RankedBallots;
+import com.crotaplague.SimulationExecutor;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Pairwise preference counts: prefer(a, b) = voters ranking a above b. A candidate missing from a
+ * (partial) ranking is below every ranked one and level with the other unranked candidates.
+ *
+ * Accumulated in parallel over chunks of voters; every worker folds its chunks into its own int[C*C]
+ * partial and the partials are summed at the end. Inside a chunk a voter's ranking is turned into a
+ * position per candidate, and row a of the chunk's counters gets +1 wherever pos[a] < pos[b], one
+ * ShortVector compare-and-add per lane group instead of C^2/2 scattered increments. The short counters
+ * can't overflow within a chunk and are flushed into the partial when it ends.
+ */
+public final class PairwiseMatrix {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    // at most this many voters per chunk, so an unsigned short counter can't wrap
+    private static final int CHUNK = 1 << 15;
+
+    /** Source of rankings: writes voter v's ranking (candidate indices, best first) into out and returns its length. */
+    @FunctionalInterface
+    public interface Rankings {
+        int fill(int voter, int[] out);
+    }
+
+    private final int n;
+    private final int voters;
+    private final int[] prefer;
+
+    private PairwiseMatrix(int n, int voters, int[] prefer) {
+        this.n = n;
+        this.voters = voters;
+        this.prefer = prefer;
+    }
+
+    public static PairwiseMatrix of(RankedBallots ballots) {
+        return of(ballots.candidateCount(), ballots.voterCount(), ballots::ranking);
+    }
+
+    public static PairwiseMatrix of(int candidates, int[][] rankings) {
+        return of(candidates, rankings.length, (v, out) -> {
+            int[] r = rankings[v];
+            int len = Math.min(r.length, candidates);
+            System.arraycopy(r, 0, out, 0, len);
+            return len;
+        });
+    }
+
+    public static PairwiseMatrix of(int candidates, int voterCount, Rankings rankings) {
+        final int n = candidates;
+        if (n == 0 || voterCount == 0) return new PairwiseMatrix(n, voterCount, new int[n * n]);
+        if (n > Short.MAX_VALUE) throw new IllegalArgumentException("too many candidates for a pairwise matrix: " + n);
+        // enough chunks to spread over the pool even for small electorates
+        final int parallelism = SimulationExecutor.get().parallelism();
+        final int chunk = Math.max(256, Math.min(CHUNK, (voterCount + 4 * parallelism - 1) / (4 * parallelism)));
+        final int chunks = (voterCount + chunk - 1) / chunk;
+        int[] prefer = SimulationExecutor.get()
+                .collectChunks(chunks, () -> new int[n * n],
+                        (partial, c) -> accumulate(partial, n, c * chunk, Math.min(voterCount, (c + 1) * chunk), rankings),
+                        PairwiseMatrix::addInto);
+        return new PairwiseMatrix(n, voterCount, prefer);
+    }
+
+    private static void accumulate(int[] partial, int n, int from, int to, Rankings rankings) {
+        final int lanes = SPECIES.length();
+        final int stride = (n + lanes - 1) / lanes * lanes;
+        // pos[b] = b's place in the ranking (n if unranked); padding lanes stay 0 and never count
+        final short[] pos = new short[stride];
+        final short[] counts = new short[n * stride];
+        final int[] ranking = new int[n];
+
+        for (int v = from; v < to; v++) {
+            int len = rankings.fill(v, ranking);
+            if (len < n) Arrays.fill(pos, 0, n, (short) n);
+            for (int k = 0; k < len; k++) pos[ranking[k]] = (short) k;
+            for (int a = 0; a < n; a++) {
+                short pa = pos[a];
+                int row = a * stride;
+                for (int b = 0; b < stride; b += lanes) {
+                    VectorMask<Short> below = ShortVector.fromArray(SPECIES, pos, b).compare(VectorOperators.GT, pa);
+                    ShortVector.fromArray(SPECIES, counts, row + b)
+                            .lanewise(VectorOperators.ADD, (short) 1, below)
+                            .intoArray(counts, row + b);
+                }
+            }
+        }
+
+        for (int a = 0; a < n; a++) {
+            int row = a * stride, out = a * n;
+            for (int b = 0; b < n; b++) partial[out + b] += counts[row + b] & 0xFFFF;
+        }
+    }
+
+    private static void addInto(int[] into, int[] from) {
+        for (int i = 0; i < into.length; i++) into[i] += from[i];
+    }
+
+    public int size() { return n; }
+    public int voterCount() { return voters; }
+
+    /** Voters ranking a above b. */
+    public int prefer(int a, int b) { return prefer[a * n + b]; }
+
+    /** prefer(a, b) - prefer(b, a). */
+    public int margin(int a, int b) { return prefer[a * n + b] - prefer[b * n + a]; }
+
+    /** Copy of the counts, row-major (index a * size() + b). */
+    public int[] toArray() { return prefer.clone(); }
+}
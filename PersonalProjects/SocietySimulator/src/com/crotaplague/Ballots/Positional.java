@@ -0,0 +1,81 @@
+package com.crotaplague.Ballots;
+
+import com.crotaplague.RankedBallots;
+import com.crotaplague.SimulationExecutor;
+
+import java.util.function.IntFunction;
+
+/**
+ * Positional scoring: a ballot gives weights[k] points to the candidate it ranks k-th (0 = favourite),
+ * and the most points wins. Points are summed straight from the rank indices into per-thread double[]
+ * totals over voter chunks, then merged. Ties go to the lower candidate index.
+ */
+public final class Positional {
+
+    private static final int CHUNK = 4096;
+
+    private Positional() {}
+
+    /** n-1 points for first, n-2 for second, ..., 0 for last. */
+    public static RankedMethod borda() {
+        return of(n -> {
+            double[] w = new double[n];
+            for (int k = 0; k < n; k++) w[k] = n - 1 - k;
+            return w;
+        });
+    }
+
+    /** 1, 1/2, 1/3, ... (Nauru's Dowdall system). */
+    public static RankedMethod dowdall() {
+        return of(n -> {
+            double[] w = new double[n];
+            for (int k = 0; k < n; k++) w[k] = 1.0 / (k + 1);
+            return w;
+        });
+    }
+
+    /** Fixed weight vector (e.g. 12, 10, 8, 7, ...); positions past its end score 0. */
+    public static RankedMethod weights(double... weights) {
+        final double[] w = weights.clone();
+        return of(n -> w);
+    }
+
+    /** Weight vector chosen per race from the number of candidates. */
+    public static RankedMethod of(IntFunction<double[]> weightsForCandidates) {
+        return ballots -> {
+            if (ballots.candidateCount() == 0 || ballots.voterCount() == 0) return null;
+            double[] points = scores(ballots, weightsForCandidates.apply(ballots.candidateCount()));
+            return ballots.getCandidates().get(winner(points));
+        };
+    }
+
+    /** Total points per candidate index. */
+    public static double[] scores(RankedBallots ballots, double[] weights) {
+        final int n = ballots.candidateCount();
+        final int voters = ballots.voterCount();
+        // positions past the last non-zero weight can't change a total
+        int d = Math.min(n, weights.length);
+        while (d > 0 && weights[d - 1] == 0.0) d--;
+        final int depth = d;
+        if (depth == 0 || voters == 0) return new double[n];
+
+        final int chunks = (voters + CHUNK - 1) / CHUNK;
+        return SimulationExecutor.get()
+                .collectChunks(chunks, () -> new double[n],
+                        (points, chunk) -> {
+                            int end = Math.min(voters, (chunk + 1) * CHUNK);
+                            for (int v = chunk * CHUNK; v < end; v++) {
+                                for (int k = 0; k < depth; k++) points[ballots.at(v, k)] += weights[k];
+                            }
+                        },
+                        (a, b) -> {
+                            for (int c = 0; c < n; c++) a[c] += b[c];
+                        });
+    }
+
+    static int winner(double[] points) {
+        int best = 0;
+        for (int c = 1; c < points.length; c++) if (points[c] > points[best]) best = c;
+        return best;
+    }
+}
@@ -0,0 +1,23 @@
+package com.crotaplague.Ballots;
+
+import com.crotaplague.Citizen;
+import com.crotaplague.RankedBallots;
+import com.crotaplague.Representative;
+
+import java.util.List;
+
+/**
+ * An ElectionMethod that only needs every voter's full ranking. Given the same race, several ranked
+ * methods can share one RankedBallots (see Country.simulate(Map)) instead of each re-ranking the voters.
+ */
+@FunctionalInterface
+public interface RankedMethod extends ElectionMethod {
+    Representative run(RankedBallots ballots);
+
+    @Override
+    default Representative run(List<Representative> candidates, List<Citizen> voters) {
+        if (candidates == null || candidates.isEmpty()) return null;
+        if (voters == null || voters.isEmpty()) return null;
+        return run(RankedBallots.rank(candidates, voters));
+    }
+}
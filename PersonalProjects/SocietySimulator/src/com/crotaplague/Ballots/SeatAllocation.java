@@ -0,0 +1,88 @@
+package com.crotaplague.Ballots;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Seat allocation algorithms behind SeatAllocator.
+ *
+ * Highest averages keeps every party in a max-heap keyed by votes / divisor(seatsWon); each
+ * seat pops the best party and pushes it back with its next quotient, so a chamber costs
+ * O(seats log parties) instead of a full scan per seat.
+ */
+final class SeatAllocation {
+
+    private SeatAllocation() {}
+
+    static int[] highestAverages(long[] votes, int seats, IntToDoubleFunction divisor) {
+        final int n = votes.length;
+        final int[] won = new int[n];
+        if (seats <= 0 || n == 0) return won;
+
+        final double[] quotient = new double[n];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, n), (a, b) -> {
+            int c = Double.compare(quotient[b], quotient[a]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int i = 0; i < n; i++) {
+            if (votes[i] <= 0) continue;
+            quotient[i] = votes[i] / divisor.applyAsDouble(0);
+            heap.add(i);
+        }
+
+        for (int seat = 0; seat < seats && !heap.isEmpty(); seat++) {
+            int best = heap.poll();
+            won[best]++;
+            quotient[best] = votes[best] / divisor.applyAsDouble(won[best]);
+            heap.add(best);
+        }
+        return won;
+    }
+
+    static int[] largestRemainder(long[] votes, int seats, boolean droop) {
+        final int n = votes.length;
+        final int[] won = new int[n];
+        if (seats <= 0 || n == 0) return won;
+
+        long total = 0L;
+        for (long v : votes) if (v > 0) total += v;
+        if (total == 0L) return won;
+
+        final double quota = droop ? Math.floor(total / (double) (seats + 1)) + 1.0 : total / (double) seats;
+        final double[] remainder = new double[n];
+        int assigned = 0;
+        for (int i = 0; i < n; i++) {
+            if (votes[i] <= 0) continue;
+            double q = votes[i] / quota;
+            won[i] = (int) Math.floor(q);
+            remainder[i] = q - won[i];
+            assigned += won[i];
+        }
+
+        // Leftover seats go to the largest remainders (at most one each)
+        int left = seats - assigned;
+        if (left > 0) {
+            Integer[] order = new Integer[n];
+            int m = 0;
+            for (int i = 0; i < n; i++) if (votes[i] > 0) order[m++] = i;
+            order = Arrays.copyOf(order, m);
+            Arrays.sort(order, (a, b) -> {
+                int c = Double.compare(remainder[b], remainder[a]);
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+            for (int k = 0; k < order.length && left > 0; k++, left--) won[order[k]]++;
+        }
+        return won;
+    }
+
+    static long[] applyThreshold(long[] votes, double fraction) {
+        long total = 0L;
+        for (long v : votes) if (v > 0) total += v;
+        long[] out = votes.clone();
+        if (fraction <= 0.0 || total == 0L) return out;
+        double min = fraction * total;
+        for (int i = 0; i < out.length; i++) if (out[i] < min) out[i] = 0L;
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package com.crotaplague.Ballots;
+
+/**
+ * Turns party vote totals into seat counts for a list-proportional chamber.
+ *
+ * votes[i] is party i's vote total; the returned array has the same length and sums to at most
+ * seats. Ties always go to the lower party index so results are deterministic.
+ */
+@FunctionalInterface
+public interface SeatAllocator {
+    int[] allocate(long[] votes, int seats);
+
+    /** Highest averages with divisors 1, 2, 3, ... */
+    static SeatAllocator dHondt() {
+        return (votes, seats) -> SeatAllocation.highestAverages(votes, seats, s -> s + 1.0);
+    }
+
+    /** Highest averages with divisors 1, 3, 5, ... */
+    static SeatAllocator sainteLague() {
+        return (votes, seats) -> SeatAllocation.highestAverages(votes, seats, s -> 2.0 * s + 1.0);
+    }
+
+    /** Sainte-Laguë with the first divisor raised to 1.4 (Nordic variant). */
+    static SeatAllocator modifiedSainteLague() {
+        return (votes, seats) -> SeatAllocation.highestAverages(votes, seats, s -> s == 0 ? 1.4 : 2.0 * s + 1.0);
+    }
+
+    /** Largest remainder with the Hare quota, total / seats. */
+    static SeatAllocator hare() {
+        return (votes, seats) -> SeatAllocation.largestRemainder(votes, seats, false);
+    }
+
+    /** Largest remainder with the Droop quota, floor(total / (seats + 1)) + 1. */
+    static SeatAllocator droop() {
+        return (votes, seats) -> SeatAllocation.largestRemainder(votes, seats, true);
+    }
+
+    /**
+     * Same allocator, but parties below the given fraction of all votes (e.g. 0.05) are
+     * excluded before seats are handed out.
+     */
+    default SeatAllocator withThreshold(double fraction) {
+        if (!(fraction >= 0.0 && fraction < 1.0)) throw new IllegalArgumentException("threshold must be in [0, 1)");
+        return (votes, seats) -> allocate(SeatAllocation.applyThreshold(votes, fraction), seats);
+    }
+}
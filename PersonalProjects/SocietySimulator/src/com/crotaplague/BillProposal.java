@@ -29,6 +29,8 @@ public class BillProposal implements Comparable<BillProposal>{
     public long getYay(){return yay.sum();}
     public void nay(){nay.add(1);}
     public long getNay(){return nay.sum();}
+    // whole roll call at once (RollCall counts)
+    void tally(long yes, long no){yay.add(yes); nay.add(no);}
     public Value getValue(){return this.value;}
     public boolean hasDiscussed(){return hasDiscussed;}
     public Law getLaw(){return this.law;}
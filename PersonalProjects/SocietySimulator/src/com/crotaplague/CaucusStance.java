@@ -0,0 +1,119 @@
+package com.crotaplague;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A party's stance on a bill, for members who are unsure and talk it over with their caucus.
+ *
+ * The conversation is: pick k uniformly from 1..ceil(0.9 * members), talk to k members, each says yes
+ * (+2) or no (-1) by their own no-discussion judgement; the unsure member is won over when the total is
+ * positive, i.e. more than k/3 said yes. Instead of replaying that per unsure member, the caucus is
+ * summarised once per bill by q, the mean no-discussion yes probability of its members, and a
+ * conversation of k members is taken as Binomial(k, q). So
+ *
+ *   agree = (1 / K) * sum over k = 1..K of P(Binomial(k, q) > k / 3)
+ *
+ * which is one pass over the members plus O(K) for the sum (exact for small k, normal approximation
+ * above EXACT_LIMIT).
+ */
+public final class CaucusStance {
+
+    private static final double TALK_SHARE = 0.90;
+    private static final int EXACT_LIMIT = 64;
+    private static final double SATURATED_Z = 8.5;
+
+    private CaucusStance() {}
+
+    /** Chance that an unsure member of the party is won over on the bill (0 without a caucus). */
+    public static double agreeProbability(Party party, BillProposal bill) {
+        return agreeProbabilities(party, List.of(bill))[0];
+    }
+
+    /** Same for every bill of an agenda, with a single pass over the members. */
+    public static double[] agreeProbabilities(Party party, List<BillProposal> bills) {
+        final int nBills = bills.size();
+        final double[] out = new double[nBills];
+        if (party == null || party.options == null || nBills == 0) return out;
+
+        final List<Representative> members;
+        synchronized (party) {
+            members = new ArrayList<>(party.options);
+        }
+        final int n = members.size();
+        if (n == 0) return out;
+
+        final String[] target = new String[nBills];
+        for (int b = 0; b < nBills; b++) {
+            Value v = bills.get(b).getValue();
+            target[b] = (v == null || v.getName() == null) ? null : v.getName().toLowerCase();
+        }
+
+        final Value[] fromParty = RollCall.resolve(party.getValues(), target);
+        final double[] q = new double[nBills];
+        for (Representative member : members) {
+            // a member's own party may differ from the caucus it was added to; judge by its own
+            Value[] own = RollCall.resolve(member.values, target);
+            Value[] memberParty = member.getParty() == party ? fromParty : RollCall.resolve(member.getParty() == null ? null : member.getParty().getValues(), target);
+            for (int b = 0; b < nBills; b++) {
+                if (target[b] == null) continue;
+                q[b] += member.supportProbability(bills.get(b), own[b], memberParty[b], 0.0);
+            }
+        }
+
+        for (int b = 0; b < nBills; b++) {
+            if (target[b] != null) out[b] = agreeProbability(q[b] / n, n);
+        }
+        return out;
+    }
+
+    /** Chance of being won over by a caucus of the given size whose mean yes probability is meanSupport. */
+    static double agreeProbability(double meanSupport, int members) {
+        if (members <= 0) return 0.0;
+        return winOverProbability(meanSupport, Math.max(1, (int) Math.ceil(TALK_SHARE * members)));
+    }
+
+    /** Mean over k = 1..maxTalk of P(Binomial(k, q) > k / 3). */
+    static double winOverProbability(double q, int maxTalk) {
+        if (!(q > 0.0)) return 0.0;
+        if (q >= 1.0) return 1.0;
+
+        double sum = 0.0;
+        // exact: binomial pmf grown one conversation at a time
+        final int exactTo = Math.min(maxTalk, EXACT_LIMIT);
+        final double[] pmf = new double[exactTo + 1];
+        pmf[0] = 1.0;
+        for (int k = 1; k <= exactTo; k++) {
+            for (int j = k; j >= 1; j--) pmf[j] = pmf[j] * (1.0 - q) + pmf[j - 1] * q;
+            pmf[0] *= (1.0 - q);
+            double tail = 0.0;
+            for (int j = k / 3 + 1; j <= k; j++) tail += pmf[j];
+            sum += tail;
+        }
+        // large k: normal approximation with continuity correction. z drifts away from 0 like sqrt(k)
+        // once q is off 1/3, so past |z| = 8.5 every later term is 0 or 1 to double precision
+        final double sd1 = Math.sqrt(q * (1.0 - q));
+        for (int k = exactTo + 1; k <= maxTalk; k++) {
+            double z = ((k / 3 + 0.5) - k * q) / (sd1 * Math.sqrt(k));
+            if (z > SATURATED_Z && q < 1.0 / 3.0) break;
+            if (z < -SATURATED_Z && q > 1.0 / 3.0) {
+                sum += maxTalk - k + 1;
+                break;
+            }
+            sum += upperNormalTail(z);
+        }
+        return Math.min(1.0, sum / maxTalk);
+    }
+
+    /** P(Z > z) for a standard normal, via erfc (Numerical Recipes erfcc, relative error < 1.2e-7). */
+    static double upperNormalTail(double z) {
+        double x = z / Math.sqrt(2.0);
+        double ax = Math.abs(x);
+        double t = 1.0 / (1.0 + 0.5 * ax);
+        double erfc = t * Math.exp(-ax * ax - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        if (x < 0) erfc = 2.0 - erfc;
+        return 0.5 * erfc;
+    }
+}
@@ -13,6 +13,8 @@ public class Citizen{
     private double extremism = 0.25;
     private Country country;
     private boolean representativePreferred = false; // optional toggle from config
+    private SparseProfile profile; // scoring view of values, rebuilt when they change
+    private int nationalIndex = -1; // position in the citizen list national preferences were last built from
     public Citizen(Country c){
         this.country = c;
         Random random = new Random(System.currentTimeMillis());
@@ -39,6 +41,17 @@ public class Citizen{
     public County getCounty(){return this.county;}
     public void addValue(Value value){values.add(value);}
     public List<Value> getValues(){return this.values;}
+
+    /** Cached sparse profile of this citizen's values. Racy but safe: it is immutable and rebuilt if stale. */
+    SparseProfile profile(){
+        SparseProfile p = profile;
+        if (p == null || !p.isCurrent(values.size())) profile = p = SparseProfile.of(this);
+        return p;
+    }
+
+    /** Set by VotingUtils when it builds national preferences; callers check the slot still holds this citizen. */
+    int nationalIndex(){return this.nationalIndex;}
+    void setNationalIndex(int i){this.nationalIndex = i;}
     public double getExtremism(){return this.extremism;}
     public void setExtremism(double e){this.extremism = e;}
     public void setBias(int b){this.politicalBias = Math.max(0, Math.min(100, b));}
@@ -0,0 +1,284 @@
+package com.crotaplague;
+
+import java.util.*;
+
+/**
+ * Coalition formation over a chamber's seat shares.
+ *
+ * Parties sit on the bias axis (the same ordering as Party.compareTo); a coalition's range is the bias
+ * distance between its outermost members. The most compact majority is found without enumerating
+ * subsets: a two-pointer pass over the bias-sorted parties gives every narrowest window whose seats
+ * reach the quota, and a subset-sum DP over seat counts (bitset of reachable totals) picks the fewest
+ * seats that still win inside the window. Any such subset is minimal winning, and its range can't be
+ * narrower than the window's. Remaining ties go to the coalition whose members' value profiles are
+ * closest (mean pairwise opinion gap on shared issues).
+ *
+ * minimalWinning() enumerates minimal winning coalitions up to a range bound, pruning branches that
+ * can't reach the quota or would widen past the bound. With hundreds of small parties there are far
+ * too many to list, so it stops at a limit.
+ */
+public final class CoalitionSolver {
+
+    public static final class Coalition {
+        public final List<Party> members;
+        public final int seats;
+        public final int range;
+        public final double policyDistance;
+
+        private Coalition(List<Party> members, int seats, int range, double policyDistance) {
+            this.members = Collections.unmodifiableList(members);
+            this.seats = seats;
+            this.range = range;
+            this.policyDistance = policyDistance;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Party p : members) sb.append(sb.length() == 0 ? "" : ", ").append(p.getName());
+            return String.format("Coalition[%s] seats=%d range=%d policyDistance=%.2f", sb, seats, range, policyDistance);
+        }
+    }
+
+    // parties with seats, sorted by bias (more seats first on equal bias)
+    private final Party[] parties;
+    private final int[] seats;
+    private final int[] bias;
+    private final int totalSeats;
+    // per party: issue ids held and opinion by issue id (NO_OPINION if not held), for the policy tie-break
+    private static final int NO_OPINION = Integer.MIN_VALUE;
+    private final int[][] issuesHeld;
+    private final int[][] opinionByIssue;
+    // party x party policy distance, computed on first use
+    private double[] distance;
+
+    public CoalitionSolver(Map<Party, Integer> seatsByParty) {
+        List<Map.Entry<Party, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<Party, Integer> e : seatsByParty.entrySet()) {
+            if (e.getKey() != null && e.getValue() != null && e.getValue() > 0) entries.add(e);
+        }
+        entries.sort((a, b) -> {
+            int c = Integer.compare(a.getKey().getBias(), b.getKey().getBias());
+            return c != 0 ? c : Integer.compare(b.getValue(), a.getValue());
+        });
+        int n = entries.size();
+        parties = new Party[n];
+        seats = new int[n];
+        bias = new int[n];
+        Map<String, Integer> issueIds = new HashMap<>();
+        List<Map<Integer, Integer>> held = new ArrayList<>(n);
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            parties[i] = entries.get(i).getKey();
+            seats[i] = entries.get(i).getValue();
+            bias[i] = parties[i].getBias();
+            total += seats[i];
+            Map<Integer, Integer> own = new LinkedHashMap<>();
+            List<Value> values = parties[i].getValues();
+            if (values != null) {
+                for (Value v : values) {
+                    if (v != null) own.putIfAbsent(issueIds.computeIfAbsent(v.getName(), k -> issueIds.size()), v.getOpinion());
+                }
+            }
+            held.add(own);
+        }
+        issuesHeld = new int[n][];
+        opinionByIssue = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Map<Integer, Integer> own = held.get(i);
+            issuesHeld[i] = new int[own.size()];
+            opinionByIssue[i] = new int[issueIds.size()];
+            Arrays.fill(opinionByIssue[i], NO_OPINION);
+            int t = 0;
+            for (Map.Entry<Integer, Integer> e : own.entrySet()) {
+                issuesHeld[i][t++] = e.getKey();
+                opinionByIssue[i][e.getKey()] = e.getValue();
+            }
+        }
+        totalSeats = total;
+    }
+
+    /** Seats per party as elected into the chamber (reps without a party are ignored). */
+    public static CoalitionSolver fromChamber(Collection<Representative> chamber) {
+        Map<Party, Integer> seatsByParty = new HashMap<>();
+        for (Representative r : chamber) {
+            if (r.getParty() != null) seatsByParty.merge(r.getParty(), 1, Integer::sum);
+        }
+        return new CoalitionSolver(seatsByParty);
+    }
+
+    public int getTotalSeats() { return totalSeats; }
+    public int getPartyCount() { return parties.length; }
+
+    /** Simple majority of the seats held by parties. */
+    public int majority() { return totalSeats / 2 + 1; }
+
+    public Coalition mostCompact() { return mostCompact(majority()); }
+
+    /** Narrowest coalition reaching quota with the fewest seats, or null if all parties together fall short. */
+    public Coalition mostCompact(int quota) {
+        final int n = parties.length;
+        if (quota <= 0 || quota > totalSeats) return null;
+
+        // narrowest window [i, j] per left edge i (j never moves left as i moves right)
+        int bestRange = Integer.MAX_VALUE;
+        List<int[]> windows = new ArrayList<>();
+        int j = -1, sum = 0;
+        for (int i = 0; i < n; i++) {
+            while (sum < quota && j + 1 < n) sum += seats[++j];
+            if (sum < quota) break;
+            int range = bias[j] - bias[i];
+            if (range < bestRange) {
+                bestRange = range;
+                windows.clear();
+            }
+            if (range == bestRange) windows.add(new int[]{i, j});
+            sum -= seats[i];
+        }
+
+        // widen each window to every party whose bias lies in it, as equal-bias parties are interchangeable
+        Coalition best = null;
+        int lastLo = -1;
+        for (int[] w : windows) {
+            int lo = w[0], hi = w[1];
+            while (lo > 0 && bias[lo - 1] == bias[lo]) lo--;
+            while (hi + 1 < n && bias[hi + 1] - bias[lo] <= bestRange) hi++;
+            if (lo == lastLo) continue;
+            lastLo = lo;
+            Coalition c = fewestSeats(lo, hi, quota);
+            if (c == null) continue;
+            if (best == null || c.seats < best.seats || (c.seats == best.seats && c.policyDistance < best.policyDistance)) best = c;
+        }
+        return best;
+    }
+
+    // subset-sum DP over parties lo..hi: reach[k] = totals reachable with the first k parties of the window
+    private Coalition fewestSeats(int lo, int hi, int quota) {
+        final int k = hi - lo + 1;
+        int cap = 0;
+        for (int i = lo; i <= hi; i++) cap += seats[i];
+        final int words = (cap >>> 6) + 1;
+        final long[][] reach = new long[k + 1][];
+        reach[0] = new long[words];
+        reach[0][0] = 1L;
+        for (int t = 0; t < k; t++) {
+            long[] prev = reach[t];
+            long[] next = prev.clone();
+            orShifted(next, prev, seats[lo + t]);
+            reach[t + 1] = next;
+        }
+
+        int target = -1;
+        for (int s = quota; s <= cap; s++) {
+            if ((reach[k][s >>> 6] & (1L << s)) != 0) { target = s; break; }
+        }
+        if (target < 0) return null;
+
+        // walk back: keep party t if the total wasn't reachable without it
+        List<Party> members = new ArrayList<>();
+        List<Integer> idx = new ArrayList<>();
+        int s = target;
+        for (int t = k; t >= 1 && s > 0; t--) {
+            if ((reach[t - 1][s >>> 6] & (1L << s)) != 0) continue;
+            idx.add(lo + t - 1);
+            s -= seats[lo + t - 1];
+        }
+        Collections.reverse(idx);
+        for (int i : idx) members.add(parties[i]);
+        return new Coalition(members, target, bias[idx.get(idx.size() - 1)] - bias[idx.get(0)], policyDistance(idx));
+    }
+
+    // dst |= src << shift
+    private static void orShifted(long[] dst, long[] src, int shift) {
+        int wordShift = shift >>> 6, bitShift = shift & 63;
+        for (int w = dst.length - 1; w >= wordShift; w--) {
+            int from = w - wordShift;
+            long v = src[from] << bitShift;
+            if (bitShift != 0 && from > 0) v |= src[from - 1] >>> (64 - bitShift);
+            dst[w] |= v;
+        }
+    }
+
+    /**
+     * Minimal winning coalitions (dropping any member loses the majority) whose range is at most
+     * maxRange, ordered by leftmost member on the bias axis; at most limit are returned.
+     */
+    public List<Coalition> minimalWinning(int quota, int maxRange, int limit) {
+        List<Coalition> out = new ArrayList<>();
+        if (quota <= 0 || quota > totalSeats || limit <= 0) return out;
+        final int n = parties.length;
+        // seats from index i to the last party within range of the left edge
+        final int[] prefix = new int[n + 1];
+        for (int i = 0; i < n; i++) prefix[i + 1] = prefix[i] + seats[i];
+
+        int[] chosen = new int[n];
+        for (int left = 0; left < n && out.size() < limit; left++) {
+            int end = left;
+            while (end + 1 < n && bias[end + 1] - bias[left] <= maxRange) end++;
+            if (prefix[end + 1] - prefix[left] < quota) continue;
+            chosen[0] = left;
+            search(left + 1, end, 1, seats[left], seats[left], quota, chosen, prefix, limit, out);
+        }
+        return out;
+    }
+
+    private void search(int from, int end, int size, int total, int smallest, int quota, int[] chosen, int[] prefix, int limit, List<Coalition> out) {
+        if (out.size() >= limit) return;
+        if (total >= quota) {
+            // any superset is winning but not minimal, so stop here either way
+            if (total - smallest < quota) out.add(toCoalition(chosen, size, total));
+            return;
+        }
+        if (total + prefix[end + 1] - prefix[from] < quota) return;
+        for (int i = from; i <= end && out.size() < limit; i++) {
+            if (total + prefix[end + 1] - prefix[i] < quota) return;
+            chosen[size] = i;
+            search(i + 1, end, size + 1, total + seats[i], Math.min(smallest, seats[i]), quota, chosen, prefix, limit, out);
+        }
+    }
+
+    private Coalition toCoalition(int[] chosen, int size, int total) {
+        List<Party> members = new ArrayList<>(size);
+        List<Integer> idx = new ArrayList<>(size);
+        for (int t = 0; t < size; t++) {
+            members.add(parties[chosen[t]]);
+            idx.add(chosen[t]);
+        }
+        return new Coalition(members, total, bias[chosen[size - 1]] - bias[chosen[0]], policyDistance(idx));
+    }
+
+    // mean over member pairs of the mean opinion gap on issues both hold (0 when none are shared)
+    private double policyDistance(List<Integer> idx) {
+        if (distance == null) distance = distanceMatrix();
+        final int n = parties.length;
+        double sum = 0.0;
+        int pairs = 0;
+        for (int a = 0; a < idx.size(); a++) {
+            int row = idx.get(a) * n;
+            for (int b = a + 1; b < idx.size(); b++) {
+                sum += distance[row + idx.get(b)];
+                pairs++;
+            }
+        }
+        return pairs == 0 ? 0.0 : sum / pairs;
+    }
+
+    private double[] distanceMatrix() {
+        final int n = parties.length;
+        double[] d = new double[n * n];
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                int[] other = opinionByIssue[b];
+                double gap = 0.0;
+                int shared = 0;
+                for (int issue : issuesHeld[a]) {
+                    if (other[issue] == NO_OPINION) continue;
+                    gap += Math.abs(opinionByIssue[a][issue] - other[issue]);
+                    shared++;
+                }
+                d[a * n + b] = d[b * n + a] = shared == 0 ? 0.0 : gap / shared;
+            }
+        }
+        return d;
+    }
+}
@@ -4,12 +4,11 @@ import com.crotaplague.Ballots.*;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicIntegerArray;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 public class Country {
-    private final List<Law> laws;
+    private final LawRegistry laws;
     private final List<State> states;
     private final List<Citizen> citizens;
     public Map<String, Party> parties;
@@ -27,6 +26,17 @@ public class Country {
     // Pre-generated candidate pools to ensure repeatable elections per instantiation
     private final Map<State, List<Representative>> representativeCandidates = new ConcurrentHashMap<>();
     private final Map<State, List<Representative>> chamberlainCandidates = new ConcurrentHashMap<>();
+    // Counties per state; remembers the last result so size/population changes only move the delta
+    // (a divisor method: Hamilton is not house monotone and is always recomputed from scratch)
+    private final Apportioner countyApportioner = new Apportioner(Apportioner.Method.HUNTINGTON_HILL);
+    // Built once per party set and shared by every candidate-to-party assignment
+    private volatile PartyMatcher partyMatcher;
+    // Multi-session legislature over the chamber, created on first use
+    private Legislature legislature;
+    // Most compact majority coalition of the last elected chamber
+    private volatile CoalitionSolver.Coalition governingCoalition;
+    // phase timings and counters of this country's runs (see Metrics)
+    private final Metrics metrics = new Metrics();
 
     public Country(){
         this(true);
@@ -34,7 +44,7 @@ public class Country {
 
     // New constructor that controls whether to generate citizens and representatives immediately
     public Country(boolean generatePopulationAndReps){
-        laws = new ArrayList<>();
+        laws = new LawRegistry();
         states = new ArrayList<>();
         parties = new HashMap<>();
         chamber = new ArrayList<>(chamberSize);
@@ -63,12 +73,7 @@ public class Country {
 
         // Always create counties structure after apportionment, but need citizens first to distribute
         if (generatePopulationAndReps) {
-            generateCitizens();
-
-            Map<State, Integer> allocation = RandomScripts.apportionByHamilton(states, getCountyCount());
-            for (State s : states) {
-                s.citizensToCounties(allocation.get(s));
-            }
+            populate();
 
             updateParties();
             // Pre-compute representative candidate pools so repeated elections reuse them
@@ -79,13 +84,29 @@ public class Country {
     // Public method to generate population and representatives if they were deferred at construction
     public void generatePopulationAndRepresentatives() {
         if (!citizens.isEmpty()) return; // already generated
+        populate();
+        updateParties();
+        prepareRepresentatives();
+    }
+
+    // Generates citizens and districts each state into its apportioned counties
+    private void populate() {
+        SimulationEvents.PopulationGenerated event = new SimulationEvents.PopulationGenerated();
+        event.begin();
         generateCitizens();
-        Map<State, Integer> allocation = RandomScripts.apportionByHamilton(states, getCountyCount());
+        Map<State, Integer> allocation = countyApportioner.update(states, getCountyCount());
         for (State s : states) {
             s.citizensToCounties(allocation.get(s));
         }
-        updateParties();
-        prepareRepresentatives();
+        event.end();
+        if (event.shouldCommit()) {
+            event.citizens = citizens.size();
+            event.states = states.size();
+            int counties = 0;
+            for (State s : states) counties += s.getCounties().size();
+            event.counties = counties;
+            event.commit();
+        }
     }
 
     // Helper to generate citizens and assign to states
@@ -109,44 +130,50 @@ public class Country {
     }
 
     // Extracted from runElection: build and cache representative candidate pools per state
+    @SuppressWarnings("try")
     public void prepareRepresentatives(){
-        representativeCandidates.clear();
-        chamberlainCandidates.clear();
-        posExists.clear();
-
-        states.parallelStream().forEach(state -> {
-            // Representative candidates based on county/state blocks
-            List<VotingBlock> blocks = RandomScripts.createBlocks(state);
-            List<Representative> reps = RandomScripts.assignRepresentatives(blocks, RandomScripts.randomMultiplier(), Desire.REPRESENTATIVE);
-            // Ensure citizens flagged as preferred are included as candidates
-            Set<UUID> existing = new HashSet<>();
-            for (Representative r : reps) existing.add(r.getCitizen().id);
-            for (Citizen c : state.getCitizens()){
-                if (c.isRepresentativePreferred() && !existing.contains(c.id)){
-                    reps.add(new Representative(c, Desire.REPRESENTATIVE));
-                    existing.add(c.id);
-                }
+        try (Metrics.Phase phase = metrics.phase("prepareRepresentatives")) {
+            representativeCandidates.clear();
+            chamberlainCandidates.clear();
+            posExists.clear();
+
+            SimulationExecutor.get().forEach(SimulationExecutor.Granularity.STATE, states, this::prepareRepresentatives);
+            metrics.add("candidates.prepared", posExists.size());
+        }
+    }
+
+    private void prepareRepresentatives(State state){
+        // Representative candidates based on county/state blocks
+        List<VotingBlock> blocks = RandomScripts.createBlocks(state);
+        List<Representative> reps = RandomScripts.assignRepresentatives(blocks, RandomScripts.randomMultiplier(), Desire.REPRESENTATIVE);
+        // Ensure citizens flagged as preferred are included as candidates
+        Set<UUID> existing = new HashSet<>();
+        for (Representative r : reps) existing.add(r.getCitizen().id);
+        for (Citizen c : state.getCitizens()){
+            if (c.isRepresentativePreferred() && !existing.contains(c.id)){
+                reps.add(new Representative(c, Desire.REPRESENTATIVE));
+                existing.add(c.id);
             }
-            posExists.addAll(reps);
-            state.sortPickRepresentative(reps);
-            representativeCandidates.put(state, reps);
-
-            // Chamberlain candidates (single state-wide block)
-            VotingBlock block = new VotingBlock(state);
-            List<Representative> chCands = RandomScripts.assignRepresentatives(List.of(block), RandomScripts.randomMultiplier(), Desire.CHAMBERLAIN);
-            // also include preferred citizens in chamberlain pool
-            Set<UUID> existingCh = new HashSet<>();
-            for (Representative r : chCands) existingCh.add(r.getCitizen().id);
-            for (Citizen c : state.getCitizens()){
-                if (c.isRepresentativePreferred() && !existingCh.contains(c.id)){
-                    chCands.add(new Representative(c, Desire.CHAMBERLAIN));
-                    existingCh.add(c.id);
-                }
+        }
+        posExists.addAll(reps);
+        state.sortPickRepresentative(reps);
+        representativeCandidates.put(state, reps);
+
+        // Chamberlain candidates (single state-wide block)
+        VotingBlock block = new VotingBlock(state);
+        List<Representative> chCands = RandomScripts.assignRepresentatives(List.of(block), RandomScripts.randomMultiplier(), Desire.CHAMBERLAIN);
+        // also include preferred citizens in chamberlain pool
+        Set<UUID> existingCh = new HashSet<>();
+        for (Representative r : chCands) existingCh.add(r.getCitizen().id);
+        for (Citizen c : state.getCitizens()){
+            if (c.isRepresentativePreferred() && !existingCh.contains(c.id)){
+                chCands.add(new Representative(c, Desire.CHAMBERLAIN));
+                existingCh.add(c.id);
             }
-            posExists.addAll(chCands);
-            state.sortPickRepresentative(chCands);
-            chamberlainCandidates.put(state, chCands);
-        });
+        }
+        posExists.addAll(chCands);
+        state.sortPickRepresentative(chCands);
+        chamberlainCandidates.put(state, chCands);
     }
 
     public List<State> getStates(){
@@ -158,6 +185,7 @@ public class Country {
         if(size > 0){
             this.chamberSize = size;
             this.countyCount = Math.max(1, chamberSize * 2 / 3);
+            reapportionCounties();
         }
     }
     public void setStateCount(int count){
@@ -175,7 +203,53 @@ public class Country {
         }
     }
     public int getChamberSize(){ return this.chamberSize; }
-    public void setCountyCount(int count){ this.countyCount = Math.max(1, count); }
+    public void setCountyCount(int count){
+        this.countyCount = Math.max(1, count);
+        reapportionCounties();
+    }
+
+    /**
+     * Re-apportions counties after the county count or state populations changed. Only states whose
+     * county count moved are re-districted, and only their candidate pools are rebuilt. No-op until
+     * the population has been generated.
+     */
+    public void reapportionCounties(){
+        boolean built = false;
+        for (State s : states) if (!s.getCounties().isEmpty()) { built = true; break; }
+        if (!built) return;
+
+        Map<State, Integer> allocation = countyApportioner.update(states, getCountyCount());
+        List<State> changed = new ArrayList<>();
+        for (State s : states) {
+            int want = Math.max(1, allocation.getOrDefault(s, 1));
+            if (s.getCounties().size() == want) continue;
+            s.clearCounties();
+            s.citizensToCounties(want);
+            changed.add(s);
+        }
+        if (changed.isEmpty() || representativeCandidates.isEmpty()) return;
+
+        // Drop the stale pools of the re-districted states, then rebuild just those
+        Set<Representative> stale = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (State s : changed) {
+            List<Representative> r = representativeCandidates.remove(s);
+            if (r != null) stale.addAll(r);
+            List<Representative> ch = chamberlainCandidates.remove(s);
+            if (ch != null) stale.addAll(ch);
+        }
+        synchronized (posExists) {
+            posExists.removeIf(stale::contains);
+        }
+        // and from their parties, so caucuses and party lists only see the new candidates
+        Set<Party> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Representative r : stale) if (r.getParty() != null) affected.add(r.getParty());
+        for (Party p : affected) {
+            synchronized (p) {
+                if (p.getOptions() != null) p.getOptions().removeIf(stale::contains);
+            }
+        }
+        SimulationExecutor.get().forEach(SimulationExecutor.Granularity.STATE, changed, this::prepareRepresentatives);
+    }
 
     public void resetStates(List<State> newStates){
         this.states.clear();
@@ -183,66 +257,40 @@ public class Country {
         this.stateCount = this.states.size();
     }
 
+    @SuppressWarnings("try")
     public void runElection() {
-        // Use a work-stealing pool sized to available processors
-        ExecutorService executor = Executors.newWorkStealingPool(Runtime.getRuntime().availableProcessors());
-        try {
-            System.out.print("...");
-
+        try (Metrics.Phase phase = metrics.phase("runElection")) {
             // Thread-safe collectors to gather results from parallel tasks
             ConcurrentLinkedQueue<Representative> collectedReps = new ConcurrentLinkedQueue<>();
 
-            // Aggregators for chamberlain stats
-            LongAdder chamberlainBiasAdder = new LongAdder();
-            LongAdder chamberlainCountAdder = new LongAdder();
-
-            // Submit one task per state
-            List<CompletableFuture<Void>> futures = new ArrayList<>(states.size());
             // Ensure we have a fixed set of candidates prepared
             if (representativeCandidates.isEmpty() || chamberlainCandidates.isEmpty()) {
                 prepareRepresentatives();
             }
 
-            for (State state : states) {
-                CompletableFuture<Void> f = CompletableFuture.runAsync(() -> {
-                    // Create blocks and run representative STV for this state
-                    List<VotingBlock> blocks = RandomScripts.createBlocks(state);
-
-                    // Use pre-built candidate pool for representatives
-                    List<Representative> r = representativeCandidates.getOrDefault(state, List.of());
-                    List<Representative> out = RandomScripts.runStv(blocks, r);
+            // one task per state on the simulation pool
+            SimulationExecutor.get().forEach(SimulationExecutor.Granularity.STATE, states, state -> {
+                long start = System.nanoTime();
+                // Create blocks and run representative STV for this state
+                List<VotingBlock> blocks = RandomScripts.createBlocks(state);
 
-                    // Chamberlain selection for the state (single-block)
-                    VotingBlock block = new VotingBlock(state);
-                    List<Representative> r2 = chamberlainCandidates.getOrDefault(state, List.of());
-                    List<Representative> unneeded = RandomScripts.runStv(List.of(block), r2);
+                // Use pre-built candidate pool for representatives
+                List<Representative> r = representativeCandidates.getOrDefault(state, List.of());
+                List<Representative> out = RandomScripts.runStv(blocks, r);
 
-                    // Accumulate chamberlain biases
-                    int localBias = 0;
-                    for (Representative uwu : unneeded) {
-                        localBias += uwu.getBias();
-                    }
-                    chamberlainBiasAdder.add(localBias);
-                    chamberlainCountAdder.add(unneeded.size());
+                // Chamberlain selection for the state (single-block)
+                VotingBlock block = new VotingBlock(state);
+                List<Representative> r2 = chamberlainCandidates.getOrDefault(state, List.of());
+                List<Representative> unneeded = RandomScripts.runStv(List.of(block), r2);
 
-                    // Combine outputs and add to collector in bulk
-                    out.addAll(unneeded);
-                    collectedReps.addAll(out);
-                }, executor);
+                metrics.add("representatives.elected", out.size());
+                metrics.add("chamberlains.elected", unneeded.size());
 
-                futures.add(f);
-            }
-
-            // Wait for all per-state tasks to finish
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-
-            // compute chamberlain average safely (avoid division by zero)
-            double chamberlainAvg = 0.0;
-            long andCount = chamberlainCountAdder.sum();
-            if (andCount > 0) {
-                chamberlainAvg = (double) chamberlainBiasAdder.sum() / (double) andCount;
-            }
-            System.out.println("Huh, this finishes " + chamberlainAvg + " and: " + andCount);
+                // Combine outputs and add to collector in bulk
+                out.addAll(unneeded);
+                collectedReps.addAll(out);
+                metrics.recordNanos("runElection.state", System.nanoTime() - start);
+            });
 
             // Convert ConcurrentLinkedQueue to ArrayList once (pre-size with constructor)
             List<Representative> reps = new ArrayList<>(collectedReps);
@@ -260,6 +308,9 @@ public class Country {
             // Reset and add to chamber on single thread for repeatable runs
             chamber.clear();
             chamber.addAll(reps);
+            synchronized (this) {
+                if (legislature != null) legislature.membershipChanged();
+            }
 
             // If VotingUtils.runStarElection does not mutate voters list, avoid extra copy
             @SuppressWarnings("unchecked")
@@ -267,9 +318,14 @@ public class Country {
 
             Representative pm = VotingUtils.runStarElection(chamber, chVoters);
             System.out.println("pm: " + pm);
-        } finally {
-            // Ensure executor is shut down
-            executor.shutdown();
+
+            governingCoalition = CoalitionSolver.fromChamber(chamber).mostCompact();
+            if (governingCoalition != null) {
+                metrics.record("coalition.parties", governingCoalition.members.size());
+                metrics.record("coalition.range", governingCoalition.range);
+            } else {
+                metrics.increment("coalition.none");
+            }
         }
     }
 
@@ -280,6 +336,26 @@ public class Country {
         names = RandomScripts.generateNames(Main.state_path);
     }
     public List<Party> getParties(){return new ArrayList<>(parties.values());}
+
+    /**
+     * Matcher for the current parties in bias order. Equal-bias parties are tried in a fresh random
+     * order for every candidate it assigns (as the per-call sort in State.sortPickRepresentative used
+     * to be). Rebuilt when parties or their values change.
+     */
+    public PartyMatcher getPartyMatcher(){
+        List<Party> current = getParties();
+        PartyMatcher m = partyMatcher;
+        if (m != null && m.isCurrentFor(current)) return m;
+        synchronized (this) {
+            m = partyMatcher;
+            if (m == null || !m.isCurrentFor(current)) {
+                current.sort(RandomScripts.unstableComparator(false));
+                m = new PartyMatcher(current.toArray(new Party[0]), true);
+                partyMatcher = m;
+            }
+            return m;
+        }
+    }
     public List<Representative> getChamber(){return chamber;}
     public int getStateCount(){return this.stateCount;}
     public int getCountyCount(){return this.countyCount;}
@@ -328,69 +404,119 @@ public class Country {
         }
     }
 
+    @SuppressWarnings("try")
     public void monthOfDiscussion(){
-        List<Representative> shuffledReps = new  ArrayList<>(chamber);
-        Collections.shuffle(shuffledReps);
-        PriorityQueue<BillProposal> pq = new PriorityQueue<>();
-        shuffledReps.parallelStream().forEach(rep -> {
-            List<BillProposal> proposals = new  ArrayList<>();
-            if(!rep.values.isEmpty()){
-                BillProposal p = new BillProposal(rep.values.get(0), true);
-                p.setProposer(rep.getParty());
-                proposals.add(p);
-            }
-
-            synchronized (pq){
-                pq.addAll(proposals);
-            }
-        });
-        long mostVotes = 0;
-        while(!pq.isEmpty()){
-            BillProposal current = pq.poll();
+        try (Metrics.Phase phase = metrics.phase("monthOfDiscussion")) {
+            List<Representative> shuffledReps = new  ArrayList<>(chamber);
+            Collections.shuffle(shuffledReps);
+            PriorityQueue<BillProposal> pq = new PriorityQueue<>();
             shuffledReps.parallelStream().forEach(rep -> {
-                if(rep.supportsBill(current)){
-                    current.yay();
-                }else{
-                    current.nay();
+                List<BillProposal> proposals = new  ArrayList<>();
+                if(!rep.values.isEmpty()){
+                    BillProposal p = new BillProposal(rep.values.get(0), true);
+                    p.setProposer(rep.getParty());
+                    proposals.add(p);
                 }
-            });
-            Law l = current.getLaw();
-            int required = l.isGovernanceChange() ? chamber.size() * 2 / 3 : chamber.size()/2 + 1;
-            if(l.isGovernanceChange()){
-                System.out.println(l.getGovernanceChange());
-            }
-            long yes = current.getYay();
-            mostVotes = Math.max(mostVotes, yes);
-            if(yes >= required){
-                System.out.println(l);
-                for(Law law : laws){
 
+                synchronized (pq){
+                    pq.addAll(proposals);
                 }
-                laws.add(l);
-            }else{
-                if(yes == mostVotes){
-                    System.out.println(l + " and " + yes + " and " + required);
+            });
+            // passed laws don't feed back into votes within the month, so the whole agenda is voted in one pass
+            List<BillProposal> agenda = new ArrayList<>(pq.size());
+            while(!pq.isEmpty()) agenda.add(pq.poll());
+            SimulationEvents.RollCall event = new SimulationEvents.RollCall();
+            event.begin();
+            RollCall rollCall = RollCall.vote(shuffledReps, agenda, ThreadLocalRandom.current().nextLong());
+            event.end();
+            metrics.add("bills.voted", agenda.size());
+
+            int passed = 0;
+            long mostVotes = 0;
+            for(int i = 0; i < agenda.size(); i++){
+                BillProposal current = agenda.get(i);
+                current.tally(rollCall.getYes(i), rollCall.getNo(i));
+                Law l = current.getLaw();
+                int required = l.isGovernanceChange() ? chamber.size() * 2 / 3 : chamber.size()/2 + 1;
+                if(l.isGovernanceChange()){
+                    System.out.println(l.getGovernanceChange());
                 }
-                if(yes >= chamber.size()/2 + 1){
-                    System.out.println("wow!! " + l);
+                long yes = current.getYay();
+                mostVotes = Math.max(mostVotes, yes);
+                if(yes >= required){
+                    System.out.println(l);
+                    LawRegistry.Match match = laws.check(l);
+                    if(match == LawRegistry.Match.DUPLICATE) continue; // already law
+                    Law replaced = laws.add(l);
+                    metrics.increment("laws.passed");
+                    passed++;
+                    if(replaced != null) metrics.increment("laws.replaced");
+                }else{
+                    if(yes == mostVotes){
+                        System.out.println(l + " and " + yes + " and " + required);
+                    }
+                    if(yes >= chamber.size()/2 + 1){
+                        System.out.println("wow!! " + l);
+                    }
                 }
             }
+            if (event.shouldCommit()) {
+                event.members = shuffledReps.size();
+                event.bills = agenda.size();
+                event.passed = passed;
+                event.commit();
+            }
         }
     }
 
+    /** Laws in force (read-only; change them through getLawRegistry()). */
     public List<Law> getLaws(){
+        return this.laws.asList();
+    }
+
+    /** Most compact majority coalition after the last election (null before one, or if no majority is possible). */
+    public CoalitionSolver.Coalition getGoverningCoalition(){
+        return governingCoalition;
+    }
+
+    public Metrics getMetrics(){ return metrics; }
+
+    public LawRegistry getLawRegistry(){
         return this.laws;
     }
 
-    public List<Representative> simulate(ElectionMethod method) {
-        return states.parallelStream()
-                .flatMap(state -> {
+    /** Legislature over this chamber (default calendar); told about membership changes after each election. */
+    public synchronized Legislature getLegislature(){
+        if (legislature == null) legislature = new Legislature(this, new Legislature.Config(), ThreadLocalRandom.current().nextLong());
+        return legislature;
+    }
 
-                    List<Representative> localWinners = new ArrayList<>();
+    public List<Representative> simulate(ElectionMethod method) {
+        return simulate(Map.of("method", method)).get("method");
+    }
 
+    /**
+     * Runs several methods over the same races (one candidate draw per county and state race) and returns
+     * the winners per method name. RankedMethods in the map share one RankedBallots per race.
+     *
+     * Each race is a structured task (SimulationExecutor.structured) whose scoring runs on the simulation
+     * pool. Results land in a slot per race, county races first by county index, then state races, so there
+     * is no shared list to lock, the seat order is stable, and a failing race fails the call instead of
+     * leaving a hole in the chamber.
+     */
+    @SuppressWarnings("try")
+    public Map<String, List<Representative>> simulate(Map<String, ElectionMethod> methods) {
+        try (Metrics.Phase phase = metrics.phase("simulate")) {
+            List<County> counties = allCounties();
+            int races = counties.size() + states.size();
+            Representative[][] won = new Representative[races][];
+
+            SimulationExecutor executor = SimulationExecutor.get();
+            executor.structured(races, race -> {
+                if (race < counties.size()) {
                     // ✅ COUNTY-LEVEL REPRESENTATIVE ELECTIONS
-                    state.getCounties().parallelStream().forEach(county -> {
-
+                    County county = counties.get(race);
+                    won[race] = executor.compute(SimulationExecutor.Granularity.COUNTY, races, () -> {
                         VotingBlock countyBlock = new VotingBlock(List.of(county));
 
                         List<Representative> candidates =
@@ -400,25 +526,18 @@ public class Country {
                                         Desire.REPRESENTATIVE
                                 );
 
-                        state.sortPickRepresentative(candidates);
+                        county.getState().sortPickRepresentative(candidates);
 
                         List<Citizen> voters = countyBlock.getAllCitizens();
-
-                        if (!voters.isEmpty()) {
-                            Representative repWinner = method.run(candidates, voters);
-                            if (repWinner != null) {
-                                synchronized (localWinners) {
-                                    localWinners.add(repWinner);
-                                }
-                            }
-                        }
+                        return voters.isEmpty() ? null : runRace(methods, candidates, voters);
                     });
+                } else {
+                    State state = states.get(race - counties.size());
+                    won[race] = executor.compute(SimulationExecutor.Granularity.STATE, races, () -> {
+                        VotingBlock stateBlock = new VotingBlock(state);
 
-                    VotingBlock stateBlock = new VotingBlock(state);
-
-                    List<Citizen> stateVoters = stateBlock.getAllCitizens();
-
-                    if (!stateVoters.isEmpty()) {
+                        List<Citizen> stateVoters = stateBlock.getAllCitizens();
+                        if (stateVoters.isEmpty()) return null;
 
                         List<Representative> chamberCands =
                                 RandomScripts.assignRepresentatives(
@@ -429,101 +548,293 @@ public class Country {
 
                         state.sortPickRepresentative(chamberCands);
 
-                        Representative chWinner =
-                                method.run(chamberCands, stateVoters);
+                        return runRace(methods, chamberCands, stateVoters);
+                    });
+                }
+            });
 
-                        if (chWinner != null) {
-                            synchronized (localWinners) {
-                                localWinners.add(chWinner);
-                            }
-                        }
-                    }
-                    return localWinners.stream();
-                })
-                .toList();
+            Map<String, List<Representative>> winners = new LinkedHashMap<>();
+            int m = 0;
+            for (String name : methods.keySet()) {
+                List<Representative> seats = new ArrayList<>(races);
+                for (Representative[] race : won) {
+                    if (race != null && race[m] != null) seats.add(race[m]);
+                }
+                winners.put(name, seats);
+                m++;
+            }
+            return winners;
+        }
     }
 
+    // Every county, state by state; a county's position here is its index in per-county result arrays
+    private List<County> allCounties() {
+        List<County> counties = new ArrayList<>();
+        for (State state : states) counties.addAll(state.getCounties());
+        return counties;
+    }
 
-    public List<Representative> simulateProportional() {
+    // One race under every method; voters are ranked once for all RankedMethods. Winners by method order (null if none).
+    // Stops between methods once a sibling race of the same simulate() has failed.
+    private Representative[] runRace(Map<String, ElectionMethod> methods, List<Representative> candidates,
+                                     List<Citizen> voters) {
+        Representative[] winners = new Representative[methods.size()];
+        RankedBallots ballots = null;
+        metrics.increment("races");
+        int m = -1;
+        for (Map.Entry<String, ElectionMethod> e : methods.entrySet()) {
+            m++;
+            SimulationExecutor.checkCancelled();
+            if (e.getValue() instanceof RankedMethod ranked) {
+                if (candidates == null || candidates.isEmpty()) continue;
+                if (ballots == null) ballots = RankedBallots.rank(candidates, voters);
+                RankedBallots shared = ballots;
+                winners[m] = timedRace(e.getKey(), candidates, voters, () -> ranked.run(shared));
+            } else {
+                winners[m] = timedRace(e.getKey(), candidates, voters, () -> e.getValue().run(candidates, voters));
+            }
+        }
+        return winners;
+    }
 
-        if (citizens == null || citizens.isEmpty()) return List.of();
-        if (parties == null || parties.isEmpty()) return List.of();
+    // Runs one method's count of a race, with its timer, ballot count and ElectionRun event
+    private Representative timedRace(String method, List<Representative> candidates, List<Citizen> voters,
+                                     Supplier<Representative> count) {
+        SimulationEvents.ElectionRun event = new SimulationEvents.ElectionRun();
+        event.begin();
+        long start = System.nanoTime();
+        Representative winner = count.get();
+        metrics.recordNanos("race." + method, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.voters = voters.size();
+            event.candidates = candidates == null ? 0 : candidates.size();
+            event.seats = 1;
+            event.commit();
+        }
+        metrics.add("ballots.scored", voters.size());
+        return winner;
+    }
 
-        List<Party> partyList = new ArrayList<>(parties.values());
-        int partyCount = partyList.size();
 
-        Map<Party, Integer> partyIndex = new HashMap<>(partyCount * 2);
-        // Fallback by party name in case Representative.party is not the same instance
-        Map<String, Integer> partyNameIndex = new HashMap<>(partyCount * 2);
-        for (int i = 0; i < partyCount; i++) {
-            Party p = partyList.get(i);
-            partyIndex.put(p, i);
-            String name = p.getName();
-            if (name != null) partyNameIndex.put(name.toLowerCase(Locale.ROOT), i);
+    /**
+     * Multi-winner approval elections over the same blocks and candidate pools the STV chamber uses
+     * (RandomScripts.createBlocks, one seat per county); each block's ballots are shared by the methods.
+     */
+    @SuppressWarnings("try")
+    public Map<ProportionalApproval.Method, List<Representative>> simulateProportionalApproval(Set<ProportionalApproval.Method> methods) {
+        try (Metrics.Phase phase = metrics.phase("simulateProportionalApproval")) {
+            if (representativeCandidates.isEmpty()) {
+                prepareRepresentatives();
+            }
+            Map<ProportionalApproval.Method, List<Representative>> winners = new EnumMap<>(ProportionalApproval.Method.class);
+            for (ProportionalApproval.Method m : methods) winners.put(m, Collections.synchronizedList(new ArrayList<>()));
+
+            SimulationExecutor.get().forEach(SimulationExecutor.Granularity.STATE, states, state -> {
+                List<VotingBlock> blocks = RandomScripts.createBlocks(state);
+                List<Representative> pool = representativeCandidates.getOrDefault(state, List.of());
+                ProportionalApproval.runBlocks(blocks, pool, methods).forEach((m, w) -> winners.get(m).addAll(w));
+            });
+            return winners;
         }
+    }
 
-        // ✅ LOCK FREE array
-        AtomicIntegerArray voteCounts = new AtomicIntegerArray(partyCount);
+    /** Seats of a mixed-member chamber: constituency winners first, then list seats by party. */
+    public static final class MixedMemberChamber {
+        public final List<Representative> constituency;
+        public final List<Representative> list;
+        // seats above constituencies + listSeats, from overhang (KEEP) or leveling (LEVEL)
+        public final int extraSeats;
+
+        private MixedMemberChamber(List<Representative> constituency, List<Representative> list, int extraSeats) {
+            this.constituency = Collections.unmodifiableList(constituency);
+            this.list = Collections.unmodifiableList(list);
+            this.extraSeats = extraSeats;
+        }
 
-        // ✅ TRUE parallel voting
-        citizens.parallelStream().forEach(voter -> {
+        public List<Representative> all() {
+            List<Representative> out = new ArrayList<>(constituency.size() + list.size());
+            out.addAll(constituency);
+            out.addAll(list);
+            return out;
+        }
+    }
 
-            Representative top = VotingUtils.findTopCandidateForVoterFast(voter);
-            if (top == null) return;
+    public MixedMemberChamber simulateMixedMember(ElectionMethod method) {
+        return simulateMixedMember(method, SeatAllocator.dHondt(), Math.max(0, chamberSize - countyCount), MixedMember.Overhang.KEEP);
+    }
 
-            Party party = top.getParty();
-            if (party == null) return;
+    /**
+     * Mixed-member proportional: one constituency seat per county under the given method, plus listSeats
+     * compensatory seats from the national party vote (see MixedMember). A voter's list vote goes to the
+     * party of their first choice among the county's candidates, so it comes out of the constituency
+     * count: a RankedMethod ranks the county once and the list vote is each ranking's head, a
+     * FirstChoiceMethod (e.g. (FirstChoiceMethod) VotingUtils::runFPTP) gets the FirstChoice tally the list
+     * vote is summed from. Any other method counts its own ballots after that tally, a second pass.
+     */
+    @SuppressWarnings("try")
+    public MixedMemberChamber simulateMixedMember(ElectionMethod method, SeatAllocator allocator, int listSeats,
+                                                  MixedMember.Overhang overhangRule) {
+        try (Metrics.Phase phase = metrics.phase("simulateMixedMember")) {
+            if (parties == null || parties.isEmpty()) return new MixedMemberChamber(List.of(), List.of(), 0);
+
+            List<Party> partyList = new ArrayList<>(parties.values());
+            int partyCount = partyList.size();
+            Map<Party, Integer> partyIndex = new HashMap<>(partyCount * 2);
+            for (int i = 0; i < partyCount; i++) partyIndex.put(partyList.get(i), i);
+
+            List<County> counties = allCounties();
+            // per county: its list votes and its seat, gathered by county index
+            long[][] countyVotes = new long[counties.size()][];
+            Representative[] countySeat = new Representative[counties.size()];
+
+            SimulationExecutor executor = SimulationExecutor.get();
+            executor.structured(counties.size(), c -> executor.compute(SimulationExecutor.Granularity.COUNTY, counties.size(), () -> {
+                County county = counties.get(c);
+                VotingBlock countyBlock = new VotingBlock(List.of(county));
+                List<Citizen> voters = countyBlock.getAllCitizens();
+                if (voters.isEmpty()) return null;
+
+                List<Representative> candidates = RandomScripts.assignRepresentatives(
+                        List.of(countyBlock), RandomScripts.randomMultiplier(), Desire.REPRESENTATIVE);
+                county.getState().sortPickRepresentative(candidates);
+                if (candidates.isEmpty()) return null;
+                SimulationExecutor.checkCancelled();
+                metrics.increment("races");
+
+                // first-choice votes per candidate index, from the same scoring the seat is decided by
+                long[] firstChoices;
+                if (method instanceof RankedMethod ranked) {
+                    RankedBallots ballots = RankedBallots.rank(candidates, voters);
+                    firstChoices = new long[candidates.size()];
+                    for (int v = 0; v < ballots.voterCount(); v++) firstChoices[ballots.at(v, 0)]++;
+                    countySeat[c] = timedRace("constituency", candidates, voters, () -> ranked.run(ballots));
+                } else {
+                    firstChoices = FirstChoice.of(candidates).tally(voters);
+                    long[] tally = firstChoices;
+                    countySeat[c] = method instanceof FirstChoiceMethod plurality
+                            ? timedRace("constituency", candidates, voters, () -> plurality.run(candidates, tally))
+                            : timedRace("constituency", candidates, voters, () -> method.run(candidates, voters));
+                }
 
-            Integer idx = partyIndex.get(party);
-            if (idx == null) {
-                String nm = party.getName();
-                if (nm != null) idx = partyNameIndex.get(nm.toLowerCase(Locale.ROOT));
+                long[] counts = new long[partyCount];
+                for (int i = 0; i < firstChoices.length; i++) {
+                    Party party = candidates.get(i).getParty();
+                    Integer idx = party == null ? null : partyIndex.get(party);
+                    if (idx != null) counts[idx] += firstChoices[i];
+                }
+                countyVotes[c] = counts;
+                return null;
+            }));
+
+            long[] votes = new long[partyCount];
+            for (long[] counts : countyVotes) {
+                if (counts == null) continue;
+                for (int i = 0; i < partyCount; i++) votes[i] += counts[i];
             }
-            if (idx != null) {
-                voteCounts.incrementAndGet(idx);
+            List<Representative> constituency = new ArrayList<>(counties.size());
+            for (Representative r : countySeat) if (r != null) constituency.add(r);
+
+            int[] won = new int[partyCount];
+            int unattached = 0;
+            for (Representative r : constituency) {
+                Integer idx = r.getParty() == null ? null : partyIndex.get(r.getParty());
+                if (idx == null) unattached++;
+                else won[idx]++;
             }
-        });
-
-        // ✅ D’Hondt allocation (already fast)
-        int[] seatCounts = new int[partyCount];
 
-        for (int seat = 0; seat < chamberSize; seat++) {
-            int bestParty = -1;
-            double bestQuotient = -1;
+            int[] listCounts = MixedMember.listSeats(votes, won, unattached, listSeats, allocator, overhangRule);
+            int extraSeats = Math.max(0, Arrays.stream(listCounts).sum() - listSeats);
 
+            // list seats go down each party's list, skipping anyone already seated for a county
+            Set<Representative> seated = Collections.newSetFromMap(new IdentityHashMap<>());
+            seated.addAll(constituency);
+            List<Representative> list = new ArrayList<>();
             for (int i = 0; i < partyCount; i++) {
-                int votes = voteCounts.get(i);
-                int seatsWon = seatCounts[i];
-
-                double quotient = votes / (double) (seatsWon + 1);
-                if (quotient > bestQuotient) {
-                    bestQuotient = quotient;
-                    bestParty = i;
+                int need = listCounts[i];
+                List<Representative> options = partyList.get(i).getOptions();
+                if (need == 0 || options == null) continue;
+                for (Representative r : options) {
+                    if (need == 0) break;
+                    if (seated.add(r)) {
+                        list.add(r);
+                        need--;
+                    }
                 }
             }
-
-            if (bestParty == -1) break;
-            seatCounts[bestParty]++;
+            return new MixedMemberChamber(constituency, list, extraSeats);
         }
+    }
 
-        // ✅ Pull from party lists
-        List<Representative> results = new ArrayList<>(chamberSize);
+    public List<Representative> simulateProportional() {
+        return simulateProportional(SeatAllocator.dHondt());
+    }
 
-        for (int i = 0; i < partyCount; i++) {
-            int seats = seatCounts[i];
-            if (seats == 0) continue;
+    @SuppressWarnings("try")
+    public List<Representative> simulateProportional(SeatAllocator allocator) {
+        try (Metrics.Phase phase = metrics.phase("simulateProportional")) {
 
-            Party party = partyList.get(i);
-            List<Representative> options = party.getOptions();
-            if (options == null || options.isEmpty()) continue;
+            if (citizens == null || citizens.isEmpty()) return List.of();
+            if (parties == null || parties.isEmpty()) return List.of();
 
-            int limit = Math.min(seats, options.size());
-            for (int j = 0; j < limit; j++) {
-                results.add(options.get(j));
+            List<Party> partyList = new ArrayList<>(parties.values());
+            int partyCount = partyList.size();
+
+            Map<Party, Integer> partyIndex = new HashMap<>(partyCount * 2);
+            // Fallback by party name in case Representative.party is not the same instance
+            Map<String, Integer> partyNameIndex = new HashMap<>(partyCount * 2);
+            for (int i = 0; i < partyCount; i++) {
+                Party p = partyList.get(i);
+                partyIndex.put(p, i);
+                String name = p.getName();
+                if (name != null) partyNameIndex.put(name.toLowerCase(Locale.ROOT), i);
             }
-        }
 
-        return results;
+            // Per-thread vote arrays, merged once at the end (no shared hot counters)
+            long[] voteCounts = SimulationExecutor.get().collect(SimulationExecutor.Granularity.VOTER_CHUNK, citizens,
+                    () -> new long[partyCount],
+                    (counts, voter) -> {
+                        Representative top = VotingUtils.findTopCandidateForVoterFast(voter);
+                        if (top == null) return;
+
+                        Party party = top.getParty();
+                        if (party == null) return;
+
+                        Integer idx = partyIndex.get(party);
+                        if (idx == null) {
+                            String nm = party.getName();
+                            if (nm != null) idx = partyNameIndex.get(nm.toLowerCase(Locale.ROOT));
+                        }
+                        if (idx != null) {
+                            counts[idx]++;
+                        }
+                    },
+                    (a, b) -> {
+                        for (int i = 0; i < partyCount; i++) a[i] += b[i];
+                    });
+
+            int[] seatCounts = allocator.allocate(voteCounts, chamberSize);
+
+            // ✅ Pull from party lists
+            List<Representative> results = new ArrayList<>(chamberSize);
+
+            for (int i = 0; i < partyCount; i++) {
+                int seats = seatCounts[i];
+                if (seats == 0) continue;
+
+                Party party = partyList.get(i);
+                List<Representative> options = party.getOptions();
+                if (options == null || options.isEmpty()) continue;
+
+                int limit = Math.min(seats, options.size());
+                for (int j = 0; j < limit; j++) {
+                    results.add(options.get(j));
+                }
+            }
+
+            return results;
+        }
     }
 
 }
\ No newline at end of file
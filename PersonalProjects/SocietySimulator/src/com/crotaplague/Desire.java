@@ -1,7 +1,17 @@
 package com.crotaplague;
 
 public enum Desire{
-    REPRESENTATIVE, CHAMBERLAIN;
+    REPRESENTATIVE(18), CHAMBERLAIN(35);
+
+    private final int minimumAge;
+
+    Desire(int minimumAge){
+        this.minimumAge = minimumAge;
+    }
+
+    // Youngest citizen eligible to stand for this office
+    public int getMinimumAge(){ return minimumAge; }
+
     public static Desire valueOf(int i){
         return switch (i) {
             case 0 -> REPRESENTATIVE;
@@ -5,7 +5,6 @@ import com.crotaplague.Ballots.StarBallot;
 import java.util.*;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.stream.IntStream;
 
 public class ElectionUtils {
 
@@ -50,7 +49,7 @@ public class ElectionUtils {
         final VoterData[] voterData = new VoterData[nVoters];
 
         // Build per-voter compact raw ballots and accumulate totals in parallel
-        IntStream.range(0, nVoters).parallel().forEach(vi -> {
+        SimulationExecutor.get().forEachVoter(nVoters, vi -> {
             Citizen voter = voters.get(vi);
             StarBallot sb = StarBallot.fromCitizen(voter, candidates);
             Map<Representative, Double> rawMap = sb.getScores();
@@ -128,7 +127,7 @@ public class ElectionUtils {
 
         int finalFirst = first;
         int finalSecond = second;
-        IntStream.range(0, nVoters).parallel().forEach(vi -> {
+        SimulationExecutor.get().forEachVoter(nVoters, vi -> {
             VoterData vd = voterData[vi];
             double aVal = 0.0;
             double bVal = 0.0;
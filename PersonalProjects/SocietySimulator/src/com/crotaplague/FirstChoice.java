@@ -0,0 +1,152 @@
+package com.crotaplague;
+
+import java.util.*;
+
+/**
+ * Each voter's favourite candidate under the RankedBallots score, without scoring every candidate.
+ *
+ * The score is 0.6 * biasSim + 0.4 * values * (1 - dist^2) + boost. The party half of the values term
+ * and the boost are cheap (one alignment per party, shared by its candidates); the personal half needs
+ * an alignment per candidate. Capping the personal alignment at 1 gives every candidate an upper bound,
+ * and capping the party terms at the voter's best party gives a bound that only falls with bias
+ * distance. Candidates are kept sorted by bias, so the search starts at the voter's bias and walks
+ * outward (nearest first): a candidate whose own bound is below the best score so far is skipped
+ * unscored, and the walk stops once the distance bound is, as everyone further out is bounded lower
+ * still. The result is exactly scan()'s: highest score, ties to the lower candidate index.
+ */
+public final class FirstChoice {
+
+    private static final int CHUNK = 2048;
+
+    private final RankedBallots.Field field;
+    // candidate indices by ascending bias, and their biases
+    private final int[] byBias;
+    private final double[] sortedBias;
+
+    private FirstChoice(List<Representative> candidates) {
+        this.field = new RankedBallots.Field(List.copyOf(candidates));
+        final int n = candidates.size();
+        Integer[] order = new Integer[n];
+        for (int c = 0; c < n; c++) order[c] = c;
+        Arrays.sort(order, (a, b) -> Double.compare(field.bias[a], field.bias[b]));
+        byBias = new int[n];
+        sortedBias = new double[n];
+        for (int k = 0; k < n; k++) {
+            byBias[k] = order[k];
+            sortedBias[k] = field.bias[order[k]];
+        }
+    }
+
+    public static FirstChoice of(List<Representative> candidates) {
+        return new FirstChoice(candidates);
+    }
+
+    public List<Representative> getCandidates() { return field.candidates; }
+
+    /** Per-thread search state; reuse one per worker. */
+    public Searcher searcher() { return new Searcher(); }
+
+    /** First-choice votes per candidate index, counted in parallel over voter chunks. */
+    public long[] tally(List<Citizen> voters) {
+        final int n = field.candidates.size();
+        if (n == 0 || voters.isEmpty()) return new long[n];
+        final int chunks = (voters.size() + CHUNK - 1) / CHUNK;
+        return SimulationExecutor.get().collectChunks(chunks,
+                () -> new long[n],
+                (counts, chunk) -> {
+                    Searcher s = new Searcher();
+                    int end = Math.min(voters.size(), (chunk + 1) * CHUNK);
+                    for (int v = chunk * CHUNK; v < end; v++) {
+                        int c = s.first(voters.get(v));
+                        if (c >= 0) counts[c]++;
+                    }
+                },
+                (a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i] += b[i];
+                });
+    }
+
+    public final class Searcher {
+        private final RankedBallots.VoterProfile profile = new RankedBallots.VoterProfile(field);
+        private final double[] partyAlign = new double[field.parties.length];
+        private final double[] partyBest = new double[field.parties.length];
+        // per voter, over every party (and no party): largest combined-alignment cap and single-issue best
+        private double combinedCap;
+        private double bestCap;
+
+        private Searcher() {}
+
+        /** Index of the voter's favourite candidate, or -1 if there are none. */
+        public int first(Citizen voter) {
+            final int n = byBias.length;
+            if (n == 0) return -1;
+            load(voter);
+            final double vb = profile.bias;
+
+            int right = lowerBound(vb), left = right - 1;
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            while (left >= 0 || right < n) {
+                int k;
+                if (left < 0) k = right++;
+                else if (right >= n) k = left--;
+                else if (vb - sortedBias[left] <= sortedBias[right] - vb) k = left--;
+                else k = right++;
+
+                if (profile.upperBound(sortedBias[k], combinedCap, bestCap) < bestScore) break;
+                int c = byBias[k];
+                int p = field.partyOf[c];
+                double align = p < 0 ? 0.0 : partyAlign[p], single = p < 0 ? 0.0 : partyBest[p];
+                if (profile.upperBound(sortedBias[k], RankedBallots.VoterProfile.combinedCap(align), single) < bestScore) continue;
+                double score = profile.score(c, align, single);
+                if (score > bestScore || (score == bestScore && c < best)) {
+                    best = c;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /** The same choice by scoring every candidate; the reference for first(). */
+        public int scan(Citizen voter) {
+            final int n = byBias.length;
+            if (n == 0) return -1;
+            load(voter);
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int c = 0; c < n; c++) {
+                int p = field.partyOf[c];
+                double score = profile.score(c, p < 0 ? 0.0 : partyAlign[p], p < 0 ? 0.0 : partyBest[p]);
+                if (score > bestScore) {
+                    best = c;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        private void load(Citizen voter) {
+            profile.load(voter);
+            double maxAlign = 0.0, maxBest = 0.0;
+            for (int p = 0; p < partyAlign.length; p++) {
+                partyAlign[p] = profile.alignment(field.parties[p]);
+                partyBest[p] = profile.bestSingleIssue(field.parties[p]);
+                maxAlign = Math.max(maxAlign, partyAlign[p]);
+                maxBest = Math.max(maxBest, partyBest[p]);
+            }
+            combinedCap = RankedBallots.VoterProfile.combinedCap(maxAlign);
+            bestCap = maxBest;
+        }
+
+        // first position whose bias is >= b
+        private int lowerBound(double b) {
+            int lo = 0, hi = sortedBias.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedBias[mid] < b) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -7,7 +7,8 @@ import java.util.*;
  * Law / Policy model for the simulation.
  *
  * Rules enforced:
- *  - No temporary/expiring laws (laws persist until explicitly repealed).
+ *  - A law has no expiry of its own: it persists until repealed or replaced. A Legislature may
+ *    sunset the statutes it enacts after a configured number of sessions.
  *  - Default threshold: simple majority (50% + 1 seat).
  *  - Governance-changing laws require 2/3 (rounded up).
  */
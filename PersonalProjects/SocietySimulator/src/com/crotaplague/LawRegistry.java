@@ -0,0 +1,109 @@
+package com.crotaplague;
+
+import java.util.*;
+
+/**
+ * Laws in force, indexed for the questions the simulation asks on every passed bill.
+ *
+ * At most one law per key is in force: adding a law whose key is taken replaces the old one (a repeal
+ * and re-enactment). Besides the key index there is an inverted index from related value (issue name,
+ * lower-cased as in Law.Builder) to laws and a partition per Scope, so "is this already law", "does it
+ * conflict" and "which laws touch issue X" are hash lookups instead of scans over every law.
+ *
+ * Not thread-safe; the owning Country / Legislature mutate it from one thread at a time.
+ */
+public final class LawRegistry {
+
+    /** How a law relates to what is already in force. */
+    public enum Match {
+        /** Nothing in force under the law's key. */
+        NONE,
+        /** Same key and same chosen option: already law. */
+        DUPLICATE,
+        /** Same key, different option: passing it replaces the law in force. */
+        CONFLICT
+    }
+
+    // insertion order, except that removal moves the last law into the gap
+    private final List<Law> laws = new ArrayList<>();
+    private final Map<Law, Integer> position = new IdentityHashMap<>();
+    private final Map<String, Law> byKey = new HashMap<>();
+    private final Map<UUID, Law> byId = new HashMap<>();
+    private final Map<String, Set<Law>> byIssue = new HashMap<>();
+    private final EnumMap<Law.Scope, Set<Law>> byScope = new EnumMap<>(Law.Scope.class);
+    private final List<Law> view = Collections.unmodifiableList(laws);
+
+    public LawRegistry() {
+        for (Law.Scope s : Law.Scope.values()) byScope.put(s, new LinkedHashSet<>());
+    }
+
+    public Match check(Law law) {
+        Law inForce = byKey.get(law.getKey());
+        if (inForce == null) return Match.NONE;
+        return Objects.equals(choice(inForce), choice(law)) ? Match.DUPLICATE : Match.CONFLICT;
+    }
+
+    /** Puts the law in force; returns the law it replaced under the same key, or null. */
+    public Law add(Law law) {
+        Objects.requireNonNull(law, "law");
+        if (position.containsKey(law)) return null;
+        Law replaced = byKey.get(law.getKey());
+        if (replaced != null) remove(replaced);
+
+        position.put(law, laws.size());
+        laws.add(law);
+        byKey.put(law.getKey(), law);
+        byId.put(law.getId(), law);
+        for (String issue : law.getRelatedValues()) byIssue.computeIfAbsent(issue, k -> new LinkedHashSet<>()).add(law);
+        byScope.get(law.getScope()).add(law);
+        return replaced;
+    }
+
+    /** Takes the law out of force; false if it was not in force (e.g. already replaced). */
+    public boolean remove(Law law) {
+        Integer at = position.remove(law);
+        if (at == null) return false;
+        Law last = laws.remove(laws.size() - 1);
+        if (last != law) {
+            laws.set(at, last);
+            position.put(last, at);
+        }
+        byKey.remove(law.getKey());
+        byId.remove(law.getId());
+        for (String issue : law.getRelatedValues()) {
+            Set<Law> touching = byIssue.get(issue);
+            if (touching != null && touching.remove(law) && touching.isEmpty()) byIssue.remove(issue);
+        }
+        byScope.get(law.getScope()).remove(law);
+        return true;
+    }
+
+    public boolean contains(Law law) { return position.containsKey(law); }
+    public Law get(String key) { return byKey.get(key); }
+    public Law get(UUID id) { return byId.get(id); }
+    public int size() { return laws.size(); }
+    public boolean isEmpty() { return laws.isEmpty(); }
+
+    /** Laws whose related values include the issue (read-only, live). */
+    public Set<Law> touching(String issue) {
+        if (issue == null) return Set.of();
+        Set<Law> s = byIssue.get(issue.toLowerCase(Locale.ROOT).trim());
+        return s == null ? Set.of() : Collections.unmodifiableSet(s);
+    }
+
+    /** Laws of one scope (read-only, live). */
+    public Set<Law> inScope(Law.Scope scope) {
+        return Collections.unmodifiableSet(byScope.get(scope));
+    }
+
+    /** All laws in force (read-only, live). */
+    public List<Law> asList() { return view; }
+
+    // the option a law was proposed with; "no" is the implicit reject option
+    private static String choice(Law law) {
+        for (Law.PolicyOption o : law.getOptions()) {
+            if (!o.getId().equals("no")) return o.getId();
+        }
+        return null;
+    }
+}
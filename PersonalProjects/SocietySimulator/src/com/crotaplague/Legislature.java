@@ -0,0 +1,598 @@
+package com.crotaplague;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Multi-session legislature for a country's chamber.
+ *
+ * Each session: laws past their sunset expire, a few members introduce bills on one of their values,
+ * every committee (one per Law.LawType) marks up its queue, and the reported bills are voted on the
+ * floor in agenda order. Bills that are not reported carry over until they are too old; failed bills
+ * go back to committee for a re-vote after a cooldown, a limited number of times. Every
+ * sessionsPerTerm sessions the term-end hook runs (e.g. an election) and the chamber is re-read.
+ *
+ * Votes don't re-evaluate members: every distinct bill (issue, stance, proposer) gets a stance vector,
+ * the yes probability of every seat (Representative.supportProbability, caucus included), built when a
+ * committee first takes the bill up and cached. A floor vote is then one Bernoulli draw per seat.
+ * Caucus stances come from each party's candidates grouped into classes that vote identically on the
+ * issue (same own value, party and bias), and are kept per bill. Passing a law only retires bills.
+ * A change of membership is incremental: the next time a vector is used, only the rows of seats that
+ * changed hands since it was built are recomputed (all rows if a caucus it relies on has grown).
+ *
+ * Not thread safe; one instance is driven by one thread.
+ */
+public final class Legislature {
+
+    /** Calendar and procedure; every field has a usable default. */
+    public static final class Config {
+        // bills introduced per session (a random member introduces one of its values)
+        public int introductionsPerSession = 8;
+        // bills each committee can report per session
+        public int committeeReportsPerSession = 3;
+        // floor votes per session
+        public int floorSlotsPerSession = 10;
+        // committees table bills whose expected yes share is below this
+        public double committeeTableBelow = 0.20;
+        // sessions a bill may stay pending before it dies
+        public int maxCarryOverSessions = 12;
+        // failed bills go back to committee this many times
+        public int maxRevotes = 2;
+        public int revoteCooldownSessions = 3;
+        // statutes expire after this many sessions (0 = never); constitutional laws never expire
+        public int lawLifetimeSessions = 120;
+        // term-end hook and chamber re-read every this many sessions (0 = never)
+        public int sessionsPerTerm = 24;
+        // stance vectors kept for retired bills, so reintroduced bills skip the rebuild
+        public int maxCachedStances = 4096;
+    }
+
+    /** Running totals, as of the call to getStats(). */
+    public static final class Stats {
+        public final long sessions;
+        public final long introduced;
+        public final long cosponsored;
+        public final long tabled;
+        public final long diedInCommittee;
+        public final long floorVotes;
+        public final long passed;
+        public final long failed;
+        public final long revotes;
+        public final long withdrawn;
+        public final long replacedLaws;
+        public final long expiredLaws;
+        public final long stancesBuilt;
+        public final long stancesRefreshed;
+
+        private Stats(Legislature l) {
+            this.sessions = l.session;
+            this.introduced = l.introduced;
+            this.cosponsored = l.cosponsored;
+            this.tabled = l.tabled;
+            this.diedInCommittee = l.diedInCommittee;
+            this.floorVotes = l.floorVotes;
+            this.passed = l.passed;
+            this.failed = l.failed;
+            this.revotes = l.revotes;
+            this.withdrawn = l.withdrawn;
+            this.replacedLaws = l.replacedLaws;
+            this.expiredLaws = l.expiredLaws;
+            this.stancesBuilt = l.stancesBuilt;
+            this.stancesRefreshed = l.stancesRefreshed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sessions=%d introduced=%d cosponsored=%d tabled=%d diedInCommittee=%d floorVotes=%d passed=%d failed=%d revotes=%d withdrawn=%d replacedLaws=%d expiredLaws=%d stancesBuilt=%d stancesRefreshed=%d",
+                    sessions, introduced, cosponsored, tabled, diedInCommittee, floorVotes, passed, failed, revotes, withdrawn, replacedLaws, expiredLaws, stancesBuilt, stancesRefreshed);
+        }
+    }
+
+    /** Yes probability of every seat for one distinct bill. */
+    private static final class Stance {
+        final BillProposal proposal;
+        final int issue;
+        float[] yes;
+        double expectedYes;
+        // membership epoch the vector was built for (-1 = not built yet)
+        int epoch = -1;
+        // pending bills using this vector
+        int live;
+        // party -> {candidates it was computed from, caucus stance}; outlives the vector (see caucusByBill)
+        final Map<Party, double[]> caucus;
+
+        Stance(BillProposal proposal, int issue, Map<Party, double[]> caucus) {
+            this.proposal = proposal;
+            this.issue = issue;
+            this.caucus = caucus;
+        }
+    }
+
+    private static final class Bill {
+        final String key;
+        final BillProposal proposal;
+        final Law law;
+        final Stance stance;
+        final int introducedAt;
+        final long seq;
+        int cosponsors;
+        int revotes;
+        int eligibleFrom;
+
+        Bill(String key, BillProposal proposal, Stance stance, int introducedAt, long seq) {
+            this.key = key;
+            this.proposal = proposal;
+            this.law = proposal.getLaw();
+            this.stance = stance;
+            this.introducedAt = introducedAt;
+            this.seq = seq;
+        }
+
+        int direction() { return Integer.signum(proposal.getValue().getOpinion()); }
+    }
+
+    /** Candidates split into classes that vote identically on one issue: same value on it (or none), same party, same bias. */
+    private final class Classes {
+        final int issue;
+        final Map<Long, Integer> ids = new HashMap<>();
+        final List<Representative> exemplar = new ArrayList<>();
+        final List<Value> own = new ArrayList<>();
+        final List<Value> fromParty = new ArrayList<>();
+        int[] count = new int[16];
+        int members;
+
+        Classes(int issue) {
+            this.issue = issue;
+        }
+
+        void add(Representative rep) {
+            Party party = rep.getParty();
+            Value o = at(values(rep), issue);
+            long key = classKey(o, party, rep.getBias());
+            Integer c = ids.get(key);
+            if (c == null) {
+                c = exemplar.size();
+                ids.put(key, c);
+                exemplar.add(rep);
+                own.add(o);
+                fromParty.add(party == null ? null : at(values(party), issue));
+                if (c == count.length) count = Arrays.copyOf(count, c * 2);
+            }
+            count[c]++;
+            members++;
+        }
+
+        int size() { return exemplar.size(); }
+    }
+
+    private static final class Enactment {
+        final Law law;
+        final int direction;
+        final int expiresAt;
+
+        Enactment(Law law, int direction, int expiresAt) {
+            this.law = law;
+            this.direction = direction;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // agenda order: priority, then support from cosponsors, then age
+    private static final Comparator<Bill> AGENDA_ORDER = (a, b) -> {
+        int c = Integer.compare(b.law.getAgendaPriority(), a.law.getAgendaPriority());
+        if (c != 0) return c;
+        c = Integer.compare(b.cosponsors, a.cosponsors);
+        if (c != 0) return c;
+        c = Integer.compare(a.introducedAt, b.introducedAt);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    };
+
+    private final Country country;
+    private final Config config;
+    private final SplittableRandom rng;
+
+    private Representative[] seats = new Representative[0];
+    // resolved values of each seat and of its party, by issue id, and the seat's party id (0 = none)
+    private Value[][] seatValues = new Value[0][];
+    private Value[][] seatPartyValues = new Value[0][];
+    private int[] seatParty = new int[0];
+    private final List<Party> partiesById = new ArrayList<>(List.of(new Party("")));
+    // epoch in which each seat last changed hands
+    private int[] seatChangedAt = new int[0];
+    private int epoch;
+    // lower-cased issue names are interned to ids; members and parties keep their values as Value[] by issue id
+    private final Map<String, Integer> issueIds = new HashMap<>();
+    private final Map<Representative, Value[]> valueIndex = new IdentityHashMap<>();
+    private final Map<Party, Value[]> partyIndex = new IdentityHashMap<>();
+    private final Map<Party, Integer> partyIds = new IdentityHashMap<>();
+    // party -> issue -> candidate classes, rebuilt when the party's options grow
+    private final Map<Party, Map<Integer, Classes>> caucusClasses = new IdentityHashMap<>();
+    // bill key -> caucus stances; small, so kept when the bill's stance vector is evicted
+    private final Map<String, Map<Party, double[]>> caucusByBill = new HashMap<>();
+
+    private final EnumMap<Law.LawType, PriorityQueue<Bill>> committees = new EnumMap<>(Law.LawType.class);
+    private final Map<String, Bill> pending = new HashMap<>();
+    private final LinkedHashMap<String, Stance> stances = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Enactment> enacted = new HashMap<>();
+    private final PriorityQueue<Enactment> sunsets = new PriorityQueue<>(Comparator.comparingInt(e -> e.expiresAt));
+    private Consumer<Legislature> onTermEnd;
+
+    private int session;
+    private long seq;
+    private long introduced, cosponsored, tabled, diedInCommittee, floorVotes, passed, failed, revotes, withdrawn;
+    private long replacedLaws, expiredLaws, stancesBuilt, stancesRefreshed;
+
+    public Legislature(Country country, Config config, long seed) {
+        this.country = Objects.requireNonNull(country, "country");
+        this.config = config == null ? new Config() : config;
+        this.rng = new SplittableRandom(seed);
+        for (Law.LawType t : Law.LawType.values()) committees.put(t, new PriorityQueue<>(AGENDA_ORDER));
+        membershipChanged();
+    }
+
+    /** Runs at the end of every term, before the chamber is re-read (typically an election). */
+    public void setOnTermEnd(Consumer<Legislature> hook) { this.onTermEnd = hook; }
+
+    public Country getCountry() { return country; }
+    public Config getConfig() { return config; }
+    public int getSession() { return session; }
+    public int getPendingCount() { return pending.size(); }
+    public Stats getStats() { return new Stats(this); }
+
+    /** Laws this legislature enacted that are still in force (also in country.getLawRegistry()). */
+    public List<Law> getLawsInForce() {
+        List<Law> out = new ArrayList<>(enacted.size());
+        for (Enactment e : enacted.values()) out.add(e.law);
+        return out;
+    }
+
+    public void run(int sessions) {
+        for (int i = 0; i < sessions; i++) runSession();
+    }
+
+    public void runSession() {
+        session++;
+        expireLaws();
+        introduceBills();
+        List<Bill> reported = markUp();
+        floor(reported);
+        if (config.sessionsPerTerm > 0 && session % config.sessionsPerTerm == 0) {
+            if (onTermEnd != null) onTermEnd.accept(this);
+            membershipChanged();
+        }
+    }
+
+    /**
+     * Re-reads the chamber. Stance vectors are not touched here; each catches up on the seats that
+     * changed hands the next time it is used.
+     */
+    public void membershipChanged() {
+        final Representative[] now = country.getChamber().toArray(new Representative[0]);
+        final Representative[] before = seats;
+        final boolean resized = now.length != before.length;
+        if (resized) {
+            seatValues = new Value[now.length][];
+            seatPartyValues = new Value[now.length][];
+            seatParty = new int[now.length];
+            seatChangedAt = new int[now.length];
+        }
+        boolean changed = resized;
+        for (int i = 0; i < now.length; i++) {
+            if (!resized && now[i] == before[i]) continue;
+            if (!changed) epoch++;
+            changed = true;
+            Party party = now[i].getParty();
+            seatValues[i] = values(now[i]);
+            seatPartyValues[i] = party == null ? new Value[0] : values(party);
+            seatParty[i] = partyId(party);
+            seatChangedAt[i] = epoch;
+        }
+        if (resized) epoch++;
+        seats = now;
+    }
+
+    // -------------------- session steps --------------------
+
+    private void expireLaws() {
+        while (!sunsets.isEmpty() && sunsets.peek().expiresAt <= session) {
+            Enactment e = sunsets.poll();
+            if (enacted.get(e.law.getKey()) != e) continue; // replaced since
+            enacted.remove(e.law.getKey());
+            country.getLawRegistry().remove(e.law);
+            expiredLaws++;
+        }
+    }
+
+    private void introduceBills() {
+        if (seats.length == 0) return;
+        for (int i = 0; i < config.introductionsPerSession; i++) {
+            Representative rep = seats[rng.nextInt(seats.length)];
+            if (rep.values == null || rep.values.isEmpty()) continue;
+            Value v = rep.values.get(rng.nextInt(rep.values.size()));
+            if (v == null || v.getName() == null) continue;
+
+            String key = key(v, rep.getParty());
+            Bill same = pending.get(key);
+            if (same != null) {
+                same.cosponsors++;
+                cosponsored++;
+                continue;
+            }
+            BillProposal proposal = new BillProposal(v, false);
+            proposal.setProposer(rep.getParty());
+            Enactment inForce = enacted.get(proposal.getLaw().getKey());
+            if (inForce != null && inForce.direction == Integer.signum(v.getOpinion())) continue; // already law
+
+            Stance stance = stances.get(key);
+            if (stance == null) {
+                stance = new Stance(proposal, issueId(v.getName()), caucusByBill.computeIfAbsent(key, k -> new IdentityHashMap<>()));
+                stances.put(key, stance);
+                trimStances();
+            }
+            stance.live++;
+            Bill b = new Bill(key, proposal, stance, session, seq++);
+            pending.put(key, b);
+            committees.get(b.law.getType()).add(b);
+            introduced++;
+        }
+    }
+
+    /** Each committee drops stale bills, tables hopeless ones and reports the top eligible ones. */
+    private List<Bill> markUp() {
+        List<Bill> reported = new ArrayList<>();
+        final double tableBelow = config.committeeTableBelow * seats.length;
+        for (PriorityQueue<Bill> queue : committees.values()) {
+            queue.removeIf(b -> {
+                if (session - b.introducedAt <= config.maxCarryOverSessions) return false;
+                retire(b);
+                diedInCommittee++;
+                return true;
+            });
+            List<Bill> notYet = new ArrayList<>();
+            int reports = 0;
+            while (reports < config.committeeReportsPerSession && !queue.isEmpty()) {
+                Bill b = queue.poll();
+                if (b.eligibleFrom > session) {
+                    notYet.add(b);
+                } else if (fresh(b.stance).expectedYes < tableBelow) {
+                    retire(b);
+                    tabled++;
+                } else {
+                    reported.add(b);
+                    reports++;
+                }
+            }
+            queue.addAll(notYet);
+        }
+        return reported;
+    }
+
+    private void floor(List<Bill> reported) {
+        reported.sort(AGENDA_ORDER);
+        for (int i = 0; i < reported.size(); i++) {
+            Bill b = reported.get(i);
+            if (i >= config.floorSlotsPerSession || !pending.containsKey(b.key)) {
+                // no floor time (carried over), or withdrawn by a law passed earlier this session
+                if (pending.get(b.key) == b) committees.get(b.law.getType()).add(b);
+                continue;
+            }
+            floorVotes++;
+            long yes = vote(fresh(b.stance));
+            b.proposal.tally(yes, seats.length - yes);
+            if (b.law.passesThreshold(yes, seats.length)) {
+                enact(b);
+            } else {
+                failed++;
+                if (b.revotes < config.maxRevotes) {
+                    b.revotes++;
+                    b.eligibleFrom = session + config.revoteCooldownSessions;
+                    committees.get(b.law.getType()).add(b);
+                    revotes++;
+                } else {
+                    retire(b);
+                }
+            }
+        }
+    }
+
+    private long vote(Stance s) {
+        long yes = 0;
+        for (float p : s.yes) if (rng.nextDouble() < p) yes++;
+        return yes;
+    }
+
+    private void enact(Bill b) {
+        retire(b);
+        passed++;
+        Law law = b.law;
+        int expiresAt = (law.getType() == Law.LawType.CONSTITUTIONAL || config.lawLifetimeSessions <= 0)
+                ? Integer.MAX_VALUE : session + config.lawLifetimeSessions;
+        Enactment e = new Enactment(law, b.direction(), expiresAt);
+        enacted.put(law.getKey(), e);
+        // the registry holds one law per key, so this also replaces a law passed outside the legislature
+        if (country.getLawRegistry().add(law) != null) replacedLaws++;
+        if (expiresAt != Integer.MAX_VALUE) sunsets.add(e);
+
+        // pending bills for the same change are moot now
+        Iterator<Bill> it = pending.values().iterator();
+        while (it.hasNext()) {
+            Bill other = it.next();
+            if (other.direction() != e.direction || !other.law.getKey().equals(law.getKey())) continue;
+            it.remove();
+            other.stance.live--;
+            committees.get(other.law.getType()).remove(other);
+            withdrawn++;
+        }
+    }
+
+    private void retire(Bill b) {
+        if (pending.remove(b.key) == b) b.stance.live--;
+    }
+
+    // -------------------- stance vectors --------------------
+
+    private static String key(Value v, Party proposer) {
+        return v.getName().toLowerCase(Locale.ROOT) + '|' + v.getOpinion() + '|'
+                + (proposer == null ? "" : proposer.getName().toLowerCase(Locale.ROOT));
+    }
+
+    private Stance fresh(Stance s) {
+        if (s.epoch == epoch) return s;
+        if (s.epoch < 0 || s.yes.length != seats.length || caucusGrew(s)) {
+            build(s);
+            return s;
+        }
+        final double[] agree = newCaucusRow();
+        for (int i = 0; i < seats.length; i++) {
+            if (seatChangedAt[i] <= s.epoch) continue;
+            double p = row(s, i, agree);
+            s.expectedYes += p - s.yes[i];
+            s.yes[i] = (float) p;
+        }
+        s.epoch = epoch;
+        stancesRefreshed++;
+        return s;
+    }
+
+    private void build(Stance s) {
+        if (s.yes == null || s.yes.length != seats.length) s.yes = new float[seats.length];
+        final double[] agree = newCaucusRow();
+        double expected = 0.0;
+        for (int i = 0; i < seats.length; i++) {
+            float p = (float) row(s, i, agree);
+            s.yes[i] = p;
+            expected += p;
+        }
+        s.expectedYes = expected;
+        s.epoch = epoch;
+        stancesBuilt++;
+    }
+
+    // caucus stance per party id for one build (NaN = not looked up yet)
+    private double[] newCaucusRow() {
+        double[] agree = new double[partiesById.size()];
+        Arrays.fill(agree, Double.NaN);
+        return agree;
+    }
+
+    private double row(Stance s, int seat, double[] agreeByParty) {
+        Representative rep = seats[seat];
+        Value own = at(seatValues[seat], s.issue);
+        Value fromParty = at(seatPartyValues[seat], s.issue);
+        double agree = 0.0;
+        int pid = seatParty[seat];
+        if (own == null && fromParty == null && pid != 0) {
+            agree = agreeByParty[pid];
+            if (Double.isNaN(agree)) {
+                Party party = partiesById.get(pid);
+                agree = sameAsProposer(s, party) ? 0.0 : caucusAgree(s, party);
+                agreeByParty[pid] = agree;
+            }
+        }
+        return rep.supportProbability(s.proposal, own, fromParty, agree);
+    }
+
+    // true if a caucus this vector used has new candidates (its unsure rows are all stale)
+    private boolean caucusGrew(Stance s) {
+        for (Map.Entry<Party, double[]> e : s.caucus.entrySet()) {
+            Party party = e.getKey();
+            synchronized (party) {
+                if (party.options != null && party.options.size() != (int) e.getValue()[0]) return true;
+            }
+        }
+        return false;
+    }
+
+    private void trimStances() {
+        if (stances.size() <= config.maxCachedStances) return;
+        Iterator<Stance> it = stances.values().iterator();
+        while (stances.size() > config.maxCachedStances && it.hasNext()) {
+            if (it.next().live == 0) it.remove();
+        }
+    }
+
+    private static boolean sameAsProposer(Stance s, Party party) {
+        Party proposer = s.proposal.getProposer();
+        return proposer != null && party != null && proposer.equals(party);
+    }
+
+    // same model as CaucusStance, summed over candidate classes; cached per bill until the party's options grow
+    private double caucusAgree(Stance s, Party party) {
+        if (party.options == null) return 0.0;
+        final int members;
+        synchronized (party) {
+            members = party.options.size();
+        }
+        double[] cached = s.caucus.get(party);
+        if (cached != null && cached[0] == members) return cached[1];
+
+        Map<Integer, Classes> byIssue = caucusClasses.computeIfAbsent(party, pp -> new HashMap<>());
+        Classes cls = byIssue.get(s.issue);
+        if (cls == null || cls.members != members) {
+            cls = new Classes(s.issue);
+            synchronized (party) {
+                for (Representative m : party.options) cls.add(m);
+            }
+            byIssue.put(s.issue, cls);
+        }
+        double agree = 0.0;
+        if (cls.members > 0) {
+            double q = 0.0;
+            for (int c = 0; c < cls.size(); c++) {
+                q += cls.count[c] * cls.exemplar.get(c).supportProbability(s.proposal, cls.own.get(c), cls.fromParty.get(c), 0.0);
+            }
+            agree = CaucusStance.agreeProbability(q / cls.members, cls.members);
+        }
+        s.caucus.put(party, new double[]{cls.members, agree});
+        return agree;
+    }
+
+    // party id | value on the issue (opinion, polarization) | bias
+    private long classKey(Value own, Party party, int bias) {
+        long ownCode = own == null ? 0 : 1 + (own.getOpinion() + 10) * 11 + own.getPolarization();
+        long partyCode = partyId(party);
+        return (partyCode << 40) | (ownCode << 32) | (bias & 0xFFFFFFFFL);
+    }
+
+    private int partyId(Party party) {
+        if (party == null) return 0;
+        return partyIds.computeIfAbsent(party, pp -> {
+            partiesById.add(pp);
+            return partiesById.size() - 1;
+        });
+    }
+
+    // matched case-insensitively, like Representative.findValue and CaucusStance
+    private int issueId(String issue) {
+        return issueIds.computeIfAbsent(issue.toLowerCase(Locale.ROOT), i -> issueIds.size());
+    }
+
+    private static Value at(Value[] values, int issue) {
+        return issue < values.length ? values[issue] : null;
+    }
+
+    // first value per (lower-case) name, as Representative.findValue
+    private Value[] values(Representative rep) {
+        return valueIndex.computeIfAbsent(rep, r -> index(r.values));
+    }
+
+    private Value[] values(Party party) {
+        return partyIndex.computeIfAbsent(party, p -> index(p.getValues()));
+    }
+
+    private Value[] index(List<Value> values) {
+        if (values == null || values.isEmpty()) return new Value[0];
+        int[] ids = new int[values.size()];
+        int max = -1;
+        for (int i = 0; i < ids.length; i++) {
+            Value v = values.get(i);
+            ids[i] = (v == null || v.getName() == null) ? -1 : issueId(v.getName());
+            max = Math.max(max, ids[i]);
+        }
+        Value[] out = new Value[max + 1];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] >= 0 && out[ids[i]] == null) out[ids[i]] = values.get(i);
+        }
+        return out;
+    }
+}
@@ -90,6 +90,8 @@ public class Main {
             java.io.File citizensFile = new java.io.File(cfgDir, "custom_citizens.json");
 
             SimulationSettings settings = SimulationSettings.load(settingsFile);
+            SimulationExecutor.configure(settings);
+            PartySweepParallel.configure(settings);
 
             // Create country without auto population
             country = new Country(false);
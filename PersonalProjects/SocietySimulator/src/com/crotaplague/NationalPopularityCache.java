@@ -1,25 +1,43 @@
 package com.crotaplague;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Locale;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class NationalPopularityCache {
 
-    private Party cachedTopParty = null;
-    private Party cachedSecondParty = null;
-    private int cachedPartyCompositionHash = 0;
-    private int SAMPLE_SIZE = 5000;
+    /** National top-two result for one (country, candidate-party composition) context. */
+    private record TopParties(Party top, Party second) {
+        static final TopParties NONE = new TopParties(null, null);
+    }
+
+    /** Country is compared by identity; the composition string comes from candidatePartyComposition. */
+    private record CacheKey(Country country, String partyComposition) {}
+
+    // One future per context: the first caller computes, everyone else parks on join().
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<TopParties>> cache = new ConcurrentHashMap<>();
+    private volatile int SAMPLE_SIZE = 5000;
+    private volatile double confidence = SequentialTopTwoEstimator.DEFAULT_CONFIDENCE;
 
 
     public void init() {
         int computed = Math.toIntExact(Math.round(Main.country.getCountyCount() * 0.17));
         SAMPLE_SIZE = Math.max(1000, computed);
+        // a new country invalidates everything cached for the previous one
+        cache.clear();
     }
 
-    private int computeCandidatePartyHash(List<Representative> candidates) {
-        if (candidates == null) return 0;
+    /** Confidence at which the national ranking gaps must be significant before sampling stops. */
+    public void setConfidence(double confidence) {
+        if (!(confidence > 0.5 && confidence < 1.0)) throw new IllegalArgumentException("confidence must be in (0.5, 1)");
+        this.confidence = confidence;
+        cache.clear();
+    }
+
+    // "name:count;" per party, sorted by lowercased name: equal strings mean equal compositions
+    private String candidatePartyComposition(List<Representative> candidates) {
+        if (candidates == null) return "";
         Map<String, Integer> counts = new HashMap<>();
         for (Representative r : candidates) {
             if (r == null || r.getParty() == null) continue;
@@ -32,127 +50,74 @@ public class NationalPopularityCache {
         for (String k : keys) {
             sb.append(k).append(':').append(counts.get(k)).append(';');
         }
-        return sb.toString().hashCode();
+        return sb.toString();
     }
 
     // ---------------- NATIONAL PARTY SAMPLING ----------------
 
-    private final AtomicBoolean computing = new AtomicBoolean(false);
-
-    public void computeTopParties(List<Representative> candidates) {
-        // Fast-path: if both are already computed, return immediately
-        if (cachedTopParty != null && cachedSecondParty != null) return;
-
-        // Attempt to become the single computing thread.
-        // If another thread is already computing, wait until it finishes (busy-wait briefly).
-        if (!computing.compareAndSet(false, true)) {
-            // Another thread is computing. Wait for it to finish (simple spin/wait).
-            // In a production system you'd prefer a proper wait/notify or a CountDownLatch.
-            int waitLoops = 0;
-            while (computing.get()) {
+    /**
+     * Returns the national top two parties among the parties fielding candidates.
+     * Memoized per (country, party composition): exactly one thread samples, concurrent
+     * callers for the same context block on the shared future instead of spinning.
+     * A failed computation is evicted so the next caller retries.
+     */
+    private TopParties computeTopParties(List<Representative> candidates) {
+        final Country country = Main.country;
+        final CacheKey key = new CacheKey(country, candidatePartyComposition(candidates));
+
+        CompletableFuture<TopParties> future = cache.get(key);
+        if (future == null) {
+            CompletableFuture<TopParties> created = new CompletableFuture<>();
+            future = cache.putIfAbsent(key, created);
+            if (future == null) {
+                future = created;
                 try {
-                    Thread.sleep(1);
-                } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); break; }
-                if (++waitLoops > 2000) break; // don't spin forever
-            }
-            // After waiting, cached values may be set by the other thread — return.
-            if (cachedTopParty != null && cachedSecondParty != null) return;
-            // If still not set, try to become the computing thread again.
-            if (!computing.compareAndSet(false, true)) {
-                // give up — either another thread will finish, or we'll try later when someone calls again
-                return;
+                    created.complete(sampleTopParties(candidates, country));
+                } catch (Throwable t) {
+                    cache.remove(key, created);
+                    created.completeExceptionally(t);
+                }
             }
         }
+        return future.join();
+    }
 
-        // Now THIS thread is the designated computing thread.
-        try {
-            // Double-check the cache in case another thread already set it just before we acquired the lock.
-            if (cachedTopParty != null && cachedSecondParty != null) return;
-
-            // Defensive null/empty checks
-            if (candidates == null || candidates.isEmpty()) {
-                cachedTopParty = null;
-                cachedSecondParty = null;
-                return;
-            }
+    private TopParties sampleTopParties(List<Representative> candidates, Country country) {
+        // Defensive null/empty checks
+        if (candidates == null || candidates.isEmpty()) return TopParties.NONE;
 
-            // Build canonical party map
-            Map<String, Party> canonicalPartyByName = new HashMap<>();
-            for (Representative r : candidates) {
-                if (r == null || r.getParty() == null) continue;
-                canonicalPartyByName.putIfAbsent(
-                        r.getParty().getName().toLowerCase(Locale.ROOT),
-                        r.getParty()
-                );
-            }
-            if (canonicalPartyByName.isEmpty()) {
-                cachedTopParty = null;
-                cachedSecondParty = null;
-                return;
-            }
+        // Build canonical party map
+        Map<String, Party> canonicalPartyByName = new HashMap<>();
+        for (Representative r : candidates) {
+            if (r == null || r.getParty() == null) continue;
+            canonicalPartyByName.putIfAbsent(
+                    r.getParty().getName().toLowerCase(Locale.ROOT),
+                    r.getParty()
+            );
+        }
+        if (canonicalPartyByName.isEmpty()) return TopParties.NONE;
 
-            Set<Party> allParties = new HashSet<>(canonicalPartyByName.values());
-            List<Citizen> allCitizens = Main.country.getCitizens();
-            if (allCitizens == null || allCitizens.isEmpty()) {
-                cachedTopParty = null;
-                cachedSecondParty = null;
-                return;
-            }
+        Set<Party> allParties = new HashSet<>(canonicalPartyByName.values());
+        if (country == null || country.getCitizens() == null || country.getCitizens().isEmpty()) return TopParties.NONE;
 
-            // sample without replacement
-            List<Citizen> pool = new ArrayList<>(allCitizens);
-            Collections.shuffle(pool, ThreadLocalRandom.current());
-            int sampleSize = Math.min(pool.size(), SAMPLE_SIZE);
-
-            Map<String, Integer> rawCounts = new HashMap<>();
-            for (int i = 0; i < sampleSize; i++) {
-                Citizen c = pool.get(i);
-                Party pref = VotingUtils.getTruePreferredParty(c, allParties);
-                if (pref == null) continue;
-                String pname = pref.getName().toLowerCase(Locale.ROOT);
-                rawCounts.merge(pname, 1, Integer::sum);
-            }
+        // stratified sequential sample, stops as soon as the top-three order is significant
+        SequentialTopTwoEstimator.Estimate estimate =
+                new SequentialTopTwoEstimator(confidence, SAMPLE_SIZE).estimate(country, allParties);
 
-            String rawTop = null, rawSecond = null;
-            int rawTopVotes = -1, rawSecondVotes = -1;
-            for (Map.Entry<String, Integer> e : rawCounts.entrySet()) {
-                int v = e.getValue();
-                String n = e.getKey();
-                if (v > rawTopVotes) {
-                    rawSecond = rawTop; rawSecondVotes = rawTopVotes;
-                    rawTop = n; rawTopVotes = v;
-                } else if (v > rawSecondVotes) {
-                    rawSecond = n; rawSecondVotes = v;
-                }
-            }
+        // nothing to cache
+        if (estimate.top() == null) return TopParties.NONE;
 
-            if (rawTop == null) {
-                // nothing to cache
-                cachedTopParty = null;
-                cachedSecondParty = null;
-                return;
-            }
+        Party top = canonicalPartyByName.get(estimate.top().getName().toLowerCase(Locale.ROOT));
+        Party second = estimate.second() == null
+                ? null
+                : canonicalPartyByName.get(estimate.second().getName().toLowerCase(Locale.ROOT));
 
-            // Set cached parties (final assignment happens atomically by field writes)
-            cachedTopParty = canonicalPartyByName.get(rawTop);
-            cachedSecondParty = rawSecond == null
-                    ? null
-                    : canonicalPartyByName.get(rawSecond);
-
-            // Diagnostic — print which thread computed and what it set
-            System.err.printf(Locale.ROOT,
-                    "computeTopParties computed by %s -> top=%s (opts=%d) second=%s (opts=%d)%n",
-                    Thread.currentThread().getName(),
-                    cachedTopParty == null ? "null" : cachedTopParty.getName(),
-                    cachedTopParty == null ? 0 : cachedTopParty.options == null ? 0 : cachedTopParty.options.size(),
-                    cachedSecondParty == null ? "null" : cachedSecondParty.getName(),
-                    cachedSecondParty == null ? 0 : cachedSecondParty.options == null ? 0 : cachedSecondParty.options.size()
-            );
+        Metrics metrics = Metrics.of(country);
+        metrics.increment("topParties.computed");
+        if (!estimate.converged) metrics.increment("topParties.unconverged");
+        metrics.record("topParties.sampled", estimate.sampled);
 
-        } finally {
-            // Release the computing flag so other threads can proceed or see final result.
-            computing.set(false);
-        }
+        return new TopParties(top, second);
     }
 
 
@@ -175,7 +140,9 @@ public class NationalPopularityCache {
         if (candidates == null || candidates.isEmpty()) return null;
         if (localVoters == null || localVoters.isEmpty()) return null;
 
-        computeTopParties(candidates);
+        TopParties national = computeTopParties(candidates);
+        final Party cachedTopParty = national.top();
+        final Party cachedSecondParty = national.second();
 
         if (cachedTopParty == null) return null;
         if (cachedSecondParty == null) return VotingUtils.runFPTP(candidates, localVoters);
@@ -237,8 +204,7 @@ public class NationalPopularityCache {
         return winner;
     }
     public void reset() {
-        cachedTopParty = null;
-        cachedSecondParty = null;
+        cache.clear();
     }
 
 }
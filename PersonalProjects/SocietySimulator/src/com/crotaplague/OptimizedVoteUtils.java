@@ -6,33 +6,37 @@ import jdk.incubator.vector.VectorSpecies;
 
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.Future;
 
 /**
  * Drop-in optimized + accurate version of OptimizedVoteUtils.
  *
  * Preserves original semantics (tie-breaking, party-name resolution, selection heuristics),
- * but keeps sparse scoring and chunked parallelism for speed. Avoids stale TL buffers by
- * using per-voter sized local buffers (prevents correctness regressions).
+ * but keeps sparse scoring and chunked parallelism for speed. The hybrid path reuses a
+ * chunk-local scratch arena (never thread-local, never shared between tasks); buffers are
+ * sized to their upper bound and always read with the explicit per-voter length, so no
+ * stale tail from a previous voter can leak into a result.
  */
 public final class OptimizedVoteUtils {
 
     private static final String INDEPENDENT = "Independent/None";
 
-    private static final ForkJoinPool VOTE_POOL = new ForkJoinPool(
-            Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
-                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1)))
-    );
-
     private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
 
     // If a voter has more than this many non-zero issues use dense (vectorized) path.
-    private static final int DENSE_THRESHOLD = 64;
+    static final int DENSE_THRESHOLD = 64;
+
+    // Up to this many voter×party cells, each voter's party scores are computed in double when its row is read.
+    private static final long ROWS_DOUBLE_THRESHOLD = 25_000_000L;
+
+    // Above the double threshold, scores are kept as float32. Up to this many cells they live in
+    // one flat matrix; beyond it (e.g. 10M voters × 700 parties) tiles are streamed per chunk.
+    private static final long MATRIX_FLOAT_THRESHOLD = 256_000_000L;
 
-    // Same threshold for deciding whether to precompute voter×party matrix.
-    private static final long MATRIX_DOUBLE_THRESHOLD = 25_000_000L;
+    // Voters per tile row, and the byte budget for the party block kept hot in L1 while voters stream.
+    private static final int TILE_VOTERS = 256;
+    private static final int L1_PARTY_BLOCK_BYTES = 24 * 1024;
+
+    private enum ScoreLayout { ROWS_DOUBLE, MATRIX_FLOAT, STREAMED_FLOAT_TILES }
 
     public static Map<String, Double> computePopularPartyShares(
             List<Representative> candidates,
@@ -51,11 +55,71 @@ public final class OptimizedVoteUtils {
             int topPartiesToConsider,
             int maxRepsToEvaluatePerVoter) {
 
+        VoteTally tally = tallyVotes(candidates, voters, null, 1, mode, parallel, partyOnly,
+                topPartiesToConsider, maxRepsToEvaluatePerVoter);
+        if (tally == null) return Collections.emptyMap();
+        return tally.shares(tally.counts);
+    }
+
+    /**
+     * Votes counted per stratum: counts[s * slots + slot] is the number of voters in stratum s
+     * whose vote went to outputNames[slot]. Voters that cast no vote are not counted anywhere.
+     */
+    static final class VoteTally {
+        final String[] outputNames;
+        final int slots;
+        final int strata;
+        final long[] counts;
+
+        VoteTally(String[] outputNames, int strata, long[] counts) {
+            this.outputNames = outputNames;
+            this.slots = outputNames.length;
+            this.strata = strata;
+            this.counts = counts;
+        }
+
+        /** Shares over a slot vector (summed over strata or a single stratum), largest first. */
+        Map<String, Double> shares(long[] perSlot) {
+            long[] total = new long[slots];
+            for (int i = 0; i < perSlot.length; i++) total[i % slots] += perSlot[i];
+            long totalVotes = 0L;
+            for (long v : total) totalVotes += v;
+            if (totalVotes == 0) return Collections.emptyMap();
+
+            LinkedHashMap<String, Double> out = new LinkedHashMap<>();
+            Integer[] idx = new Integer[slots];
+            for (int i = 0; i < slots; i++) idx[i] = i;
+            Arrays.sort(idx, (a, b) -> Long.compare(total[b], total[a]));
+            for (int id : idx) {
+                if (total[id] > 0) out.put(outputNames[id], total[id] / (double) totalVotes);
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Same vote semantics as computePopularPartyShares, but counts are kept per stratum.
+     * stratumOf[vi] is the stratum of voter vi (0..strata-1); null puts everyone in stratum 0.
+     * Returns null when there is nothing to count.
+     */
+    static VoteTally tallyVotes(
+            List<Representative> candidates,
+            List<Citizen> voters,
+            int[] stratumOf,
+            int strata,
+            VotingUtils.FavoriteMode mode,
+            boolean parallel,
+            boolean partyOnly,
+            int topPartiesToConsider,
+            int maxRepsToEvaluatePerVoter) {
+
         if (candidates == null || candidates.isEmpty() || voters == null || voters.isEmpty()) {
-            return Collections.emptyMap();
+            return null;
         }
+        final int nStrata = Math.max(1, strata);
 
-        final ProfileFactory.Profiles prof = ProfileFactory.buildProfiles(voters, candidates);
+        // candidate side only; voters bring their own cached SparseProfile
+        final ProfileFactory.Profiles prof = ProfileFactory.buildProfiles(Collections.emptyList(), candidates);
         final int numVoters = voters.size();
         final int numReps = candidates.size();
         final int numParties = prof.partyProfiles.length;
@@ -135,159 +199,74 @@ public final class OptimizedVoteUtils {
             outputNames[indepSlot] = INDEPENDENT;
         }
 
-        // ---------------- build sparse voter views ----------------
-        final int[][] voterIndices = new int[numVoters][];
-        final double[][] voterImportance = new double[numVoters][];
-        final double[][] voterOpinion = new double[numVoters][];
-        final int[] voterLens = new int[numVoters];
-
-        for (int vi = 0; vi < numVoters; vi++) {
-            ValueProfile vp = prof.voterProfiles[vi];
-            double[] imp = vp.importance;
-            double[] op = vp.opinion;
-            final int len = imp.length;
-            int cnt = 0;
-            for (int i = 0; i < len; i++) if (imp[i] > 0.0) cnt++;
-            voterLens[vi] = cnt;
-            if (cnt == 0) {
-                voterIndices[vi] = new int[0];
-                voterImportance[vi] = new double[0];
-                voterOpinion[vi] = new double[0];
-            } else {
-                int[] idx = new int[cnt];
-                double[] viImp = new double[cnt];
-                double[] viOp = new double[cnt];
-                int pos = 0;
-                for (int i = 0; i < len; i++) {
-                    double w = imp[i];
-                    if (w > 0.0) {
-                        idx[pos] = i;
-                        viImp[pos] = w;
-                        viOp[pos] = op[i];
-                        pos++;
-                    }
-                }
-                voterIndices[vi] = idx;
-                voterImportance[vi] = viImp;
-                voterOpinion[vi] = viOp;
-            }
-        }
-
-        // Decide precompute matrix (sparse scoring)
-        final long neededDoubles = (long) numVoters * (long) numParties;
-        final boolean precomputeMatrix = neededDoubles <= MATRIX_DOUBLE_THRESHOLD;
-
-        final double[][] voterPartyScores;
-        if (precomputeMatrix) {
-            voterPartyScores = new double[numVoters][numParties];
-            if (parallel && numVoters > 1) {
-                int threads = Math.min(VOTE_POOL.getParallelism(), Math.max(1, numVoters));
-                int chunk = (numVoters + threads - 1) / threads;
-                List<Callable<Void>> tasks = new ArrayList<>(threads);
-                for (int t = 0; t < threads; t++) {
-                    final int start = t * chunk;
-                    final int end = Math.min(numVoters, start + chunk);
-                    tasks.add(() -> {
-                        for (int vi = start; vi < end; vi++) {
-                            if (voterLens[vi] >= DENSE_THRESHOLD) {
-                                ValueProfile vprof = prof.voterProfiles[vi];
-                                for (int pi = 0; pi < numParties; pi++) {
-                                    voterPartyScores[vi][pi] = alignmentScore(SPECIES, vprof, prof.partyProfiles[pi]);
-                                }
-                            } else {
-                                int[] idx = voterIndices[vi];
-                                double[] vimp = voterImportance[vi];
-                                double[] vop = voterOpinion[vi];
-                                for (int pi = 0; pi < numParties; pi++) {
-                                    voterPartyScores[vi][pi] = alignmentScoreSparse(idx, vimp, vop, prof.partyProfiles[pi]);
-                                }
-                            }
-                        }
-                        return null;
-                    });
-                }
-                try {
-                    List<Future<Void>> futs = VOTE_POOL.invokeAll(tasks);
-                    for (Future<Void> f : futs) f.get();
-                } catch (InterruptedException | ExecutionException e) {
-                    throw new RuntimeException(e);
-                }
-            } else {
-                for (int vi = 0; vi < numVoters; vi++) {
-                    if (voterLens[vi] >= DENSE_THRESHOLD) {
-                        ValueProfile vprof = prof.voterProfiles[vi];
-                        for (int pi = 0; pi < numParties; pi++) {
-                            voterPartyScores[vi][pi] = alignmentScore(SPECIES, vprof, prof.partyProfiles[pi]);
-                        }
-                    } else {
-                        int[] idx = voterIndices[vi];
-                        double[] vimp = voterImportance[vi];
-                        double[] vop = voterOpinion[vi];
-                        for (int pi = 0; pi < numParties; pi++) {
-                            voterPartyScores[vi][pi] = alignmentScoreSparse(idx, vimp, vop, prof.partyProfiles[pi]);
-                        }
+        // Decide score layout (sparse scoring)
+        final long neededCells = (long) numVoters * (long) numParties;
+        final ScoreLayout layout;
+        if (neededCells <= ROWS_DOUBLE_THRESHOLD) layout = ScoreLayout.ROWS_DOUBLE;
+        else if (neededCells <= MATRIX_FLOAT_THRESHOLD) layout = ScoreLayout.MATRIX_FLOAT;
+        else layout = ScoreLayout.STREAMED_FLOAT_TILES;
+        final int issueCount = numParties == 0 ? 0 : prof.partyProfiles[0].importance.length;
+        final int tileParties = Math.max(1, Math.min(numParties, L1_PARTY_BLOCK_BYTES / Math.max(1, issueCount * 16)));
+
+        // Flat float32 matrix, filled tile by tile on the simulation pool
+        final float[] flatScores;
+        if (layout == ScoreLayout.MATRIX_FLOAT) {
+            flatScores = new float[Math.toIntExact(neededCells)];
+            final int tiles = (numVoters + TILE_VOTERS - 1) / TILE_VOTERS;
+            final int threads = parallel ? SimulationExecutor.get().workers(tiles) : 1;
+            final int tilesPerTask = (tiles + threads - 1) / threads;
+            List<Callable<Void>> tasks = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                final int from = Math.min(numVoters, t * tilesPerTask * TILE_VOTERS);
+                final int to = Math.min(numVoters, (t + 1) * tilesPerTask * TILE_VOTERS);
+                tasks.add(() -> {
+                    for (int v0 = from; v0 < to; v0 += TILE_VOTERS) {
+                        fillScoreTile(prof, voters, v0, Math.min(to, v0 + TILE_VOTERS), tileParties,
+                                flatScores, v0 * numParties);
                     }
-                }
+                    return null;
+                });
             }
+            SimulationExecutor.get().invokeAll(tasks);
         } else {
-            voterPartyScores = null;
+            flatScores = null;
         }
 
         // ---------------- party-only fast path (keeps original semantics) ----------------
         if (partyOnly) {
-            final int threads = (parallel && numVoters > 1) ? Math.min(VOTE_POOL.getParallelism(), Math.max(1, numVoters)) : 1;
+            final int threads = parallel ? SimulationExecutor.get().workers(numVoters) : 1;
             final int chunk = (numVoters + threads - 1) / threads;
             List<Callable<long[]>> tasks = new ArrayList<>(threads);
             for (int t = 0; t < threads; t++) {
                 final int start = t * chunk;
                 final int end = Math.min(numVoters, start + chunk);
                 tasks.add(() -> {
-                    long[] localCounts = new long[totalSlots];
-                    double[] localPScores = precomputeMatrix ? null : new double[numParties];
+                    long[] localCounts = new long[nStrata * totalSlots];
+                    ScoreRows rows = new ScoreRows(layout, flatScores, prof, voters, tileParties, end);
                     for (int vi = start; vi < end; vi++) {
-                        final double[] pScores = precomputeMatrix ? voterPartyScores[vi] :
-                                computePartyScoresSparse(vi, prof, voterIndices, voterImportance, voterOpinion, voterLens, localPScores);
+                        final double[] pScores = rows.row(vi);
                         int bestParty = -1;
                         double best = Double.NEGATIVE_INFINITY;
                         for (int pi = 0; pi < numParties; pi++) {
                             double s = pScores[pi];
                             if (s > best) { best = s; bestParty = pi; }
                         }
-                        if (bestParty >= 0) localCounts[bestParty]++;
-                        else { localCounts[indepSlot]++; }
+                        final int base = stratumOf == null ? 0 : stratumOf[vi] * totalSlots;
+                        if (bestParty >= 0) localCounts[base + bestParty]++;
+                        else { localCounts[base + indepSlot]++; }
                     }
                     return localCounts;
                 });
             }
 
-            long[] total = new long[totalSlots];
-            try {
-                List<Future<long[]>> futs = VOTE_POOL.invokeAll(tasks);
-                for (Future<long[]> f : futs) {
-                    long[] lc = f.get();
-                    for (int i = 0; i < totalSlots; i++) total[i] += lc[i];
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
-            }
-
-            long totalVotes = 0L;
-            for (long v : total) totalVotes += v;
-            if (totalVotes == 0) return Collections.emptyMap();
-
-            LinkedHashMap<String, Double> out = new LinkedHashMap<>();
-            Integer[] idx = new Integer[totalSlots];
-            for (int i = 0; i < totalSlots; i++) idx[i] = i;
-            Arrays.sort(idx, (a, b) -> Long.compare(total[b], total[a]));
-            for (int id : idx) {
-                if (total[id] > 0) out.put(outputNames[id], total[id] / (double) totalVotes);
-            }
-            return out;
+            return new VoteTally(outputNames, nStrata, mergeCounts(tasks, nStrata * totalSlots));
         }
 
         // ---------------------------- HYBRID PATH ----------------------------
-        final int threads = (parallel && numVoters > 1) ? Math.min(VOTE_POOL.getParallelism(), Math.max(1, numVoters)) : 1;
+        final int threads = parallel ? SimulationExecutor.get().workers(numVoters) : 1;
         final int chunk = (numVoters + threads - 1) / threads;
+        final int K = Math.max(1, Math.min(topPartiesToConsider, numParties));
+        final int M = maxRepsToEvaluatePerVoter > 0 ? Math.min(maxRepsToEvaluatePerVoter, numReps) : 0;
         List<Callable<long[]>> tasks = new ArrayList<>(threads);
 
         for (int t = 0; t < threads; t++) {
@@ -295,74 +274,63 @@ public final class OptimizedVoteUtils {
             final int end = Math.min(numVoters, start + chunk);
 
             tasks.add(() -> {
-                long[] localCounts = new long[totalSlots];
-                double[] localPScores = precomputeMatrix ? null : new double[numParties];
+                long[] localCounts = new long[nStrata * totalSlots];
+                ScoreRows rows = new ScoreRows(layout, flatScores, prof, voters, tileParties, end);
+
+                // Chunk-local scratch arena. Every buffer is sized to its hard upper bound
+                // (top-K parties are distinct, so gathered candidates <= numReps) and is only
+                // ever read up to the explicit length written for the current voter.
+                final int[] topParties = new int[K];
+                final double[] topHeapVals = new double[K];
+                final int[] candBuf = new int[numReps];
+                final int[] selHeapIdx = new int[Math.max(1, M)];
+                final double[] selHeapVals = new double[Math.max(1, M)];
+                final double[] personalAlign = new double[numReps];
+                final double[] repPartyAlign = new double[numReps];
 
                 for (int vi = start; vi < end; vi++) {
-                    ValueProfile voterProf = prof.voterProfiles[vi];
-                    double voterBias = voters.get(vi).getBias();
+                    final Citizen voter = voters.get(vi);
+                    final SparseProfile vp = voter.profile();
+                    double voterBias = voter.getBias();
 
-                    final double[] pScores = precomputeMatrix ? voterPartyScores[vi] :
-                            computePartyScoresSparse(vi, prof, voterIndices, voterImportance, voterOpinion, voterLens, localPScores);
+                    final double[] pScores = rows.row(vi);
 
                     // pick top K parties (same semantics as older code)
-                    int K = Math.max(1, Math.min(topPartiesToConsider, numParties));
-                    int[] topParties = topKPartiesByHeap(pScores, K);
+                    final int topLen = topKPartiesByHeap(pScores, numParties, K, topParties, topHeapVals);
 
-                    // gather candidate indices from those parties into a fresh candidate buffer sized to pos
-                    int[] candBufTemp = new int[0];
-                    int totalCandidates = 0;
-                    for (int p : topParties) {
-                        if (p < 0 || p >= partyToRepsArr.length) continue;
-                        totalCandidates += partyToRepsArr[p].length;
-                    }
-                    // Also include independents so they can be evaluated
-                    totalCandidates += independentReps.length;
-                    if (totalCandidates == 0) continue;
-                    candBufTemp = new int[totalCandidates];
+                    // gather candidate indices from those parties into the candidate buffer
                     int pos = 0;
-                    for (int p : topParties) {
+                    for (int k = 0; k < topLen; k++) {
+                        int p = topParties[k];
                         if (p < 0 || p >= partyToRepsArr.length) continue;
                         int[] reps = partyToRepsArr[p];
-                        for (int r : reps) candBufTemp[pos++] = r;
+                        System.arraycopy(reps, 0, candBuf, pos, reps.length);
+                        pos += reps.length;
                     }
-                    // append independents
-                    for (int r : independentReps) candBufTemp[pos++] = r;
+                    // append independents so they can be evaluated
+                    System.arraycopy(independentReps, 0, candBuf, pos, independentReps.length);
+                    pos += independentReps.length;
+                    if (pos == 0) continue;
 
                     final int[] selected;
-                    if (maxRepsToEvaluatePerVoter > 0 && pos > maxRepsToEvaluatePerVoter) {
+                    final int selLen;
+                    if (M > 0 && pos > M) {
                         // select top M by party alignment proxy EXACTLY like old code
-                        int need = maxRepsToEvaluatePerVoter;
-                        int[] selHeapIdx = new int[need];
-                        double[] selHeapVals = new double[need];
-                        selected = selectTopMByPartyAlignmentInplace(candBufTemp, pos, need, pScores, prof, selHeapIdx, selHeapVals);
+                        selLen = selectTopMByPartyAlignmentInplace(candBuf, pos, M, pScores, prof, selHeapIdx, selHeapVals);
+                        selected = selHeapIdx;
                     } else {
-                        selected = Arrays.copyOf(candBufTemp, pos);
+                        selLen = pos;
+                        selected = candBuf;
                     }
-
-                    final int selLen = selected.length;
                     if (selLen == 0) continue;
 
-                    // allocate exact-size arrays for alignment values (avoid stale tails)
-                    double[] personalAlign = new double[selLen];
-                    double[] repPartyAlign = new double[selLen];
-
                     // compute rep party alignment (from pScores) and personal align for selected candidates
-                    int[] vIdx = voterIndices[vi];
-                    double[] vImp = voterImportance[vi];
-                    double[] vOp = voterOpinion[vi];
-                    int vlen = voterLens[vi];
-
                     for (int j = 0; j < selLen; j++) {
                         final int ri = selected[j];
                         int pidx = repToPartyIdx[ri];
                         repPartyAlign[j] = (pidx >= 0 && pidx < pScores.length) ? pScores[pidx] : 0.0;
                         ValueProfile rprof = repProfiles[ri];
-                        if (vlen >= DENSE_THRESHOLD) {
-                            personalAlign[j] = alignmentScore(SPECIES, voterProf, rprof);
-                        } else {
-                            personalAlign[j] = alignmentScoreSparse(vIdx, vImp, vOp, rprof);
-                        }
+                        personalAlign[j] = alignmentScore(vp, rprof);
                     }
 
                     // evaluate selected candidates (same tie-breaking as original)
@@ -387,42 +355,35 @@ public final class OptimizedVoteUtils {
                     }
 
                     if (bestRep >= 0) {
+                        final int base = stratumOf == null ? 0 : stratumOf[vi] * totalSlots;
                         int partyIdx = repToPartyIdx[bestRep];
-                        if (partyIdx >= 0 && partyIdx < numParties) localCounts[partyIdx]++;
-                        else { localCounts[indepSlot]++; }
+                        if (partyIdx >= 0 && partyIdx < numParties) localCounts[base + partyIdx]++;
+                        else { localCounts[base + indepSlot]++; }
                     }
                 }
                 return localCounts;
             });
         }
 
-        long[] total = new long[totalSlots];
-        try {
-            List<Future<long[]>> futs = VOTE_POOL.invokeAll(tasks);
-            for (Future<long[]> f : futs) {
-                long[] lc = f.get();
-                for (int i = 0; i < totalSlots; i++) total[i] += lc[i];
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException(e);
-        }
-
-        long totalVotes = 0L;
-        for (long v : total) totalVotes += v;
-        if (totalVotes == 0) return Collections.emptyMap();
+        return new VoteTally(outputNames, nStrata, mergeCounts(tasks, nStrata * totalSlots));
+    }
 
-        LinkedHashMap<String, Double> out = new LinkedHashMap<>();
-        Integer[] idx = new Integer[totalSlots];
-        for (int i = 0; i < totalSlots; i++) idx[i] = i;
-        Arrays.sort(idx, (a, b) -> Long.compare(total[b], total[a]));
-        for (int id : idx) {
-            if (total[id] > 0) out.put(outputNames[id], total[id] / (double) totalVotes);
+    private static long[] mergeCounts(List<Callable<long[]>> tasks, int size) {
+        long[] total = new long[size];
+        for (long[] lc : SimulationExecutor.get().invokeAll(tasks)) {
+            for (int i = 0; i < size; i++) total[i] += lc[i];
         }
-        return out;
+        return total;
     }
 
     // -------------------- helper alignment functions --------------------
 
+    // dense (vectorized) for voters with many issues, sparse otherwise
+    private static double alignmentScore(SparseProfile voter, ValueProfile other) {
+        if (voter.dense != null) return alignmentScore(SPECIES, voter.dense, other);
+        return alignmentScoreSparse(voter.index, voter.importance, voter.opinion, other);
+    }
+
     private static double alignmentScore(VectorSpecies<Double> species, ValueProfile a, ValueProfile b) {
         final double[] ai = a.importance;
         final double[] bi = b.importance;
@@ -492,68 +453,126 @@ public final class OptimizedVoteUtils {
         return sumW > 0.0 ? (sumContrib / sumW) : 0.0;
     }
 
-    private static double[] computePartyScoresSparse(int vi,
-                                                     ProfileFactory.Profiles prof,
-                                                     int[][] voterIndices,
-                                                     double[][] voterImportance,
-                                                     double[][] voterOpinion,
-                                                     int[] voterLens,
-                                                     double[] buf) {
-        final int nParties = prof.partyProfiles.length;
-        if (buf == null || buf.length < nParties) buf = new double[nParties];
-        int[] idx = voterIndices[vi];
-        double[] vimp = voterImportance[vi];
-        double[] vop = voterOpinion[vi];
-        int vlen = voterLens[vi];
-
-        if (vlen >= DENSE_THRESHOLD) {
-            ValueProfile vprof = prof.voterProfiles[vi];
-            for (int pi = 0; pi < nParties; pi++) buf[pi] = alignmentScore(SPECIES, vprof, prof.partyProfiles[pi]);
-            return buf;
+    /**
+     * Fills scores for voters [from, to) × all parties into dst (row-major, numParties per row,
+     * starting at dstBase). Parties are walked in blocks of tileParties so a block's profiles stay
+     * in L1 while the voters of the tile stream past it.
+     */
+    private static void fillScoreTile(ProfileFactory.Profiles prof,
+                                      List<Citizen> voters,
+                                      int from, int to, int tileParties,
+                                      float[] dst, int dstBase) {
+        final ValueProfile[] parties = prof.partyProfiles;
+        final int nParties = parties.length;
+        for (int p0 = 0; p0 < nParties; p0 += tileParties) {
+            final int p1 = Math.min(nParties, p0 + tileParties);
+            int rowBase = dstBase;
+            for (int vi = from; vi < to; vi++, rowBase += nParties) {
+                SparseProfile vp = voters.get(vi).profile();
+                for (int pi = p0; pi < p1; pi++) dst[rowBase + pi] = (float) alignmentScore(vp, parties[pi]);
+            }
         }
+    }
 
-        for (int pi = 0; pi < nParties; pi++) {
-            buf[pi] = alignmentScoreSparse(idx, vimp, vop, prof.partyProfiles[pi]);
+    /**
+     * Per-chunk view of voter×party scores, whatever the layout. Rows must be requested in
+     * ascending voter order; in double mode a row is scored when it is read (each is read once),
+     * in streamed mode the next tile is computed when a row falls outside the current one.
+     * The returned row is reused by the next call. Not shared between tasks.
+     */
+    private static final class ScoreRows {
+        private final ScoreLayout layout;
+        private final float[] flat;
+        private final ProfileFactory.Profiles prof;
+        private final List<Citizen> voters;
+        private final int tileParties;
+        private final int end;
+        private final int nParties;
+        private final double[] row;
+        private final float[] tile;
+        private int tileStart = 0;
+        private int tileEnd = 0;
+
+        ScoreRows(ScoreLayout layout, float[] flat, ProfileFactory.Profiles prof, List<Citizen> voters,
+                  int tileParties, int end) {
+            this.layout = layout;
+            this.flat = flat;
+            this.prof = prof;
+            this.voters = voters;
+            this.tileParties = tileParties;
+            this.end = end;
+            this.nParties = prof.partyProfiles.length;
+            this.row = new double[nParties];
+            this.tile = layout == ScoreLayout.STREAMED_FLOAT_TILES ? new float[TILE_VOTERS * nParties] : null;
+        }
+
+        double[] row(int vi) {
+            switch (layout) {
+                case ROWS_DOUBLE: {
+                    SparseProfile vp = voters.get(vi).profile();
+                    for (int pi = 0; pi < nParties; pi++) row[pi] = alignmentScore(vp, prof.partyProfiles[pi]);
+                    return row;
+                }
+                case MATRIX_FLOAT: {
+                    int base = vi * nParties;
+                    for (int pi = 0; pi < nParties; pi++) row[pi] = flat[base + pi];
+                    return row;
+                }
+                default: {
+                    if (vi < tileStart || vi >= tileEnd) {
+                        tileStart = vi;
+                        tileEnd = Math.min(end, vi + TILE_VOTERS);
+                        fillScoreTile(prof, voters, tileStart, tileEnd, tileParties, tile, 0);
+                    }
+                    int base = (vi - tileStart) * nParties;
+                    for (int pi = 0; pi < nParties; pi++) row[pi] = tile[base + pi];
+                    return row;
+                }
+            }
         }
-        return buf;
     }
 
     // --- helpers (same semantics as your earlier helpers) ---
-    private static int[] topKPartiesByHeap(double[] scores, int k) {
-        final int n = scores.length;
+    /**
+     * Writes the indices of the k best scores (heap order, or 0..n-1 when k >= n) into outIdx
+     * and returns how many were written. outIdx/outVals must hold at least k entries.
+     */
+    private static int topKPartiesByHeap(double[] scores, int n, int k, int[] outIdx, double[] outVals) {
         if (k >= n) {
-            int[] all = new int[n];
-            for (int i = 0; i < n; i++) all[i] = i;
-            return all;
+            for (int i = 0; i < n; i++) outIdx[i] = i;
+            return n;
         }
-        int[] heapIdx = new int[k];
-        double[] heapVals = new double[k];
         int size = 0;
         for (int i = 0; i < n; i++) {
             double v = scores[i];
             if (size < k) {
-                heapIdx[size] = i;
-                heapVals[size] = v;
-                siftUp(heapIdx, heapVals, size);
+                outIdx[size] = i;
+                outVals[size] = v;
+                siftUp(outIdx, outVals, size);
                 size++;
-            } else if (v > heapVals[0]) {
-                heapIdx[0] = i;
-                heapVals[0] = v;
-                siftDown(heapIdx, heapVals, 0, size);
+            } else if (v > outVals[0]) {
+                outIdx[0] = i;
+                outVals[0] = v;
+                siftDown(outIdx, outVals, 0, size);
             }
         }
-        int[] out = new int[size];
-        System.arraycopy(heapIdx, 0, out, 0, size);
-        return out;
+        return size;
     }
 
-    private static int[] selectTopMByPartyAlignmentInplace(
+    /**
+     * Selects the m candidates with the best party alignment into heapIdx (heap order) and
+     * returns how many were selected. heapIdx/heapVals must hold at least m entries.
+     */
+    private static int selectTopMByPartyAlignmentInplace(
             int[] candIdx, int len, int m,
             double[] pScores, ProfileFactory.Profiles prof,
             int[] heapIdx, double[] heapVals) {
 
-        if (m <= 0) return new int[0];
-        if (m >= len) return Arrays.copyOf(candIdx, len);
+        if (m <= 0) return 0;
+        if (m >= len) {
+            System.arraycopy(candIdx, 0, heapIdx, 0, len);
+            return len;
+        }
 
         int heapSize = 0;
         for (int i = 0; i < len; i++) {
@@ -573,9 +592,7 @@ public final class OptimizedVoteUtils {
             }
         }
 
-        int[] out = new int[heapSize];
-        System.arraycopy(heapIdx, 0, out, 0, heapSize);
-        return out;
+        return heapSize;
     }
 
     private static void siftUp(int[] heap, double[] vals, int idx) {
@@ -7,6 +7,7 @@ public class Party implements Comparable {
     private final String name;
     List<Representative> options;
     List<Value> values;
+    private int valuesVersion; // bumped by addValue, so cached views of the values can tell they're stale
     public Party(String str, int bias){
         this.name = str;
         this.bias = bias;
@@ -31,7 +32,8 @@ public class Party implements Comparable {
     public int getBias(){return this.bias;}
     public List<Representative> getOptions(){return this.options;}
     public List<Value> getValues(){return this.values;}
-    public void addValue(Value v){values.add(v);}
+    public void addValue(Value v){values.add(v); valuesVersion++;}
+    int valuesVersion(){return this.valuesVersion;}
 
     @Override
     public String toString(){
@@ -0,0 +1,288 @@
+package com.crotaplague;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Precomputed form of RandomScripts.search(Citizen, Party[]) for a fixed party set.
+ *
+ * Party values are laid out issue-major (opinion and polarization per issue, one slot per party),
+ * so scoring a citizen resolves each of its values to an issue once and then sweeps all parties.
+ * Scores, joinability rules and tie-breaking (first party in the given order wins) are identical to
+ * search(). Parties are also kept in bias order so the "all unjoinable" fallback is a binary search.
+ *
+ * With shuffleTies, assign() tries runs of adjacent equal-bias parties in a fresh random order for
+ * every candidate, as sorting the parties with RandomScripts.unstableComparator before each search did.
+ *
+ * Instances are immutable apart from the fallback counter and safe to share between threads.
+ */
+public final class PartyMatcher {
+
+    // weights and thresholds, same as RandomScripts.search
+    private static final double BIAS_WEIGHT = 0.60;
+    private static final double VALUE_WEIGHT = 0.40;
+    private static final double MISSING_PENALTY = 0.15;
+
+    private static final int BULK_CHUNK = 256;
+
+    private static final LongAdder TOTAL_FALLBACKS = new LongAdder();
+
+    private final Party[] parties;
+    private final double[] bias;
+    private final Map<String, Integer> issueIndex;
+    // [issue * nParties + party]; NaN opinion = party has no value for that issue
+    private final double[] opinion;
+    private final double[] polarization;
+    // party indices sorted by bias (ties by index) and their biases, for the fallback
+    private final int[] byBias;
+    private final double[] sortedBias;
+    // each party's Party.valuesVersion() when this was built
+    private final int[] versions;
+    // [start, end) of each run of adjacent equal-bias parties, when ties are shuffled
+    private final int[][] tieRuns;
+    private final LongAdder fallbacks = new LongAdder();
+
+    /** Parties are matched in the given order: on equal scores the earlier party wins. */
+    public PartyMatcher(Party[] parties) {
+        this(parties, false);
+    }
+
+    /**
+     * @param shuffleTies whether assign() breaks ties between adjacent equal-bias parties at random
+     *                    (per candidate) instead of by the given order
+     */
+    public PartyMatcher(Party[] parties, boolean shuffleTies) {
+        this.parties = parties.clone();
+        final int n = this.parties.length;
+        this.bias = new double[n];
+        this.versions = new int[n];
+        this.issueIndex = new HashMap<>();
+        for (int p = 0; p < n; p++) {
+            Party party = this.parties[p];
+            bias[p] = party.getBias();
+            versions[p] = party.valuesVersion();
+            if (party.getValues() == null) continue;
+            for (Value v : party.getValues()) issueIndex.putIfAbsent(v.getName(), issueIndex.size());
+        }
+
+        List<int[]> runs = new ArrayList<>();
+        if (shuffleTies) {
+            for (int start = 0, end; start < n; start = end) {
+                end = start + 1;
+                while (end < n && bias[end] == bias[start]) end++;
+                if (end - start > 1) runs.add(new int[]{start, end});
+            }
+        }
+        this.tieRuns = runs.toArray(new int[0][]);
+
+        final int issues = issueIndex.size();
+        this.opinion = new double[issues * n];
+        this.polarization = new double[issues * n];
+        Arrays.fill(opinion, Double.NaN);
+        for (int p = 0; p < n; p++) {
+            Party party = this.parties[p];
+            if (party.getValues() == null) continue;
+            // later duplicates overwrite earlier ones, like the per-call HashMap in search()
+            for (Value v : party.getValues()) {
+                int slot = issueIndex.get(v.getName()) * n + p;
+                opinion[slot] = v.getOpinion();
+                polarization[slot] = v.getPolarization();
+            }
+        }
+
+        Integer[] order = new Integer[n];
+        for (int p = 0; p < n; p++) order[p] = p;
+        Arrays.sort(order, (a, b) -> {
+            int c = Double.compare(bias[a], bias[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        this.byBias = new int[n];
+        this.sortedBias = new double[n];
+        for (int k = 0; k < n; k++) {
+            byBias[k] = order[k];
+            sortedBias[k] = bias[order[k]];
+        }
+    }
+
+    public int size() { return parties.length; }
+
+    /**
+     * True if this matcher was built from exactly these parties (same instances in some order) and
+     * none of them has gained a value since. Cheap enough to call before every reuse.
+     */
+    public boolean isCurrentFor(Collection<Party> current) {
+        if (current == null || current.size() != parties.length) return false;
+        Map<Party, Integer> mine = new IdentityHashMap<>(parties.length * 2);
+        for (int p = 0; p < parties.length; p++) mine.put(parties[p], p);
+        for (Party p : current) {
+            Integer i = mine.get(p);
+            if (i == null || p.valuesVersion() != versions[i]) return false;
+        }
+        return true;
+    }
+
+    /** Best party for the citizen, or null when there are no parties. */
+    public Party match(Citizen citizen) {
+        if (parties.length == 0) return null;
+        final int n = parties.length;
+        return match(citizen, new double[n], new double[n], new double[n], null, null);
+    }
+
+    /**
+     * Matches every candidate's citizen in parallel, then (on the calling thread, in list order)
+     * adds each candidate to its party's options and sets its party, as State.sortPickRepresentative
+     * did one search() at a time.
+     */
+    public Party[] assign(List<Representative> candidates) {
+        final int m = candidates == null ? 0 : candidates.size();
+        final Party[] out = new Party[m];
+        if (m == 0 || parties.length == 0) return out;
+
+        final int n = parties.length;
+        final int chunks = (m + BULK_CHUNK - 1) / BULK_CHUNK;
+        SimulationExecutor.get().forEachChunk(chunks, ch -> {
+            // chunk-local scratch, reused for every candidate in the chunk
+            double[] sumSim = new double[n];
+            double[] penalty = new double[n];
+            double[] bestSingle = new double[n];
+            int[] order = tieRuns.length == 0 ? null : new int[n];
+            int[] rank = order == null ? null : new int[n];
+            int end = Math.min(m, (ch + 1) * BULK_CHUNK);
+            for (int i = ch * BULK_CHUNK; i < end; i++) {
+                Representative r = candidates.get(i);
+                if (order != null) shuffleTies(order, rank);
+                out[i] = match(r == null ? null : r.getCitizen(), sumSim, penalty, bestSingle, order, rank);
+            }
+        });
+
+        for (int i = 0; i < m; i++) {
+            Representative r = candidates.get(i);
+            Party p = out[i];
+            if (r == null || p == null) continue;
+            synchronized (p) {
+                p.addOption(r);
+            }
+            r.setParty(p);
+        }
+        return out;
+    }
+
+    /** Times this matcher fell back to nearest-by-bias because every party was unjoinable. */
+    public long getFallbackCount() { return fallbacks.sum(); }
+
+    /** Same, summed over every matcher (including the one-off ones behind RandomScripts.search). */
+    public static long getTotalFallbackCount() { return TOTAL_FALLBACKS.sum(); }
+
+    /** The given order with each tie run shuffled; rank is its inverse. */
+    private void shuffleTies(int[] order, int[] rank) {
+        for (int k = 0; k < order.length; k++) order[k] = k;
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        for (int[] run : tieRuns) {
+            for (int k = run[1] - 1; k > run[0]; k--) {
+                int j = run[0] + rng.nextInt(k - run[0] + 1);
+                int t = order[k];
+                order[k] = order[j];
+                order[j] = t;
+            }
+        }
+        for (int k = 0; k < order.length; k++) rank[order[k]] = k;
+    }
+
+    // -------------------- scoring --------------------
+
+    /** order (with its inverse rank) is the tie-break order, or null for the given order. */
+    private Party match(Citizen citizen, double[] sumSim, double[] penalty, double[] bestSingle, int[] order, int[] rank) {
+        if (citizen == null) return parties[order == null ? 0 : order[0]];
+        final int n = parties.length;
+        final double cBias = citizen.getBias(); // 0..100
+        final List<Value> cValues = citizen.getValues() == null ? Collections.emptyList() : citizen.getValues();
+
+        Arrays.fill(sumSim, 0.0);
+        Arrays.fill(penalty, 0.0);
+        Arrays.fill(bestSingle, 0.0);
+        double sumMaxWeight = 0.0;
+
+        for (Value cv : cValues) {
+            final double cvPolar = cv.getPolarization() / 10.0; // 0..1
+            sumMaxWeight += cvPolar;
+            Integer issue = issueIndex.get(cv.getName());
+            if (issue == null) {
+                // no party has this value: same penalty for all of them (kept per party so the
+                // summation order, and therefore every score, matches search() bit for bit)
+                final double pen = cvPolar * MISSING_PENALTY;
+                for (int p = 0; p < n; p++) penalty[p] += pen;
+                continue;
+            }
+            final int base = issue * n;
+            final double cOp = cv.getOpinion();
+            final double cPol = cv.getPolarization();
+            for (int p = 0; p < n; p++) {
+                double pOp = opinion[base + p];
+                if (Double.isNaN(pOp)) {
+                    penalty[p] += cvPolar * MISSING_PENALTY;
+                } else {
+                    double opinionSim = (10.0 - Math.abs(cOp - pOp)) / 10.0;
+                    double weight = (cPol + polarization[base + p]) / 20.0;
+                    double contrib = opinionSim * weight;
+                    sumSim[p] += contrib;
+                    if (contrib > bestSingle[p]) bestSingle[p] = contrib;
+                }
+            }
+        }
+
+        Party best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < n; k++) {
+            final int p = order == null ? k : order[k];
+            double normBiasDist = Math.abs(cBias - bias[p]) / 100.0;
+            double biasSimilarity = 1.0 - normBiasDist;
+
+            double rawValuesScore = 0.0;
+            if (sumMaxWeight > 0) rawValuesScore = (sumSim[p] - penalty[p]) / sumMaxWeight;
+            rawValuesScore = Math.max(0.0, Math.min(1.0, rawValuesScore));
+
+            double valuesMultiplier = 1.0 - (normBiasDist * normBiasDist);
+            double score = (BIAS_WEIGHT * biasSimilarity) + (VALUE_WEIGHT * rawValuesScore * valuesMultiplier);
+
+            boolean basicBiasOk = biasSimilarity >= 0.20;
+            boolean strongValuePull = bestSingle[p] >= 0.75 && biasSimilarity >= 0.10;
+            boolean tolerantIfModerate = rawValuesScore >= 0.65 && biasSimilarity >= 0.15;
+            if (!(basicBiasOk || strongValuePull || tolerantIfModerate)) score -= 1.0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                best = parties[p];
+            }
+        }
+
+        if (best != null && bestScore < -0.5) {
+            fallbacks.increment();
+            TOTAL_FALLBACKS.increment();
+            return nearestByBias(cBias, rank);
+        }
+        return best;
+    }
+
+    /** Nearest party by bias; on equal distance the earliest party in the tie-break order wins. */
+    private Party nearestByBias(double cBias, int[] rank) {
+        final int n = sortedBias.length;
+        int pos = Arrays.binarySearch(sortedBias, cBias);
+        if (pos < 0) pos = -pos - 1;
+        double bestDist = Double.POSITIVE_INFINITY;
+        if (pos < n) bestDist = Math.abs(sortedBias[pos] - cBias);
+        if (pos > 0) bestDist = Math.min(bestDist, Math.abs(sortedBias[pos - 1] - cBias));
+
+        int bestIdx = -1, bestRank = Integer.MAX_VALUE;
+        // every party at exactly bestDist sits in one contiguous run on each side of pos
+        for (int k = pos; k < n && Math.abs(sortedBias[k] - cBias) == bestDist; k++) {
+            int r = rank == null ? byBias[k] : rank[byBias[k]];
+            if (r < bestRank) { bestRank = r; bestIdx = byBias[k]; }
+        }
+        for (int k = pos - 1; k >= 0 && Math.abs(sortedBias[k] - cBias) == bestDist; k--) {
+            int r = rank == null ? byBias[k] : rank[byBias[k]];
+            if (r < bestRank) { bestRank = r; bestIdx = byBias[k]; }
+        }
+        return parties[bestIdx];
+    }
+}
@@ -1,6 +1,12 @@
 package com.crotaplague;
 
+import com.crotaplague.Ballots.Condorcet;
 import com.crotaplague.Ballots.ElectionMethod;
+import com.crotaplague.Ballots.FirstChoiceMethod;
+import com.crotaplague.Ballots.Positional;
+import com.crotaplague.Ballots.RankedMethod;
+import com.crotaplague.Ballots.SeatAllocator;
+import com.crotaplague.config.SimulationSettings;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,6 +28,48 @@ public final class PartySweepParallel {
 
     private PartySweepParallel() {}
 
+    // The popular-vote target only needs a few decimal places, so with approximatePopularShares set it is
+    // estimated from a county-stratified sample instead of scoring every citizen at every sweep point.
+    private static volatile boolean approximatePopularShares = false;
+    private static final double POPULAR_MAX_STD_ERROR = StratifiedShareEstimator.DEFAULT_MAX_STD_ERROR;
+    private static final int POPULAR_MAX_SAMPLE = 100_000;
+
+    // Print each sweep point's Metrics report (phase times, races, ballots, STV/RCV rounds) after its result
+    private static final boolean REPORT_METRICS = true;
+
+    // List-proportional series to chart, one per seat allocator. Add entries here to compare
+    // allocators, e.g. "Sainte-Laguë" -> SeatAllocator.sainteLague() or a 5% threshold variant.
+    private static final Map<String, SeatAllocator> PROPORTIONAL_ALLOCATORS = new LinkedHashMap<>();
+    static {
+        PROPORTIONAL_ALLOCATORS.put("List Proportional", SeatAllocator.dHondt());
+    }
+
+    // Mixed-member series: FPTP county seats topped up from the list vote (D'Hondt, overhang kept)
+    private static final String MIXED_MEMBER = "MMP";
+
+    // Multi-winner approval methods over the STV blocks, charted under these names
+    private static final Map<ProportionalApproval.Method, String> APPROVAL_MULTI_WINNER = new EnumMap<>(ProportionalApproval.Method.class);
+    static {
+        APPROVAL_MULTI_WINNER.put(ProportionalApproval.Method.SPAV, "SPAV");
+        APPROVAL_MULTI_WINNER.put(ProportionalApproval.Method.PHRAGMEN, "Phragmén");
+    }
+
+    // Single-winner methods that read full rankings. They run together with RCV over the same races,
+    // so each race is ranked once for all of them.
+    private static final Map<String, ElectionMethod> RANKED_METHODS = new LinkedHashMap<>();
+    static {
+        RANKED_METHODS.put("Schulze", Condorcet.schulze());
+        RANKED_METHODS.put("Ranked Pairs", Condorcet.rankedPairs());
+        RANKED_METHODS.put("Copeland", Condorcet.copeland());
+        RANKED_METHODS.put("Borda", Positional.borda());
+        RANKED_METHODS.put("Dowdall", Positional.dowdall());
+    }
+
+    /** Applies the sweep options from the settings file; unset options keep their defaults. */
+    public static void configure(SimulationSettings settings) {
+        approximatePopularShares = settings.approximatePopularShares;
+    }
+
     public static void run() {
         ValueAssigner.init();
 
@@ -49,13 +97,19 @@ public final class PartySweepParallel {
         allSeriesNames.add("Star");
         allSeriesNames.add("RCV");
         allSeriesNames.add("Approval");
-        allSeriesNames.add("List Proportional");
+        allSeriesNames.addAll(RANKED_METHODS.keySet());
+        allSeriesNames.addAll(APPROVAL_MULTI_WINNER.values());
+        allSeriesNames.add(MIXED_MEMBER);
+        allSeriesNames.addAll(PROPORTIONAL_ALLOCATORS.keySet());
 
         System.out.println("Parallel sweep party counts: " + partyCounts.size());
 
         // Parallel over party counts
         partyCounts.parallelStream().forEach(parties -> {
             Map<String, Double> mseMap = new LinkedHashMap<>();
+            Map<String, Double> seMap = new LinkedHashMap<>();
+            SimulationEvents.SweepPoint point = new SimulationEvents.SweepPoint();
+            point.begin();
             try {
                 Country country = new Country();
                 country.setPartyCount(parties);
@@ -70,17 +124,13 @@ public final class PartySweepParallel {
                     localPopularity.init();
 
                     // Compute popular shares for MSE target
-                    Map<String, Double> popularShares = OptimizedVoteUtils.computePopularPartyShares(
-                            country.posExists,
-                            country.getCitizens(),
-                            VotingUtils.FavoriteMode.TOP_RANK,
-                            true
-                    );
+                    StratifiedShareEstimator.Estimate popularShares = popularShares(country);
 
                     // STV baseline
                     List<Representative> stvSeats = country.getChamber();
-                    double mseStv = VotingUtils.computeMSEBetweenSeatsAndPopularVote(stvSeats, popularShares);
-                    mseMap.put("STV", mseStv);
+                    VotingUtils.MseEstimate mseStv = VotingUtils.computeMSEBetweenSeatsAndPopularVote(stvSeats, popularShares);
+                    mseMap.put("STV", mseStv.mse);
+                    seMap.put("STV", mseStv.stdError);
 
                     // Other single-winner methods simulated on this country
                     // Build method map bound to the local popularity cache for this task
@@ -89,38 +139,90 @@ public final class PartySweepParallel {
                     methods.put("Strategic FPTP", VotingUtils::runFPTPStrategic);
                     methods.put("National Strategic FPTP", (cands, voters) -> localPopularity.runFPTPNationalStrategic(cands, voters));
                     methods.put("Star", VotingUtils::runStarElection);
-                    methods.put("RCV", VotingUtils::runRCVElection);
                     methods.put("Approval", VotingUtils::runApprovalElection);
 
                     for (Map.Entry<String, ElectionMethod> e : methods.entrySet()) {
                         String name = e.getKey();
                         try {
                             List<Representative> seats = country.simulate(e.getValue());
-                            double mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(seats, popularShares);
-                            mseMap.put(name, mse);
+                            VotingUtils.MseEstimate mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(seats, popularShares);
+                            mseMap.put(name, mse.mse);
+                            seMap.put(name, mse.stdError);
                         } catch (Exception methodEx) {
                             methodEx.printStackTrace();
                             mseMap.put(name, Double.NaN);
                         }
                     }
 
-                    // Proportional list method
+                    // RCV and the ranked methods over shared ballots
+                    Map<String, ElectionMethod> ranked = new LinkedHashMap<>();
+                    ranked.put("RCV", (RankedMethod) VotingUtils::runRCVElection);
+                    ranked.putAll(RANKED_METHODS);
                     try {
-                        List<Representative> proportional = country.simulateProportional();
-                        double mseProp = VotingUtils.computeMSEBetweenSeatsAndPopularVote(proportional, popularShares);
-                        mseMap.put("List Proportional", mseProp);
-                    } catch (Exception propEx) {
-                        propEx.printStackTrace();
-                        mseMap.put("List Proportional", Double.NaN);
+                        for (Map.Entry<String, List<Representative>> e : country.simulate(ranked).entrySet()) {
+                            VotingUtils.MseEstimate mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(e.getValue(), popularShares);
+                            mseMap.put(e.getKey(), mse.mse);
+                            seMap.put(e.getKey(), mse.stdError);
+                        }
+                    } catch (Exception rankedEx) {
+                        rankedEx.printStackTrace();
+                        for (String name : ranked.keySet()) mseMap.put(name, Double.NaN);
+                    }
+
+                    // SPAV / Phragmén over the STV blocks, sharing each block's approval ballots
+                    try {
+                        Map<ProportionalApproval.Method, List<Representative>> multi =
+                                country.simulateProportionalApproval(APPROVAL_MULTI_WINNER.keySet());
+                        for (Map.Entry<ProportionalApproval.Method, List<Representative>> e : multi.entrySet()) {
+                            VotingUtils.MseEstimate mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(e.getValue(), popularShares);
+                            mseMap.put(APPROVAL_MULTI_WINNER.get(e.getKey()), mse.mse);
+                            seMap.put(APPROVAL_MULTI_WINNER.get(e.getKey()), mse.stdError);
+                        }
+                    } catch (Exception multiEx) {
+                        multiEx.printStackTrace();
+                        for (String name : APPROVAL_MULTI_WINNER.values()) mseMap.put(name, Double.NaN);
+                    }
+
+                    // Proportional list methods
+                    for (Map.Entry<String, SeatAllocator> pa : PROPORTIONAL_ALLOCATORS.entrySet()) {
+                        try {
+                            List<Representative> proportional = country.simulateProportional(pa.getValue());
+                            VotingUtils.MseEstimate mseProp = VotingUtils.computeMSEBetweenSeatsAndPopularVote(proportional, popularShares);
+                            mseMap.put(pa.getKey(), mseProp.mse);
+                            seMap.put(pa.getKey(), mseProp.stdError);
+                        } catch (Exception propEx) {
+                            propEx.printStackTrace();
+                            mseMap.put(pa.getKey(), Double.NaN);
+                        }
+                    }
+
+                    try {
+                        List<Representative> mixed = country.simulateMixedMember((FirstChoiceMethod) VotingUtils::runFPTP).all();
+                        VotingUtils.MseEstimate mseMixed = VotingUtils.computeMSEBetweenSeatsAndPopularVote(mixed, popularShares);
+                        mseMap.put(MIXED_MEMBER, mseMixed.mse);
+                        seMap.put(MIXED_MEMBER, mseMixed.stdError);
+                    } catch (Exception mixedEx) {
+                        mixedEx.printStackTrace();
+                        mseMap.put(MIXED_MEMBER, Double.NaN);
                     }
                 }
 
-                System.out.printf(Locale.ROOT, "Done parties=%3d  STV=%.6f%n", parties, mseMap.getOrDefault("STV", Double.NaN));
+                System.out.printf(Locale.ROOT, "Done parties=%3d  STV=%.6f ± %.6f%n", parties,
+                        mseMap.getOrDefault("STV", Double.NaN), seMap.getOrDefault("STV", Double.NaN));
+                if (REPORT_METRICS) System.out.print(country.getMetrics().report());
+                point.citizens = country.getCitizens().size();
             } catch (Throwable t) {
                 t.printStackTrace();
+                point.failed = true;
                 // Ensure all series have a placeholder value on failure
                 for (String s : allSeriesNames) mseMap.put(s, Double.NaN);
             }
+            point.end();
+            if (point.shouldCommit()) {
+                point.sweep = "parties";
+                point.value = parties;
+                point.commit();
+            }
 
             results.put(parties, mseMap);
         });
@@ -144,6 +246,20 @@ public final class PartySweepParallel {
         MyLineChartDisplay.show("MSE vs Number of Parties (2 → " + MAX_PARTIES + ")");
     }
 
+    /** Popular-vote target for one country: sampled with error bounds, or fully counted. */
+    private static StratifiedShareEstimator.Estimate popularShares(Country country) {
+        if (approximatePopularShares) {
+            return new StratifiedShareEstimator(POPULAR_MAX_STD_ERROR, StratifiedShareEstimator.DEFAULT_CONFIDENCE, POPULAR_MAX_SAMPLE)
+                    .estimate(country, country.posExists, VotingUtils.FavoriteMode.TOP_RANK, true);
+        }
+        return StratifiedShareEstimator.Estimate.exact(OptimizedVoteUtils.computePopularPartyShares(
+                country.posExists,
+                country.getCitizens(),
+                VotingUtils.FavoriteMode.TOP_RANK,
+                true
+        ));
+    }
+
     private static int computeStep(int parties) {
         if (parties < 10) return 1;     // 2,3,...,9
         if (parties < 50) return 2;     // 10,12,...,48,50
@@ -162,11 +278,13 @@ public final class PartySweepParallel {
     public static void runByChamberSize() {
         ValueAssigner.init();
 
-        // Determine minimum chamber size from a probe Country (state count is fixed per Country)
+        // Determine minimum chamber size from a probe Country (state count is fixed per Country).
+        // The probe is then reused for every size: only the county apportionment changes.
         int minChamber;
+        Country shared = null;
         try {
-            Country probe = new Country();
-            minChamber = probe.getStateCount();
+            shared = new Country();
+            minChamber = shared.getStateCount();
         } catch (Throwable t) {
             // Fallback to a sane default if construction fails
             minChamber = 75;
@@ -186,7 +304,10 @@ public final class PartySweepParallel {
         allSeriesNames.add("Star");
         allSeriesNames.add("RCV");
         allSeriesNames.add("Approval");
-        allSeriesNames.add("List Proportional");
+        allSeriesNames.addAll(RANKED_METHODS.keySet());
+        allSeriesNames.addAll(APPROVAL_MULTI_WINNER.values());
+        allSeriesNames.add(MIXED_MEMBER);
+        allSeriesNames.addAll(PROPORTIONAL_ALLOCATORS.keySet());
 
         System.out.println("Chamber sweep (sequential) sizes: " + chamberSizes.size());
 
@@ -196,8 +317,15 @@ public final class PartySweepParallel {
         // Use sequential iteration to limit peak memory usage
         for (int chamberSize : chamberSizes) {
             Map<String, Double> mseMap = new LinkedHashMap<>();
+            Map<String, Double> seMap = new LinkedHashMap<>();
+            SimulationEvents.SweepPoint point = new SimulationEvents.SweepPoint();
+            point.begin();
             try {
-                Country country = new Country();
+                if (shared == null) shared = new Country();
+                Country country = shared;
+                // one report per chamber size
+                country.getMetrics().reset();
+                // re-apportions counties incrementally instead of rebuilding the country
                 country.setChamberSize(chamberSize);
 
                 synchronized (PartySweepParallel.class) {
@@ -207,53 +335,101 @@ public final class PartySweepParallel {
                     NationalPopularityCache localPopularity = new NationalPopularityCache();
                     localPopularity.init();
 
-                    Map<String, Double> popularShares = OptimizedVoteUtils.computePopularPartyShares(
-                            country.posExists,
-                            country.getCitizens(),
-                            VotingUtils.FavoriteMode.TOP_RANK,
-                            true
-                    );
+                    StratifiedShareEstimator.Estimate popularShares = popularShares(country);
 
                     // STV baseline (already in country)
                     List<Representative> stvSeats = country.getChamber();
-                    double mseStv = VotingUtils.computeMSEBetweenSeatsAndPopularVote(stvSeats, popularShares);
-                    mseMap.put("STV", mseStv);
+                    VotingUtils.MseEstimate mseStv = VotingUtils.computeMSEBetweenSeatsAndPopularVote(stvSeats, popularShares);
+                    mseMap.put("STV", mseStv.mse);
+                    seMap.put("STV", mseStv.stdError);
 
                     Map<String, ElectionMethod> methods = new LinkedHashMap<>();
                     methods.put("FPTP", VotingUtils::runFPTP);
                     methods.put("Strategic FPTP", VotingUtils::runFPTPStrategic);
                     methods.put("National Strategic FPTP", (cands, voters) -> localPopularity.runFPTPNationalStrategic(cands, voters));
                     methods.put("Star", VotingUtils::runStarElection);
-                    methods.put("RCV", VotingUtils::runRCVElection);
                     methods.put("Approval", VotingUtils::runApprovalElection);
 
                     for (Map.Entry<String, ElectionMethod> e : methods.entrySet()) {
                         String name = e.getKey();
                         try {
                             List<Representative> seats = country.simulate(e.getValue());
-                            double mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(seats, popularShares);
-                            mseMap.put(name, mse);
+                            VotingUtils.MseEstimate mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(seats, popularShares);
+                            mseMap.put(name, mse.mse);
+                            seMap.put(name, mse.stdError);
                         } catch (Exception methodEx) {
                             methodEx.printStackTrace();
                             mseMap.put(name, Double.NaN);
                         }
                     }
 
+                    // RCV and the ranked methods over shared ballots
+                    Map<String, ElectionMethod> ranked = new LinkedHashMap<>();
+                    ranked.put("RCV", (RankedMethod) VotingUtils::runRCVElection);
+                    ranked.putAll(RANKED_METHODS);
+                    try {
+                        for (Map.Entry<String, List<Representative>> e : country.simulate(ranked).entrySet()) {
+                            VotingUtils.MseEstimate mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(e.getValue(), popularShares);
+                            mseMap.put(e.getKey(), mse.mse);
+                            seMap.put(e.getKey(), mse.stdError);
+                        }
+                    } catch (Exception rankedEx) {
+                        rankedEx.printStackTrace();
+                        for (String name : ranked.keySet()) mseMap.put(name, Double.NaN);
+                    }
+
+                    // SPAV / Phragmén over the STV blocks, sharing each block's approval ballots
+                    try {
+                        Map<ProportionalApproval.Method, List<Representative>> multi =
+                                country.simulateProportionalApproval(APPROVAL_MULTI_WINNER.keySet());
+                        for (Map.Entry<ProportionalApproval.Method, List<Representative>> e : multi.entrySet()) {
+                            VotingUtils.MseEstimate mse = VotingUtils.computeMSEBetweenSeatsAndPopularVote(e.getValue(), popularShares);
+                            mseMap.put(APPROVAL_MULTI_WINNER.get(e.getKey()), mse.mse);
+                            seMap.put(APPROVAL_MULTI_WINNER.get(e.getKey()), mse.stdError);
+                        }
+                    } catch (Exception multiEx) {
+                        multiEx.printStackTrace();
+                        for (String name : APPROVAL_MULTI_WINNER.values()) mseMap.put(name, Double.NaN);
+                    }
+
+                    for (Map.Entry<String, SeatAllocator> pa : PROPORTIONAL_ALLOCATORS.entrySet()) {
+                        try {
+                            List<Representative> proportional = country.simulateProportional(pa.getValue());
+                            VotingUtils.MseEstimate mseProp = VotingUtils.computeMSEBetweenSeatsAndPopularVote(proportional, popularShares);
+                            mseMap.put(pa.getKey(), mseProp.mse);
+                            seMap.put(pa.getKey(), mseProp.stdError);
+                        } catch (Exception propEx) {
+                            propEx.printStackTrace();
+                            mseMap.put(pa.getKey(), Double.NaN);
+                        }
+                    }
+
                     try {
-                        List<Representative> proportional = country.simulateProportional();
-                        double mseProp = VotingUtils.computeMSEBetweenSeatsAndPopularVote(proportional, popularShares);
-                        mseMap.put("List Proportional", mseProp);
-                    } catch (Exception propEx) {
-                        propEx.printStackTrace();
-                        mseMap.put("List Proportional", Double.NaN);
+                        List<Representative> mixed = country.simulateMixedMember((FirstChoiceMethod) VotingUtils::runFPTP).all();
+                        VotingUtils.MseEstimate mseMixed = VotingUtils.computeMSEBetweenSeatsAndPopularVote(mixed, popularShares);
+                        mseMap.put(MIXED_MEMBER, mseMixed.mse);
+                        seMap.put(MIXED_MEMBER, mseMixed.stdError);
+                    } catch (Exception mixedEx) {
+                        mixedEx.printStackTrace();
+                        mseMap.put(MIXED_MEMBER, Double.NaN);
                     }
                 }
 
-                System.out.printf(Locale.ROOT, "Done chamber=%4d  STV=%.6f%n", chamberSize, mseMap.getOrDefault("STV", Double.NaN));
+                System.out.printf(Locale.ROOT, "Done chamber=%4d  STV=%.6f ± %.6f%n", chamberSize,
+                        mseMap.getOrDefault("STV", Double.NaN), seMap.getOrDefault("STV", Double.NaN));
+                if (REPORT_METRICS) System.out.print(country.getMetrics().report());
+                point.citizens = country.getCitizens().size();
             } catch (Throwable t) {
                 t.printStackTrace();
+                point.failed = true;
                 for (String s : allSeriesNames) mseMap.put(s, Double.NaN);
             }
+            point.end();
+            if (point.shouldCommit()) {
+                point.sweep = "chamber";
+                point.value = chamberSize;
+                point.commit();
+            }
 
             // Push points to chart incrementally
             double x = chamberSize;
@@ -95,7 +95,7 @@ public final class ProfileFactory {
         return profiles;
     }
 
-    private static ValueProfile buildProfileFromValues(List<Value> values, Map<String, Integer> indexMap, int issueCount) {
+    public static ValueProfile buildProfileFromValues(List<Value> values, Map<String, Integer> indexMap, int issueCount) {
         ValueProfile p = new ValueProfile(issueCount);
         if (values == null || values.isEmpty()) return p;
 
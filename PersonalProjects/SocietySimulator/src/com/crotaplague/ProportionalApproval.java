@@ -0,0 +1,176 @@
+package com.crotaplague;
+
+import java.util.*;
+
+/**
+ * Multi-winner approval methods for VotingBlocks: sequential proportional approval voting (SPAV) and
+ * sequential Phragmén, on the approval bitsets of VotingUtils.approvalBitsets.
+ *
+ * Both elect one candidate per round and keep a running sum per candidate (SPAV: approving voters'
+ * weights 1 / (1 + winners they approve); Phragmén: approving voters' loads). A round only changes the
+ * voters who approve the winner, so those voters are found through a candidate -> voters index, their
+ * weight / load is updated, and the change is pushed into the sums of the candidates they approve.
+ * Nothing is re-tallied from scratch. Ties go to the lower candidate index.
+ */
+public final class ProportionalApproval {
+
+    public enum Method { SPAV, PHRAGMEN }
+
+    private ProportionalApproval() {}
+
+    /**
+     * Runs the method per block, one seat per county, with candidates from the pool who live in the
+     * block (as RandomScripts.runStv does).
+     */
+    public static List<Representative> runBlocks(List<VotingBlock> blocks, List<Representative> candidatePool, Method method) {
+        return runBlocks(blocks, candidatePool, EnumSet.of(method)).get(method);
+    }
+
+    /** Several methods over the same blocks; each block's approval ballots are built once. */
+    public static Map<Method, List<Representative>> runBlocks(List<VotingBlock> blocks, List<Representative> candidatePool,
+                                                          Set<Method> methods) {
+        Map<Method, List<Representative>> winners = new EnumMap<>(Method.class);
+        for (Method m : methods) winners.put(m, new ArrayList<>());
+
+        for (VotingBlock block : blocks) {
+            int seats = block.getCounties().size();
+            if (seats <= 0) continue;
+
+            Set<County> blockCounties = new HashSet<>(block.getCounties());
+            List<Representative> blockCandidates = new ArrayList<>();
+            for (Representative r : candidatePool) {
+                if (r.getCounty() != null && blockCounties.contains(r.getCounty())) blockCandidates.add(r);
+            }
+            if (blockCandidates.isEmpty()) continue;
+            if (blockCandidates.size() <= seats) {
+                for (List<Representative> w : winners.values()) w.addAll(blockCandidates);
+                continue;
+            }
+
+            List<Citizen> voters = block.getAllCitizens();
+            if (voters.isEmpty()) continue;
+            long[][] approvals = VotingUtils.approvalBitsets(blockCandidates, voters);
+            for (Method m : methods) {
+                for (int c : elect(approvals, blockCandidates.size(), seats, m)) winners.get(m).add(blockCandidates.get(c));
+            }
+        }
+        return winners;
+    }
+
+    public static List<Representative> elect(List<Representative> candidates, List<Citizen> voters, int seats, Method method) {
+        if (candidates == null || candidates.isEmpty() || voters == null || voters.isEmpty()) return List.of();
+        int[] won = elect(VotingUtils.approvalBitsets(candidates, voters), candidates.size(), seats, method);
+        List<Representative> out = new ArrayList<>(won.length);
+        for (int c : won) out.add(candidates.get(c));
+        return out;
+    }
+
+    /** Winners (candidate indices, in order of election) for approvals[v] bitsets over nCands candidates. */
+    public static int[] elect(long[][] approvals, int nCands, int seats, Method method) {
+        return method == Method.SPAV ? spav(approvals, nCands, seats) : phragmen(approvals, nCands, seats);
+    }
+
+    public static int[] spav(long[][] approvals, int nCands, int seats) {
+        final int rounds = Math.min(seats, nCands);
+        final int[][] supporters = supporters(approvals, nCands);
+        final boolean[] elected = new boolean[nCands];
+        final int[] approvedWinners = new int[approvals.length];
+        final double[] score = new double[nCands];
+        for (int c = 0; c < nCands; c++) score[c] = supporters[c].length;
+
+        int[] won = new int[rounds];
+        for (int round = 0; round < rounds; round++) {
+            int best = -1;
+            for (int c = 0; c < nCands; c++) {
+                if (!elected[c] && (best < 0 || score[c] > score[best])) best = c;
+            }
+            won[round] = best;
+            elected[best] = true;
+
+            // weight 1 / (1 + k) drops to 1 / (2 + k) for every voter approving the winner
+            for (int v : supporters[best]) {
+                int k = approvedWinners[v]++;
+                double delta = 1.0 / (2 + k) - 1.0 / (1 + k);
+                addToApproved(approvals[v], elected, score, delta);
+            }
+        }
+        return won;
+    }
+
+    public static int[] phragmen(long[][] approvals, int nCands, int seats) {
+        final int rounds = Math.min(seats, nCands);
+        final int[][] supporters = supporters(approvals, nCands);
+        final boolean[] elected = new boolean[nCands];
+        final double[] load = new double[approvals.length];
+        // sum of current loads over each candidate's supporters
+        final double[] loadSum = new double[nCands];
+
+        int[] won = new int[rounds];
+        for (int round = 0; round < rounds; round++) {
+            // electing c spreads one unit over its supporters, leveling them at (1 + loadSum) / supporters
+            int best = -1;
+            double bestLoad = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < nCands; c++) {
+                if (elected[c]) continue;
+                int n = supporters[c].length;
+                double t = n == 0 ? Double.POSITIVE_INFINITY : (1.0 + loadSum[c]) / n;
+                if (best < 0 || t < bestLoad) {
+                    best = c;
+                    bestLoad = t;
+                }
+            }
+            won[round] = best;
+            elected[best] = true;
+            if (bestLoad == Double.POSITIVE_INFINITY) continue; // nobody approves any remaining candidate
+
+            for (int v : supporters[best]) {
+                double delta = bestLoad - load[v];
+                load[v] = bestLoad;
+                addToApproved(approvals[v], elected, loadSum, delta);
+            }
+        }
+        return won;
+    }
+
+    // sums[c] += delta for every not-yet-elected candidate c in the ballot
+    private static void addToApproved(long[] ballot, boolean[] elected, double[] sums, double delta) {
+        for (int w = 0; w < ballot.length; w++) {
+            long bits = ballot[w];
+            while (bits != 0) {
+                int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (c < sums.length && !elected[c]) sums[c] += delta;
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    // candidate -> indices of the voters approving it
+    private static int[][] supporters(long[][] approvals, int nCands) {
+        int[] count = new int[nCands];
+        for (long[] ballot : approvals) {
+            for (int w = 0; w < ballot.length; w++) {
+                long bits = ballot[w];
+                while (bits != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (c < nCands) count[c]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+        int[][] out = new int[nCands][];
+        for (int c = 0; c < nCands; c++) out[c] = new int[count[c]];
+        int[] fill = new int[nCands];
+        for (int v = 0; v < approvals.length; v++) {
+            long[] ballot = approvals[v];
+            for (int w = 0; w < ballot.length; w++) {
+                long bits = ballot[w];
+                while (bits != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (c < nCands) out[c][fill[c]++] = v;
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return out;
+    }
+}
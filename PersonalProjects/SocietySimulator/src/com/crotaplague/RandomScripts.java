@@ -445,40 +445,54 @@ public class RandomScripts {
         approx = (int)Math.ceil(approx * Math.max(1.0, multiplier));
 
         List<Representative> representatives = new ArrayList<>(approx);
-        // Track chosen citizens to avoid duplicates across blocks
-        Set<Citizen> usedCitizens = new HashSet<>(approx * 2);
-
-        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        final int minAge = d.getMinimumAge();
 
+        // Every distinct county gets a fixed offset into one index space, so a bitset over that
+        // space tracks chosen citizens across blocks (even if a county shows up in two blocks)
+        Map<County, Integer> countyOffset = new IdentityHashMap<>();
+        int space = 0;
         for (VotingBlock block : blocks) {
-            // Gather citizens for this block, pre-sizing to avoid resizes
-            int cap = 0;
-            for (County county : block.getCounties()) cap += county.getCitizens().size();
-            List<Citizen> blockCitizens = new ArrayList<>(cap);
             for (County county : block.getCounties()) {
-                blockCitizens.addAll(county.getCitizens());
+                if (countyOffset.putIfAbsent(county, space) == null) space += county.getCitizens().size();
             }
+        }
+        BitSet usedCitizens = new BitSet(space);
+
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
 
-            // Shuffle in-place using ThreadLocalRandom for speed
-            for (int i = blockCitizens.size() - 1; i > 0; i--) {
-                int j = tlr.nextInt(i + 1);
-                Collections.swap(blockCitizens, i, j);
+        for (VotingBlock block : blocks) {
+            // Index the block's citizens as the concatenation of its counties, without copying them
+            List<County> counties = block.getCounties();
+            final int k = counties.size();
+            int[] start = new int[k + 1];
+            int[] offset = new int[k];
+            for (int i = 0; i < k; i++) {
+                County county = counties.get(i);
+                start[i + 1] = start[i] + county.getCitizens().size();
+                offset[i] = countyOffset.get(county);
             }
+            final int n = start[k];
 
-            int seats = Math.max(1, block.getCounties().size());
+            int seats = Math.max(1, k);
             int desired = Math.max(seats, (int) Math.ceil(seats * multiplier));
 
+            // Lazy Fisher-Yates: only swapped positions are stored, so drawing the first m of a
+            // random permutation costs O(m) instead of copying and shuffling the whole block
+            Map<Integer, Integer> swapped = new HashMap<>();
             int added = 0;
-            for (int idx = 0, n = blockCitizens.size(); idx < n && added < desired; idx++) {
-                Citizen c = blockCitizens.get(idx);
-                if (!usedCitizens.add(c)) continue;
-
-                int age = c.getAge();
-                if (d == Desire.CHAMBERLAIN) {
-                    if (age < 35) continue;
-                } else {
-                    if (age < 18) continue;
-                }
+            for (int i = 0; i < n && added < desired; i++) {
+                int j = i + tlr.nextInt(n - i);
+                int pick = swapped.getOrDefault(j, j);
+                if (j != i) swapped.put(j, swapped.getOrDefault(i, i));
+
+                int ci = countyContaining(start, pick);
+                int local = pick - start[ci];
+                int global = offset[ci] + local;
+                if (usedCitizens.get(global)) continue;
+                usedCitizens.set(global);
+
+                Citizen c = counties.get(ci).getCitizens().get(local);
+                if (c.getAge() < minAge) continue;
                 representatives.add(new Representative(c, d));
                 added++;
             }
@@ -487,6 +501,17 @@ public class RandomScripts {
         return representatives;
     }
 
+    /** Index of the county whose range [start[i], start[i+1]) holds pos; empty counties are skipped. */
+    private static int countyContaining(int[] start, int pos) {
+        int lo = 0, hi = start.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (start[mid] <= pos) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
     /**
      * Run STV per block using the provided candidate pool.
      *
@@ -521,6 +546,8 @@ public class RandomScripts {
             List<Citizen> voters = block.getAllCitizens();
             int totalVoters = voters.size();
             if (totalVoters == 0) continue;
+            SimulationEvents.ElectionRun run = new SimulationEvents.ElectionRun();
+            run.begin();
 
             // Index candidates for array-based operations
             int nCands = blockCandidates.size();
@@ -562,8 +589,12 @@ public class RandomScripts {
             final double TOL = 1e-9;
             final int MAX_ITER = 1000;
             boolean stabilized = false;
+            int iterations = 0;
 
             for (int iter = 0; iter < MAX_ITER && !stabilized; iter++) {
+                iterations++;
+                SimulationEvents.StvIteration pass = new SimulationEvents.StvIteration();
+                pass.begin();
                 double[] totals = new double[nCands];
 
                 // Tally with fractional transfers
@@ -604,6 +635,17 @@ public class RandomScripts {
                         keep[i] = newKeep;
                     }
                 }
+                pass.end();
+                if (pass.shouldCommit()) {
+                    int elected = 0;
+                    for (boolean b : electedFlag) if (b) elected++;
+                    pass.iteration = iterations;
+                    pass.ballots = ballots.size();
+                    pass.candidates = nCands;
+                    pass.seats = seats;
+                    pass.elected = elected;
+                    pass.commit();
+                }
 
                 if (!anyChange) {
                     int electedCount = 0, activeCount = 0;
@@ -645,6 +687,11 @@ public class RandomScripts {
                 }
             }
 
+            Metrics metrics = Metrics.of(voters);
+            metrics.add("ballots.scored", totalVoters);
+            metrics.add("candidates.ranked", (long) nCands * totalVoters);
+            metrics.record("stv.iterations", iterations);
+
             // If not enough elected, fill by highest remaining totals using final pass
             int electedCount = 0;
             for (boolean b : electedFlag) if (b) electedCount++;
@@ -676,135 +723,26 @@ public class RandomScripts {
 
             // Collect winners in original candidate object order
             for (int i = 0; i < nCands; i++) if (electedFlag[i]) allWinners.add(blockCandidates.get(i));
+            run.end();
+            if (run.shouldCommit()) {
+                run.method = "STV";
+                run.voters = totalVoters;
+                run.candidates = nCands;
+                run.seats = seats;
+                run.commit();
+            }
         }
 
         return allWinners;
     }
 
 
+    /**
+     * Hamilton (largest remainder) with a one-seat floor per state. Kept for callers that want a
+     * one-shot apportionment; Apportioner offers the divisor methods and incremental updates.
+     */
     public static Map<State, Integer> apportionByHamilton(List<State> states, int totalSeats) {
-        Map<State, Integer> allocation = new LinkedHashMap<>();
-        if (states == null || states.isEmpty() || totalSeats <= 0) return allocation;
-
-        final int n = states.size();
-
-        // If totalSeats < n, assign 1 to the first totalSeats states, 0 to the rest (deterministic)
-        if (totalSeats < n) {
-            for (int i = 0; i < n; i++) allocation.put(states.get(i), i < totalSeats ? 1 : 0);
-            return allocation;
-        }
-
-        // Baseline: give 1 to each state (no-zero baseline)
-        for (int i = 0; i < n; i++) allocation.put(states.get(i), 1);
-        int seatsLeft = totalSeats - n;
-
-        // Totals and populations
-        long totalPopulation = 0L;
-        int[] pop = new int[n];
-        for (int i = 0; i < n; i++) {
-            int p = states.get(i).getCitizens().size();
-            pop[i] = p;
-            totalPopulation += p;
-        }
-
-        if (totalPopulation <= 0L) {
-            // fallback: distribute evenly in round-robin
-            int i = 0;
-            while (seatsLeft-- > 0) {
-                State s = states.get(i++ % n);
-                allocation.put(s, allocation.get(s) + 1);
-            }
-            return allocation;
-        }
-
-        // Compute exact quotas for the remaining seats using a common factor
-        double factor = seatsLeft / (double) totalPopulation;
-        int[] floors = new int[n];
-        double[] rema = new double[n];
-
-        int assigned = 0;
-        for (int i = 0; i < n; i++) {
-            double exact = pop[i] * factor;
-            int fl = (int) Math.floor(exact);
-            floors[i] = fl;
-            rema[i] = exact - fl;
-            assigned += fl;
-        }
-
-        // Apply floors to baseline allocations
-        for (int i = 0; i < n; i++) {
-            State s = states.get(i);
-            allocation.put(s, allocation.get(s) + floors[i]);
-        }
-        int remaining = seatsLeft - assigned;
-
-        // Build index array for sorting by remainder desc, population desc, state.toString asc
-        Integer[] idx = new Integer[n];
-        for (int i = 0; i < n; i++) idx[i] = i;
-        Arrays.sort(idx, (ia, ib) -> {
-            int c1 = Double.compare(rema[ib], rema[ia]);
-            if (c1 != 0) return c1;
-            int c2 = Integer.compare(pop[ib], pop[ia]); // larger pop first
-            if (c2 != 0) return c2;
-            // deterministic fallback
-            String sa = states.get(ia).toString();
-            String sb = states.get(ib).toString();
-            return sa.compareTo(sb); // ascending
-        });
-
-        // Distribute remaining seats following the sorted order
-        for (int i = 0; i < remaining; i++) {
-            int si = idx[i % n];
-            State s = states.get(si);
-            allocation.put(s, allocation.get(s) + 1);
-        }
-
-        // Final sanity: ensure exact total equals totalSeats (rare)
-        int sum = 0;
-        for (int i = 0; i < n; i++) sum += allocation.get(states.get(i));
-        if (sum != totalSeats) {
-            int diff = totalSeats - sum;
-            if (diff > 0) {
-                // add to largest populations
-                Integer[] byPop = new Integer[n];
-                for (int i = 0; i < n; i++) byPop[i] = i;
-                Arrays.sort(byPop, (a, b) -> Integer.compare(pop[b], pop[a]));
-                int i = 0;
-                while (diff-- > 0) {
-                    State s = states.get(byPop[i++ % n]);
-                    allocation.put(s, allocation.get(s) + 1);
-                }
-            } else if (diff < 0) {
-                // remove extras from smallest populations where possible (keeping >= 1)
-                diff = -diff;
-                Integer[] byPopAsc = new Integer[n];
-                for (int i = 0; i < n; i++) byPopAsc[i] = i;
-                Arrays.sort(byPopAsc, Comparator.comparingInt(a -> pop[a]));
-                int i = 0;
-                while (diff-- > 0) {
-                    State s = states.get(byPopAsc[i % n]);
-                    Integer cur = allocation.get(s);
-                    if (cur != null && cur > 1) {
-                        allocation.put(s, cur - 1);
-                    } else {
-                        boolean found = false;
-                        for (int j = 0; j < n; j++) {
-                            State cand = states.get(byPopAsc[j]);
-                            int cv = allocation.get(cand);
-                            if (cv > 1) {
-                                allocation.put(cand, cv - 1);
-                                found = true;
-                                break;
-                            }
-                        }
-                        if (!found) break;
-                    }
-                    i++;
-                }
-            }
-        }
-
-        return allocation;
+        return new Apportioner(Apportioner.Method.HAMILTON).update(states, totalSeats);
     }
 
     public static double randomMultiplier() {
@@ -817,112 +755,14 @@ public class RandomScripts {
     }
 
 
+    /**
+     * Best party for the citizen among the given parties (earlier parties win ties). Builds a
+     * one-off PartyMatcher; callers matching many citizens against the same parties should keep
+     * one (see Country.getPartyMatcher).
+     */
     public static Party search(Citizen citizen, Party[] parties) {
         if (parties == null || parties.length == 0) return null;
-        if (citizen == null) return parties[0];
-
-        double cBias = citizen.getBias(); // 0..100
-        List<Value> cValues = citizen.getValues() == null ? Collections.emptyList() : citizen.getValues();
-
-        // Prebuild party value maps for O(1) lookups
-        Map<Party, Map<String, Value>> partyValueMap = new HashMap<>();
-        for (Party p : parties) {
-            Map<String, Value> map = new HashMap<>();
-            if (p.getValues() != null) {
-                for (Value pv : p.getValues()) map.put(pv.getName(), pv);
-            }
-            partyValueMap.put(p, map);
-        }
-
-        Party best = null;
-        double bestScore = Double.NEGATIVE_INFINITY;
-
-        // weights: tune these if desired
-        final double BIAS_WEIGHT = 0.60;   // how important overall bias is
-        final double VALUE_WEIGHT = 0.40;  // how important values are (scaled by bias proximity)
-
-        for (Party p : parties) {
-            double pBias = p.getBias();
-            double normBiasDist = Math.abs(cBias - pBias) / 100.0;    // 0..1
-            double biasSimilarity = 1.0 - normBiasDist;              // 1.0 = identical bias, 0 = opposite extremes
-
-            // --- compute value alignment score ---
-            Map<String, Value> pMap = partyValueMap.get(p);
-
-            double sumWeightedSimilarity = 0.0;
-            double sumMaxWeight = 0.0;
-            double penalty = 0.0;
-            double bestSingleAlignment = 0.0;
-
-            for (Value cv : cValues) {
-                double cvPolar = cv.getPolarization() / 10.0; // 0..1
-                sumMaxWeight += cvPolar; // each citizen value could at most contribute cvPolar
-
-                Value pv = pMap.get(cv.getName());
-                if (pv != null) {
-                    // opinion similarity 0..1 (1 = identical opinion)
-                    double opinionSim = (10.0 - Math.abs(cv.getOpinion() - pv.getOpinion())) / 10.0;
-                    // weight by average polarization (0..1)
-                    double weight = (cv.getPolarization() + pv.getPolarization()) / 20.0;
-                    double contrib = opinionSim * weight; // 0..1 * 0..1 => 0..1-ish
-                    sumWeightedSimilarity += contrib;
-                    bestSingleAlignment = Math.max(bestSingleAlignment, contrib);
-                } else {
-                    // party doesn't have that value: penalize proportional to how much citizen cares
-                    // small penalty so missing single issues doesn't doom matching
-                    penalty += cvPolar * 0.15;
-                }
-            }
-
-            // Normalize values score to roughly -inf..1, then clamp to [0,1]
-            double rawValuesScore = 0.0;
-            if (sumMaxWeight > 0) rawValuesScore = (sumWeightedSimilarity - penalty) / sumMaxWeight;
-            // clamp to [0,1]
-            rawValuesScore = Math.max(0.0, Math.min(1.0, rawValuesScore));
-
-            // Values matter more when party bias is close to citizen's bias:
-            // Use a multiplier that is near 1 when normBiasDist is small, and drops when parties are distant.
-            double valuesMultiplier = 1.0 - (normBiasDist * normBiasDist); // close biases => nearly 1, distant => small
-            double weightedValuesPart = rawValuesScore * valuesMultiplier;
-
-            // Final scored combination
-            double score = (BIAS_WEIGHT * biasSimilarity) + (VALUE_WEIGHT * weightedValuesPart);
-
-            // --- Eligibility / realism checks ---
-            // Disallow extreme mismatch unless strong single-issue alignment exists:
-            // Conditions to be considered "joinable":
-            boolean basicBiasOk = biasSimilarity >= 0.20; // within ±20 bias points = reasonably close
-            boolean strongValuePull = bestSingleAlignment >= 0.75 && biasSimilarity >= 0.10; // strong single issue + somewhat close
-            boolean tolerantIfModerate = rawValuesScore >= 0.65 && biasSimilarity >= 0.15; // well-aligned values + mild bias proximity
-
-            boolean joinable = basicBiasOk || strongValuePull || tolerantIfModerate;
-
-            // If not joinable, give a heavy penalty to the score (so it won't win unless all parties are unjoinable)
-            if (!joinable) score -= 1.0; // tune penalty magnitude as desired
-
-            // Track best
-            if (score > bestScore) {
-                bestScore = score;
-                best = p;
-            }
-        }
-
-        // Fallback: if best was extremely penalized (all unjoinable), return the nearest-by-bias party instead
-        if (best != null && bestScore < -0.5) {
-            System.out.println("Well, this did run at least once");
-            Party nearest = parties[0];
-            double nearestDist = Math.abs(cBias - nearest.getBias());
-            for (Party p : parties) {
-                double d = Math.abs(cBias - p.getBias());
-                if (d < nearestDist) {
-                    nearestDist = d;
-                    nearest = p;
-                }
-            }
-            return nearest;
-        }
-
-        return best;
+        return new PartyMatcher(parties).match(citizen);
     }
 
     /**
@@ -0,0 +1,276 @@
+package com.crotaplague;
+
+import com.crotaplague.Ballots.PairwiseMatrix;
+
+import java.util.*;
+
+/**
+ * Full preference rankings of a set of voters over a set of candidates, as candidate indices.
+ *
+ * Scores are the same as VotingUtils.rankCandidatesForVoter (bias similarity, party / personal value
+ * alignment, single-issue boost), but computed from interned issue arrays: voter values are read once
+ * into a sparse list, each party's alignment is scored once per voter and shared by its candidates,
+ * and the ranking is a sort of packed long keys. Ties go to the lower candidate index instead of random
+ * jitter, so a ranking is reproducible. Rankings are stored voter-major in one short[] (candidate
+ * indices up to 65535), built in parallel over voter chunks.
+ */
+public final class RankedBallots {
+
+    private static final double BIAS_WEIGHT = 0.60;
+    private static final double VALUES_WEIGHT = 0.40;
+    private static final double PARTY_VS_PERSONAL = 0.70;
+    private static final int MAX_CANDIDATES = 1 << 16;
+    private static final int CHUNK = 2048;
+
+    private final List<Representative> candidates;
+    private final int voterCount;
+    private final int n;
+    private final short[] ranks;
+    // registry of the voters' country, for the methods counting over these ballots
+    private final Metrics metrics;
+    // folded on first use and shared by every Condorcet method run over these ballots
+    private volatile PairwiseMatrix pairwise;
+
+    private RankedBallots(List<Representative> candidates, int voterCount, short[] ranks, Metrics metrics) {
+        this.candidates = candidates;
+        this.voterCount = voterCount;
+        this.n = candidates.size();
+        this.ranks = ranks;
+        this.metrics = metrics;
+    }
+
+    public static RankedBallots rank(List<Representative> candidates, List<Citizen> voters) {
+        final List<Representative> cands = List.copyOf(candidates);
+        final int n = cands.size();
+        if (n > MAX_CANDIDATES) throw new IllegalArgumentException("too many candidates for ranked ballots: " + n);
+        final int nVoters = voters.size();
+        final short[] ranks = new short[nVoters * n];
+        final Metrics metrics = Metrics.of(voters);
+        if (n == 0 || nVoters == 0) return new RankedBallots(cands, nVoters, ranks, metrics);
+        metrics.add("candidates.ranked", (long) n * nVoters);
+
+        final Field field = new Field(cands);
+        final int shift = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        final long indexMask = (1L << shift) - 1;
+
+        final int chunks = (nVoters + CHUNK - 1) / CHUNK;
+        SimulationExecutor.get().forEachChunk(chunks, chunk -> {
+            // per-chunk scratch
+            VoterProfile profile = new VoterProfile(field);
+            double[] partyAlign = new double[field.parties.length];
+            double[] partyBest = new double[field.parties.length];
+            long[] keys = new long[n];
+
+            int end = Math.min(nVoters, (chunk + 1) * CHUNK);
+            for (int v = chunk * CHUNK; v < end; v++) {
+                profile.load(voters.get(v));
+                for (int p = 0; p < field.parties.length; p++) {
+                    partyAlign[p] = profile.alignment(field.parties[p]);
+                    partyBest[p] = profile.bestSingleIssue(field.parties[p]);
+                }
+                for (int c = 0; c < n; c++) {
+                    int p = field.partyOf[c];
+                    double score = profile.score(c, p < 0 ? 0.0 : partyAlign[p], p < 0 ? 0.0 : partyBest[p]);
+                    keys[c] = (ascending(-score) & ~indexMask) | c;
+                }
+                Arrays.sort(keys);
+                int base = v * n;
+                for (int k = 0; k < n; k++) ranks[base + k] = (short) (keys[k] & indexMask);
+            }
+        });
+        return new RankedBallots(cands, nVoters, ranks, metrics);
+    }
+
+    /** Candidate side of the score: bias, personal profile and party slot per candidate, one profile per party. */
+    static final class Field {
+        final List<Representative> candidates;
+        final Map<String, Integer> issueIndex;
+        final int issues;
+        final double[] bias;
+        final ValueProfile[] personal;
+        final int[] partyOf;
+        final ValueProfile[] parties;
+
+        Field(List<Representative> candidates) {
+            this.candidates = candidates;
+            this.issueIndex = ValueAssigner.getIssueIndexMap();
+            this.issues = ValueAssigner.getIssueCount();
+            final int n = candidates.size();
+            bias = new double[n];
+            personal = new ValueProfile[n];
+            partyOf = new int[n];
+            final Map<Party, Integer> partySlot = new IdentityHashMap<>();
+            final List<ValueProfile> partyProfiles = new ArrayList<>();
+            for (int c = 0; c < n; c++) {
+                Representative rep = candidates.get(c);
+                bias[c] = rep.getBias();
+                personal[c] = ProfileFactory.buildProfileFromValues(
+                        rep.getCitizen() == null ? Collections.emptyList() : rep.getCitizen().getValues(), issueIndex, issues);
+                Party p = rep.getParty();
+                if (p == null) {
+                    partyOf[c] = -1;
+                    continue;
+                }
+                partyOf[c] = partySlot.computeIfAbsent(p, k -> {
+                    partyProfiles.add(ProfileFactory.buildProfileFromValues(k.getValues(), issueIndex, issues));
+                    return partyProfiles.size() - 1;
+                });
+            }
+            parties = partyProfiles.toArray(new ValueProfile[0]);
+        }
+    }
+
+    /** One voter's held issues as a sparse list, reloaded per voter; not thread-safe. */
+    static final class VoterProfile {
+        final Field field;
+        private final double[] denseImp;
+        private final double[] denseOp;
+        private final boolean[] seen;
+        private final int[] touched;
+        private final int[] idx;
+        private final double[] imp;
+        private final double[] op;
+        private int held;
+        double bias;
+
+        VoterProfile(Field field) {
+            this.field = field;
+            int issues = field.issues;
+            denseImp = new double[issues];
+            denseOp = new double[issues];
+            seen = new boolean[issues];
+            touched = new int[issues];
+            idx = new int[issues];
+            imp = new double[issues];
+            op = new double[issues];
+        }
+
+        // a repeated issue keeps its last value, as in buildProfileFromValues
+        void load(Citizen voter) {
+            bias = voter.getBias();
+            int t = 0;
+            List<Value> values = voter.getValues();
+            if (values != null) {
+                for (Value val : values) {
+                    if (val == null) continue;
+                    Integer i = field.issueIndex.get(val.getName().toLowerCase());
+                    if (i == null) continue;
+                    if (!seen[i]) {
+                        seen[i] = true;
+                        touched[t++] = i;
+                    }
+                    denseImp[i] = val.getPolarization() / 10.0;
+                    denseOp[i] = val.getOpinion();
+                }
+            }
+            held = 0;
+            for (int k = 0; k < t; k++) {
+                int i = touched[k];
+                if (denseImp[i] > 0.0) {
+                    idx[held] = i;
+                    imp[held] = denseImp[i];
+                    op[held] = denseOp[i];
+                    held++;
+                }
+                seen[i] = false;
+            }
+        }
+
+        // AlignmentUtils.computeAlignmentScoreNoCache over the voter's held issues only
+        double alignment(ValueProfile other) {
+            double sum = 0.0, weight = 0.0;
+            for (int k = 0; k < held; k++) {
+                int i = idx[k];
+                if (other.importance[i] <= 0.0) continue;
+                double sim = 1.0 - Math.abs(op[k] - other.opinion[i]) / 20.0;
+                if (sim < 0.0) sim = 0.0;
+                sum += sim * imp[k];
+                weight += imp[k];
+            }
+            return weight == 0.0 ? 0.0 : sum / weight;
+        }
+
+        double bestSingleIssue(ValueProfile other) {
+            double best = 0.0;
+            for (int k = 0; k < held; k++) {
+                int i = idx[k];
+                if (other.importance[i] == 0) continue;
+                double sim = 1.0 - Math.abs(op[k] - other.opinion[i]) / 20.0;
+                if (sim < 0) sim = 0;
+                best = Math.max(best, sim * imp[k]);
+            }
+            return best;
+        }
+
+        /** Score of candidate c given the voter's alignment with c's party (0 for no party). */
+        double score(int c, double partyAlign, double partyBest) {
+            double dist = Math.abs(bias - field.bias[c]) / 100.0;
+            double biasSim = clamp01(1.0 - dist);
+            double combined = clamp01(partyAlign * PARTY_VS_PERSONAL
+                    + alignment(field.personal[c]) * (1.0 - PARTY_VS_PERSONAL));
+            double boost = (partyBest >= 0.75 && biasSim >= 0.10) ? 0.15 * partyBest : 0.0;
+            return BIAS_WEIGHT * biasSim + VALUES_WEIGHT * combined * (1.0 - dist * dist) + boost;
+        }
+
+        /**
+         * Largest score a candidate at this bias can reach when its combined value alignment is at most
+         * combinedCap and its party's best single issue at most bestCap. This is the same expression as
+         * score() with each factor at its cap, so it is never below score(), bit for bit. Where the
+         * distance multiplier is negative the values term is largest at zero alignment.
+         */
+        double upperBound(double candidateBias, double combinedCap, double bestCap) {
+            double dist = Math.abs(bias - candidateBias) / 100.0;
+            double biasSim = clamp01(1.0 - dist);
+            double multiplier = 1.0 - dist * dist;
+            double boost = (bestCap >= 0.75 && biasSim >= 0.10) ? 0.15 * bestCap : 0.0;
+            return BIAS_WEIGHT * biasSim + (multiplier > 0.0 ? VALUES_WEIGHT * combinedCap * multiplier : 0.0) + boost;
+        }
+
+        /** Cap on score()'s combined alignment for a candidate whose party alignment is partyAlign. */
+        static double combinedCap(double partyAlign) {
+            return clamp01(partyAlign * PARTY_VS_PERSONAL + 1.0 * (1.0 - PARTY_VS_PERSONAL));
+        }
+    }
+
+    // signed-long encoding with the same order as the doubles
+    private static long ascending(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+    }
+
+    private static double clamp01(double v) {
+        if (v <= 0.0) return 0.0;
+        if (v >= 1.0) return 1.0;
+        return v;
+    }
+
+    public List<Representative> getCandidates() { return candidates; }
+    public int candidateCount() { return n; }
+    public int voterCount() { return voterCount; }
+    public Metrics metrics() { return metrics; }
+
+    /** Pairwise preference counts of these ballots, folded once (a racing first call may fold twice). */
+    public PairwiseMatrix pairwise() {
+        PairwiseMatrix m = pairwise;
+        if (m == null) pairwise = m = PairwiseMatrix.of(this);
+        return m;
+    }
+
+    /** Candidate index at the given position (0 = favourite) of the voter's ranking. */
+    public int at(int voter, int position) {
+        return ranks[voter * n + position] & 0xFFFF;
+    }
+
+    /** Copies the voter's ranking into out (length >= candidateCount) and returns its length. */
+    public int ranking(int voter, int[] out) {
+        int base = voter * n;
+        for (int k = 0; k < n; k++) out[k] = ranks[base + k] & 0xFFFF;
+        return n;
+    }
+
+    public int[] ranking(int voter) {
+        int[] out = new int[n];
+        ranking(voter, out);
+        return out;
+    }
+}
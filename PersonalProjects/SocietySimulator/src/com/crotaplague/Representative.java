@@ -1,16 +1,15 @@
 package com.crotaplague;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class Representative extends Citizen {
     private Party party;
     private Citizen c;
     private boolean hasPriorityBill;
-    public boolean isUnsure = false;
     public String name;
 
     /***
@@ -53,104 +52,63 @@ public class Representative extends Citizen {
     public void usePriorityBill(){this.hasPriorityBill = false;}
 
     public boolean supportsBill(BillProposal p) {
+        return supportsBill(p, ThreadLocalRandom.current());
+    }
+
+    /** Same decision, drawing from the given random source (RollCall passes one stream per rep and bill). */
+    public boolean supportsBill(BillProposal p, RandomGenerator rng) {
         if (p == null || p.getValue() == null) return false;
         Value behind = p.getValue();
         if (behind.getName() == null) return false;
 
         String target = behind.getName().toLowerCase();
+        return supportsBill(p, findValue(this.values, target), party == null ? null : findValue(party.getValues(), target), Double.NaN, rng);
+    }
 
-        Party proposerParty = null;
-        try {
-            proposerParty = p.getProposer();
-        } catch (Throwable ignored) {
-            proposerParty = null;
-        }
-
-        for (Value v : this.values) {
-            if (v == null) continue;
-            if (v.getName().equalsIgnoreCase(target)) {
-                return decideSupportByValue(v, behind, false, proposerParty);
-            }
-        }
-
-        if (this.party != null && this.party.getValues() != null) {
-            for (Value pv : this.party.getValues()) {
-                if (pv == null) continue;
-                if (pv.getName().equalsIgnoreCase(target)) {
-                    return decideSupportByValue(pv, behind, true, proposerParty);
-                }
-            }
-        }
-
-        int opinion = behind.getOpinion();
-        double extremity = Math.abs(opinion) / 10.0;
-
-        double baseChance = 0.30 * (1.0 - extremity) + 0.08;
-
-        if (proposerParty != null && this.party != null && proposerParty.equals(this.party)) {
-            double boost = (1.0 - extremity) * 0.55 + 0.15;
-            baseChance = Math.min(1.0, baseChance + boost);
-        } else {
-            isUnsure = true;
-            boolean b = discussWithParty(p);
-            if (b) {
-                isUnsure = false;
-                return true;
-            }
-            baseChance *= 0.65;
-        }
-
-        if (proposerParty != null) {
-            int proposerBias = proposerParty.getBias();
-            double diffBias = Math.abs(proposerBias - this.politicalBias);
-            double biasSimilarity = 1.0 - Math.min(1.0, diffBias / 20.0);
-            double biasEffect = (biasSimilarity * 0.20) - 0.05;
-            baseChance = Math.min(1.0, Math.max(0.0, baseChance + biasEffect));
-        }
-
-        isUnsure = false;
-        return ThreadLocalRandom.current().nextDouble() < baseChance;
+    /**
+     * Decision with the rep's own value and the party's value for the bill's issue already resolved
+     * (either may be null) and the caucus stance for the bill (NaN = work it out here if needed).
+     */
+    boolean supportsBill(BillProposal p, Value own, Value partyValue, double caucusAgree, RandomGenerator rng) {
+        return rng.nextDouble() < supportProbability(p, own, partyValue, caucusAgree);
     }
 
     public boolean evaluateSupportWithoutDiscussion(BillProposal p) {
+        return evaluateSupportWithoutDiscussion(p, ThreadLocalRandom.current());
+    }
+
+    public boolean evaluateSupportWithoutDiscussion(BillProposal p, RandomGenerator rng) {
         if (p == null || p.getValue() == null) return false;
         Value behind = p.getValue();
         if (behind.getName() == null) return false;
 
         String target = behind.getName().toLowerCase();
+        return rng.nextDouble() < supportProbability(p, findValue(this.values, target), party == null ? null : findValue(party.getValues(), target), 0.0);
+    }
 
-        Party proposerParty = null;
-        try {
-            proposerParty = p.getProposer();
-        } catch (Throwable ignored) {
-            proposerParty = null;
-        }
-
-        for (Value v : this.values) {
-            if (v == null) continue;
-            if (v.getName().equalsIgnoreCase(target)) {
-                return decideSupportByValue(v, behind,false, proposerParty);
-            }
-        }
+    /**
+     * Chance this rep votes yes. The own value wins over the party's; with neither, a rep outside the
+     * proposer's party is unsure and first talks to its caucus, which wins it over with probability
+     * caucusAgree (see CaucusStance). caucusAgree = 0 is the no-discussion chance.
+     */
+    double supportProbability(BillProposal p, Value own, Value partyValue, double caucusAgree) {
+        Value behind = p.getValue();
+        Party proposerParty = p.getProposer();
 
-        if (this.party != null && this.party.getValues() != null) {
-            for (Value pv : this.party.getValues()) {
-                if (pv == null) continue;
-                if (pv.getName().equalsIgnoreCase(target)) {
-                    return decideSupportByValue(pv, behind,true, proposerParty);
-                }
-            }
-        }
+        if (own != null) return supportProbabilityByValue(own, behind, false, proposerParty);
+        if (partyValue != null) return supportProbabilityByValue(partyValue, behind, true, proposerParty);
 
         int opinion = behind.getOpinion();
         double extremity = Math.abs(opinion) / 10.0;
 
         double baseChance = 0.30 * (1.0 - extremity) + 0.08;
 
+        boolean unsure = false;
         if (proposerParty != null && this.party != null && proposerParty.equals(this.party)) {
             double boost = (1.0 - extremity) * 0.55 + 0.15;
             baseChance = Math.min(1.0, baseChance + boost);
         } else {
+            unsure = true;
             baseChance *= 0.65;
         }
 
@@ -162,17 +120,32 @@ public class Representative extends Citizen {
             baseChance = Math.min(1.0, Math.max(0.0, baseChance + biasEffect));
         }
 
-        return ThreadLocalRandom.current().nextDouble() < baseChance;
+        if (unsure) {
+            if (Double.isNaN(caucusAgree)) caucusAgree = CaucusStance.agreeProbability(party, p);
+            // convinced by the caucus, or else the usual (reduced) chance
+            baseChance = caucusAgree + (1.0 - caucusAgree) * baseChance;
+        }
+        return baseChance;
     }
 
-    private boolean decideSupportByValue(Value repOrPartyValue, Value proposalValue, boolean isPartyFallback, Party proposerParty) {
+    // First value whose name matches (target is lower case), or null
+    private static Value findValue(List<Value> values, String target) {
+        if (values == null) return null;
+        for (Value v : values) {
+            if (v == null) continue;
+            if (v.getName().equalsIgnoreCase(target)) return v;
+        }
+        return null;
+    }
+
+    private double supportProbabilityByValue(Value repOrPartyValue, Value proposalValue, boolean isPartyFallback, Party proposerParty) {
         int repOpinion = repOrPartyValue.getOpinion();
         int propOpinion = proposalValue.getOpinion();
         int diff = Math.abs(repOpinion - propOpinion);
         int pol = repOrPartyValue.getPolarization();
         if (pol < 0) pol = 5;
 
-        if (diff == 0) return true;
+        if (diff == 0) return 1.0;
 
         double repNorm = repOpinion / 10.0;
         double propNorm = propOpinion / 10.0;
@@ -214,36 +187,16 @@ public class Representative extends Citizen {
 
         prob = Math.max(0.002, Math.min(0.99, prob));
 
-        return ThreadLocalRandom.current().nextDouble() < prob;
+        return prob;
     }
 
     public boolean discussWithParty(BillProposal p) {
-        int count = 0;
-        if (party == null || party.options == null || party.options.isEmpty()) return false;
-
-        List<Representative> order = new ArrayList<>(party.options);
-        Collections.shuffle(order);
-
-        int maxToTalk = (int) Math.ceil(0.90 * party.options.size());
-        int toTalkTo = randomBetween(1, Math.max(1, maxToTalk));
-
-        int available = 0;
-        for (Representative r : order) {
-            if (!r.isUnsure) available++;
-        }
-        if (available == 0) return false;
-
-        toTalkTo = Math.min(toTalkTo, available);
-
-        for (Representative r : order) {
-            if (r.isUnsure) continue;
-            boolean stance = r.evaluateSupportWithoutDiscussion(p);
-            if (stance) count += 2;
-            else count -= 1;
-            if (--toTalkTo <= 0) break;
-        }
+        return discussWithParty(p, ThreadLocalRandom.current());
+    }
 
-        return count > 0;
+    /** Whether talking to the caucus wins this rep over (one draw from the party's stance on the bill). */
+    public boolean discussWithParty(BillProposal p, RandomGenerator rng) {
+        return rng.nextDouble() < CaucusStance.agreeProbability(party, p);
     }
 
 }
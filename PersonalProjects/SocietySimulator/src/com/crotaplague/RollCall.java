@@ -0,0 +1,133 @@
+package com.crotaplague;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * One roll call of a whole agenda: every representative votes on every bill.
+ *
+ * The chamber is split into blocks of representatives and each block votes the full agenda in a
+ * single parallel pass, so an agenda costs one fork/join round trip instead of one per bill.
+ * Every (rep, bill) pair draws from its own SplittableRandom seeded from (seed, rep, bill), so a
+ * roll call is reproducible for a given seed no matter how the blocks are scheduled. Issue lookups
+ * and each party's caucus stance (CaucusStance) are resolved once per rep / party rather than per vote.
+ *
+ * Results: per-bill yes/no counts and per-rep vote vectors (bit b of rep r = r voted yes on bill b).
+ */
+public final class RollCall {
+
+    private static final int REP_BLOCK = 32;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final List<Representative> chamber;
+    private final List<BillProposal> agenda;
+    private final int[] yes;
+    private final int[] no;
+    // rep-major bit matrix: words per rep = ceil(bills / 64)
+    private final long[] votes;
+    private final int words;
+
+    private RollCall(List<Representative> chamber, List<BillProposal> agenda, int[] yes, int[] no, long[] votes, int words) {
+        this.chamber = chamber;
+        this.agenda = agenda;
+        this.yes = yes;
+        this.no = no;
+        this.votes = votes;
+        this.words = words;
+    }
+
+    /** Votes every bill of the agenda (in agenda order) with every member of the chamber. */
+    public static RollCall vote(List<Representative> chamber, List<BillProposal> agenda, long seed) {
+        final List<Representative> reps = List.copyOf(chamber);
+        final List<BillProposal> bills = List.copyOf(agenda);
+        final int nReps = reps.size();
+        final int nBills = bills.size();
+        final int words = (nBills + 63) >>> 6;
+        final long[] votes = new long[nReps * words];
+
+        // bill issue names, lower-cased once
+        final String[] target = new String[nBills];
+        for (int b = 0; b < nBills; b++) {
+            Value v = bills.get(b).getValue();
+            target[b] = (v == null || v.getName() == null) ? null : v.getName().toLowerCase();
+        }
+
+        // party value and caucus stance per bill, resolved once per party
+        final Map<Party, Value[]> partyValues = new IdentityHashMap<>();
+        for (Representative r : reps) {
+            Party p = r.getParty();
+            if (p != null && !partyValues.containsKey(p)) partyValues.put(p, resolve(p.getValues(), target));
+        }
+        final Map<Party, double[]> caucus = new IdentityHashMap<>();
+        partyValues.keySet().parallelStream()
+                .map(p -> Map.entry(p, CaucusStance.agreeProbabilities(p, bills)))
+                .toList()
+                .forEach(e -> caucus.put(e.getKey(), e.getValue()));
+        final double[] noCaucus = new double[nBills];
+
+        final int blocks = (nReps + REP_BLOCK - 1) / REP_BLOCK;
+        final int[] yes = IntStream.range(0, blocks).parallel()
+                .mapToObj(blk -> {
+                    int[] localYes = new int[nBills];
+                    int end = Math.min(nReps, (blk + 1) * REP_BLOCK);
+                    for (int r = blk * REP_BLOCK; r < end; r++) {
+                        Representative rep = reps.get(r);
+                        Value[] own = resolve(rep.values, target);
+                        Value[] fromParty = rep.getParty() == null ? null : partyValues.get(rep.getParty());
+                        double[] stance = rep.getParty() == null ? noCaucus : caucus.get(rep.getParty());
+                        int base = r * words;
+                        for (int b = 0; b < nBills; b++) {
+                            if (target[b] == null) continue;
+                            SplittableRandom rng = new SplittableRandom(seed + GOLDEN * ((long) r * nBills + b + 1));
+                            boolean aye = rep.supportsBill(bills.get(b), own[b], fromParty == null ? null : fromParty[b], stance[b], rng);
+                            if (aye) {
+                                votes[base + (b >>> 6)] |= 1L << b;
+                                localYes[b]++;
+                            }
+                        }
+                    }
+                    return localYes;
+                })
+                .reduce(new int[nBills], (a, c) -> {
+                    int[] out = a.clone();
+                    for (int b = 0; b < nBills; b++) out[b] += c[b];
+                    return out;
+                });
+
+        final int[] no = new int[nBills];
+        for (int b = 0; b < nBills; b++) no[b] = nReps - yes[b];
+        return new RollCall(reps, bills, yes, no, votes, words);
+    }
+
+    /** First value per bill whose name matches the bill's issue, or null. */
+    static Value[] resolve(List<Value> values, String[] target) {
+        Value[] out = new Value[target.length];
+        if (values == null || values.isEmpty()) return out;
+        Map<String, Value> byName = new HashMap<>(values.size() * 2);
+        for (Value v : values) {
+            if (v == null || v.getName() == null) continue;
+            byName.putIfAbsent(v.getName().toLowerCase(), v);
+        }
+        for (int b = 0; b < target.length; b++) {
+            if (target[b] != null) out[b] = byName.get(target[b]);
+        }
+        return out;
+    }
+
+    public List<Representative> getChamber() { return chamber; }
+    public List<BillProposal> getAgenda() { return agenda; }
+    public int billCount() { return agenda.size(); }
+    public int repCount() { return chamber.size(); }
+
+    public int getYes(int bill) { return yes[bill]; }
+    public int getNo(int bill) { return no[bill]; }
+
+    public boolean votedYes(int rep, int bill) {
+        return (votes[rep * words + (bill >>> 6)] & (1L << bill)) != 0;
+    }
+
+    /** Bills (by agenda index) the rep voted yes on. */
+    public BitSet voteVector(int rep) {
+        return BitSet.valueOf(Arrays.copyOfRange(votes, rep * words, (rep + 1) * words));
+    }
+}
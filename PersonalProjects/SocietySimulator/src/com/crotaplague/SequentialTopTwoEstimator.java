@@ -0,0 +1,252 @@
+package com.crotaplague;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sequential, stratified estimate of which parties are nationally first, second and third.
+ *
+ * Citizens are drawn straight out of each state's citizen list by random index (no copy,
+ * no shuffle), proportionally to state population. The sample grows in doubling batches
+ * and stops as soon as both gaps (1st vs 2nd, 2nd vs 3rd) are significant at the configured
+ * confidence, or when the sample cap is hit. Lopsided races stop after the first batch or two;
+ * close races keep drawing up to the cap.
+ *
+ * Repeated looks are Bonferroni-corrected (alpha split across both gaps and every possible
+ * look) so early stopping does not inflate the error rate.
+ */
+public final class SequentialTopTwoEstimator {
+
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+
+    private static final int MIN_BATCH = 256;
+    private static final int MIN_PER_STRATUM = 8;
+    // preference noise, same magnitude as VotingUtils.getTruePreferredParty
+    private static final double JITTER = 0.01;
+
+    /** One party's estimated national share with its confidence interval. */
+    public static final class PartyShare {
+        public final Party party;
+        public final double share;
+        public final double lower;
+        public final double upper;
+
+        PartyShare(Party party, double share, double lower, double upper) {
+            this.party = party;
+            this.share = share;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %.4f [%.4f, %.4f]", party.getName(), share, lower, upper);
+        }
+    }
+
+    /** Result of one estimation run: parties ranked by estimated share, best first. */
+    public static final class Estimate {
+        public final List<PartyShare> ranking;
+        public final int sampled;
+        public final boolean converged;
+        public final double confidence;
+
+        Estimate(List<PartyShare> ranking, int sampled, boolean converged, double confidence) {
+            this.ranking = ranking;
+            this.sampled = sampled;
+            this.converged = converged;
+            this.confidence = confidence;
+        }
+
+        public Party top() { return ranking.isEmpty() ? null : ranking.get(0).party; }
+        public Party second() { return ranking.size() < 2 ? null : ranking.get(1).party; }
+    }
+
+    private final double confidence;
+    private final int maxSample;
+
+    /**
+     * @param confidence two-sided confidence for the ranking gaps and reported bounds (0.5..0.9999)
+     * @param maxSample  hard cap on citizens scored
+     */
+    public SequentialTopTwoEstimator(double confidence, int maxSample) {
+        if (!(confidence > 0.5 && confidence < 1.0)) throw new IllegalArgumentException("confidence must be in (0.5, 1)");
+        this.confidence = confidence;
+        this.maxSample = Math.max(1, maxSample);
+    }
+
+    public Estimate estimate(Country country, Collection<Party> parties) {
+        if (country == null || parties == null || parties.isEmpty()) return new Estimate(List.of(), 0, false, confidence);
+
+        // ---------------- strata ----------------
+        List<List<Citizen>> strata = new ArrayList<>();
+        for (State s : country.getStates()) {
+            List<Citizen> cs = s.getCitizens();
+            if (cs != null && !cs.isEmpty()) strata.add(cs);
+        }
+        if (strata.isEmpty()) {
+            List<Citizen> all = country.getCitizens();
+            if (all == null || all.isEmpty()) return new Estimate(List.of(), 0, false, confidence);
+            strata.add(all);
+        }
+        final int nStrata = strata.size();
+        long population = 0L;
+        for (List<Citizen> cs : strata) population += cs.size();
+        final double[] weight = new double[nStrata];
+        for (int s = 0; s < nStrata; s++) weight[s] = strata.get(s).size() / (double) population;
+
+        // ---------------- party profiles, built once ----------------
+        final Party[] partyArr = parties.stream().filter(Objects::nonNull).distinct().toArray(Party[]::new);
+        final int nParties = partyArr.length;
+        if (nParties == 0) return new Estimate(List.of(), 0, false, confidence);
+        final Map<String, Integer> issueIndex = ValueAssigner.getIssueIndexMap();
+        final int issueCount = ValueAssigner.getIssueCount();
+        final ValueProfile[] partyProfiles = new ValueProfile[nParties];
+        for (int k = 0; k < nParties; k++) {
+            partyProfiles[k] = ProfileFactory.buildProfileFromValues(partyArr[k].getValues(), issueIndex, issueCount);
+        }
+
+        // ---------------- sequential sampling ----------------
+        final int cap = (int) Math.min(maxSample, population);
+        final int[][] counts = new int[nStrata][nParties];
+        final int[] drawn = new int[nStrata];
+        int total = 0;
+
+        int batch = Math.min(cap, Math.max(MIN_BATCH, MIN_PER_STRATUM * nStrata));
+        int maxLooks = 1;
+        for (int b = batch, t = batch; t < cap; b *= 2, t += b) maxLooks++;
+        // two comparisons per look
+        final double zGap = inverseNormalCdf(1.0 - (1.0 - confidence) / (2.0 * 2.0 * maxLooks));
+        final double zBound = inverseNormalCdf(1.0 - (1.0 - confidence) / 2.0);
+
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        double[] shares = new double[nParties];
+        double[] variances = new double[nParties];
+        Integer[] order = new Integer[nParties];
+        boolean converged = false;
+
+        while (total < cap) {
+            int thisBatch = Math.min(batch, cap - total);
+            for (int s = 0; s < nStrata; s++) {
+                List<Citizen> cs = strata.get(s);
+                // proportional allocation with randomized rounding keeps the design unbiased
+                double exact = thisBatch * weight[s];
+                int take = (int) exact;
+                if (tlr.nextDouble() < exact - take) take++;
+                if (drawn[s] == 0) take = Math.max(take, Math.min(2, cs.size()));
+                int[] row = counts[s];
+                for (int i = 0; i < take; i++) {
+                    Citizen c = cs.get(tlr.nextInt(cs.size()));
+                    int pref = preferredParty(c, partyProfiles, issueIndex, issueCount, tlr);
+                    if (pref >= 0) row[pref]++;
+                }
+                drawn[s] += take;
+                total += take;
+            }
+            batch *= 2;
+
+            computeShares(counts, drawn, weight, shares, variances);
+            for (int k = 0; k < nParties; k++) order[k] = k;
+            Arrays.sort(order, (a, b) -> Double.compare(shares[b], shares[a]));
+
+            boolean gap12 = nParties < 2 || gapSignificant(counts, drawn, weight, order[0], order[1], zGap);
+            boolean gap23 = nParties < 3 || gapSignificant(counts, drawn, weight, order[1], order[2], zGap);
+            if (gap12 && gap23) {
+                converged = true;
+                break;
+            }
+        }
+
+        List<PartyShare> ranking = new ArrayList<>(nParties);
+        for (int k = 0; k < nParties; k++) {
+            int p = order[k];
+            double se = Math.sqrt(variances[p]);
+            ranking.add(new PartyShare(partyArr[p], shares[p],
+                    Math.max(0.0, shares[p] - zBound * se), Math.min(1.0, shares[p] + zBound * se)));
+        }
+        return new Estimate(Collections.unmodifiableList(ranking), total, converged, confidence);
+    }
+
+    // -------------------- helpers --------------------
+
+    private static int preferredParty(Citizen c, ValueProfile[] partyProfiles,
+                                      Map<String, Integer> issueIndex, int issueCount,
+                                      ThreadLocalRandom tlr) {
+        if (c == null) return -1;
+        ValueProfile voter = ProfileFactory.buildProfileFromValues(c.getValues(), issueIndex, issueCount);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < partyProfiles.length; k++) {
+            double align = AlignmentUtils.computeAlignmentScoreNoCache(voter, partyProfiles[k])
+                    + tlr.nextDouble(-JITTER, JITTER);
+            if (align > bestScore) {
+                bestScore = align;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    /** Stratified share p_k = sum_s W_s c_sk / n_s and its variance sum_s W_s^2 p_sk (1 - p_sk) / n_s. */
+    private static void computeShares(int[][] counts, int[] drawn, double[] weight, double[] shares, double[] variances) {
+        Arrays.fill(shares, 0.0);
+        Arrays.fill(variances, 0.0);
+        for (int s = 0; s < counts.length; s++) {
+            int n = drawn[s];
+            if (n == 0) continue;
+            double w = weight[s];
+            int[] row = counts[s];
+            for (int k = 0; k < row.length; k++) {
+                double p = row[k] / (double) n;
+                shares[k] += w * p;
+                variances[k] += w * w * p * (1.0 - p) / n;
+            }
+        }
+    }
+
+    /** One-sided test that party a's share exceeds party b's, using the multinomial variance of the difference. */
+    private static boolean gapSignificant(int[][] counts, int[] drawn, double[] weight, int a, int b, double z) {
+        double diff = 0.0;
+        double var = 0.0;
+        for (int s = 0; s < counts.length; s++) {
+            int n = drawn[s];
+            if (n == 0) continue;
+            double w = weight[s];
+            double pa = counts[s][a] / (double) n;
+            double pb = counts[s][b] / (double) n;
+            diff += w * (pa - pb);
+            var += w * w * (pa + pb - (pa - pb) * (pa - pb)) / n;
+        }
+        if (diff <= 0.0) return false;
+        return diff > z * Math.sqrt(var);
+    }
+
+    /** Acklam's rational approximation of the standard normal quantile (relative error < 1.2e-9). */
+    static double inverseNormalCdf(double p) {
+        if (p <= 0.0) return Double.NEGATIVE_INFINITY;
+        if (p >= 1.0) return Double.POSITIVE_INFINITY;
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double pLow = 0.02425;
+        if (p < pLow) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - pLow) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
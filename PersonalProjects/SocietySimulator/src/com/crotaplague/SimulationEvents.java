@@ -0,0 +1,111 @@
+package com.crotaplague;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder events marking simulation phases, so a recording's samples can be lined up with
+ * the election, STV round, sweep point or roll call they belong to.
+ *
+ * Emitters follow the usual pattern: begin() before the work, then fill the fields and commit() only if
+ * shouldCommit(). With recording off (or the event disabled) that is a flag check, and the event object
+ * doesn't escape, so it isn't allocated. Enable them all with the "Society Simulator" category, e.g.
+ * java -XX:StartFlightRecording:filename=run.jfr ... and jfr print --categories "Society Simulator".
+ */
+public final class SimulationEvents {
+
+    private SimulationEvents() {}
+
+    @Name("com.crotaplague.ElectionRun")
+    @Label("Election Run")
+    @Category({"Society Simulator", "Elections"})
+    @Description("One race under one election method")
+    @StackTrace(false)
+    public static final class ElectionRun extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("Voters")
+        @Description("Block size: voters casting a ballot in the race")
+        public int voters;
+
+        @Label("Candidates")
+        public int candidates;
+
+        @Label("Seats")
+        public int seats;
+    }
+
+    @Name("com.crotaplague.StvIteration")
+    @Label("STV Iteration")
+    @Category({"Society Simulator", "Elections"})
+    @Description("One tally-and-transfer pass of RandomScripts.runStv")
+    @StackTrace(false)
+    public static final class StvIteration extends Event {
+        @Label("Iteration")
+        public int iteration;
+
+        @Label("Ballots")
+        public int ballots;
+
+        @Label("Candidates")
+        public int candidates;
+
+        @Label("Seats")
+        public int seats;
+
+        @Label("Elected")
+        public int elected;
+    }
+
+    @Name("com.crotaplague.SweepPoint")
+    @Label("Sweep Point")
+    @Category({"Society Simulator", "Sweeps"})
+    @Description("One x value of a PartySweepParallel sweep, every method included")
+    @StackTrace(false)
+    public static final class SweepPoint extends Event {
+        @Label("Sweep")
+        @Description("Swept parameter: parties or chamber")
+        public String sweep;
+
+        @Label("Value")
+        public int value;
+
+        @Label("Citizens")
+        public int citizens;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("com.crotaplague.PopulationGenerated")
+    @Label("Population Generated")
+    @Category({"Society Simulator", "Population"})
+    @Description("Citizens generated and districted into counties")
+    @StackTrace(false)
+    public static final class PopulationGenerated extends Event {
+        @Label("Citizens")
+        public int citizens;
+
+        @Label("States")
+        public int states;
+
+        @Label("Counties")
+        public int counties;
+    }
+
+    @Name("com.crotaplague.RollCall")
+    @Label("Roll Call")
+    @Category({"Society Simulator", "Legislature"})
+    @Description("A chamber voting a month's agenda in one pass")
+    @StackTrace(false)
+    public static final class RollCall extends Event {
+        @Label("Members")
+        public int members;
+
+        @Label("Bills")
+        public int bills;
+
+        @Label("Passed")
+        public int passed;
+    }
+}
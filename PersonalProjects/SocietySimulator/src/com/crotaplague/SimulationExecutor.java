@@ -0,0 +1,291 @@
+package com.crotaplague;
+
+import com.crotaplague.config.SimulationSettings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * The one pool every parallel path of the simulation runs on, sized from SimulationSettings.threads.
+ *
+ * Work is split at three granularities, coarsest first: STATE (one task per state), COUNTY (one per
+ * county) and VOTER_CHUNK (one per chunk of a race's voters). Nesting policy: a level forks only if no
+ * enclosing level already forked at least as many tasks as the pool has workers; otherwise it runs
+ * sequentially in the worker that got there, which is already busy on the coarser task. A state sweep
+ * over 50 states on 16 workers therefore counts every county and voter inline, while a single big race
+ * spreads its voter chunks over the whole pool. Parallel streams started inside a task run on this pool,
+ * so nothing falls back to the common pool or a private one.
+ *
+ * Many small races (thousands of counties) go through structured(): a virtual thread per race does the
+ * orchestration and waiting, and hands the race's CPU work to the pool through compute().
+ */
+public final class SimulationExecutor {
+
+    public enum Granularity { STATE, COUNTY, VOTER_CHUNK }
+
+    // per-voter ranges shorter than this aren't worth a fork
+    private static final int DEFAULT_MIN_PARALLEL_VOTERS = 2048;
+
+    // set while a worker runs a task of a level that saturated the pool
+    private static final ThreadLocal<Granularity> SATURATED = new ThreadLocal<>();
+
+    // first-failure slot of the structured() fan-out a thread works for; compute() carries it onto the pool
+    private static final ThreadLocal<AtomicReference<Throwable>> SCOPE = new ThreadLocal<>();
+
+    private static volatile SimulationExecutor shared =
+            new SimulationExecutor(Runtime.getRuntime().availableProcessors(), DEFAULT_MIN_PARALLEL_VOTERS);
+
+    private final ForkJoinPool pool;
+    private final int minParallelVoters;
+
+    private SimulationExecutor(int threads, int minParallelVoters) {
+        AtomicInteger ids = new AtomicInteger();
+        this.pool = new ForkJoinPool(Math.max(1, threads), p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("simulation-" + ids.incrementAndGet());
+            return t;
+        }, null, false);
+        this.minParallelVoters = Math.max(1, minParallelVoters);
+    }
+
+    public static SimulationExecutor get() { return shared; }
+
+    /** Replaces the shared executor; unset (non-positive) settings keep their defaults. */
+    public static SimulationExecutor configure(SimulationSettings settings) {
+        int threads = settings.threads > 0 ? settings.threads : Runtime.getRuntime().availableProcessors();
+        int minVoters = settings.minParallelVoters > 0 ? settings.minParallelVoters : DEFAULT_MIN_PARALLEL_VOTERS;
+        return configure(threads, minVoters);
+    }
+
+    public static synchronized SimulationExecutor configure(int threads, int minParallelVoters) {
+        SimulationExecutor old = shared;
+        shared = new SimulationExecutor(threads, minParallelVoters);
+        old.pool.shutdown(); // running tasks finish; nothing new is accepted
+        return shared;
+    }
+
+    public int parallelism() { return pool.getParallelism(); }
+
+    /** Whether a level with this many tasks forks here, under the nesting policy. */
+    public boolean forks(int tasks) {
+        return tasks > 1 && pool.getParallelism() > 1 && SATURATED.get() == null;
+    }
+
+    /** Workers to split up to maxTasks tasks over: 1 where the policy says not to fork. */
+    public int workers(int maxTasks) {
+        return forks(maxTasks) ? Math.min(pool.getParallelism(), maxTasks) : 1;
+    }
+
+    public <T> void forEach(Granularity level, Collection<T> items, Consumer<? super T> action) {
+        if (!forks(level, items.size())) {
+            for (T item : items) action.accept(item);
+            return;
+        }
+        boolean saturates = items.size() >= pool.getParallelism();
+        run(() -> items.parallelStream().forEach(item -> within(level, saturates, () -> action.accept(item))));
+    }
+
+    /** Like Stream.collect: one container per worker, merged with the combiner. */
+    public <T, R> R collect(Granularity level, Collection<T> items, Supplier<R> supplier,
+                            BiConsumer<R, ? super T> accumulator, BiConsumer<R, R> combiner) {
+        if (!forks(level, items.size())) {
+            R out = supplier.get();
+            for (T item : items) accumulator.accept(out, item);
+            return out;
+        }
+        boolean saturates = items.size() >= pool.getParallelism();
+        return call(() -> items.parallelStream().collect(supplier,
+                (r, item) -> within(level, saturates, () -> accumulator.accept(r, item)), combiner));
+    }
+
+    /** Runs action(chunk) for chunk in [0, chunks), each chunk a VOTER_CHUNK task. */
+    public void forEachChunk(int chunks, IntConsumer action) {
+        if (!forks(chunks)) {
+            for (int c = 0; c < chunks; c++) action.accept(c);
+            return;
+        }
+        boolean saturates = chunks >= pool.getParallelism();
+        run(() -> IntStream.range(0, chunks).parallel()
+                .forEach(c -> within(Granularity.VOTER_CHUNK, saturates, () -> action.accept(c))));
+    }
+
+    /** Per-chunk partials over [0, chunks), merged with the combiner (IntStream.collect semantics). */
+    public <R> R collectChunks(int chunks, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        if (!forks(chunks)) {
+            R out = supplier.get();
+            for (int c = 0; c < chunks; c++) accumulator.accept(out, c);
+            return out;
+        }
+        boolean saturates = chunks >= pool.getParallelism();
+        return call(() -> IntStream.range(0, chunks).parallel().collect(supplier,
+                (r, c) -> within(Granularity.VOTER_CHUNK, saturates, () -> accumulator.accept(r, c)), combiner));
+    }
+
+    /** Runs action(voter) for every voter index; the stream picks the chunks, short ranges stay sequential. */
+    public void forEachVoter(int voters, IntConsumer action) {
+        if (voters < minParallelVoters || !forks(voters)) {
+            for (int v = 0; v < voters; v++) action.accept(v);
+            return;
+        }
+        // the stream splits into pool-sized pieces, so the chunks alone fill the pool
+        run(() -> IntStream.range(0, voters).parallel()
+                .forEach(v -> within(Granularity.VOTER_CHUNK, true, () -> action.accept(v))));
+    }
+
+    /**
+     * Structured fan-out of task(0) .. task(tasks - 1), one virtual thread each; returns once every task has
+     * finished. The first failure is rethrown, so a caller never goes on with a partial result, and cancels
+     * the rest: tasks that haven't started are skipped, compute() refuses to start new work, and work
+     * already on the pool stops at its next checkCancelled() (pool work ignores interrupts, so running
+     * work that never checks finishes before this returns). Tasks should do their CPU work through
+     * compute(), so the virtual threads only wait and the scoring stays bounded by the pool.
+     * (StructuredTaskScope is still a preview API in Java 21.)
+     */
+    public void structured(int tasks, IntConsumer task) {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < tasks && failure.get() == null; i++) {
+                final int index = i;
+                try {
+                    scope.execute(() -> {
+                        if (failure.get() != null) return; // cancelled before it started
+                        SCOPE.set(failure);
+                        try {
+                            task.accept(index);
+                        } catch (Throwable t) {
+                            if (failure.compareAndSet(null, t)) scope.shutdownNow();
+                        } finally {
+                            SCOPE.remove();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    break; // shut down by a failed task
+                }
+            }
+        } // close() waits for every started task
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException e) throw e;
+        if (t instanceof Error e) throw e;
+        if (t != null) throw new RuntimeException(t);
+    }
+
+    /**
+     * Runs CPU-bound work on the pool (inline if already on one of its workers) and waits for it. With at
+     * least as many siblings as workers, the work counts as saturating at the given level, so its kernels
+     * run inline instead of forking. Inside structured(), work isn't started once the fan-out has failed,
+     * and checkCancelled() works on the worker running it.
+     */
+    public <R> R compute(Granularity level, int siblings, Supplier<R> work) {
+        boolean saturates = siblings >= pool.getParallelism();
+        AtomicReference<Throwable> scope = SCOPE.get();
+        if (scope == null) return call(() -> within(level, saturates, work));
+        checkCancelled();
+        return call(() -> {
+            AtomicReference<Throwable> outer = SCOPE.get();
+            SCOPE.set(scope);
+            try {
+                return within(level, saturates, work);
+            } finally {
+                SCOPE.set(outer);
+            }
+        });
+    }
+
+    /**
+     * Throws CancellationException if the structured() fan-out this work belongs to has already failed.
+     * Long tasks call it between steps (Country's races before each method) so a failure stops them early.
+     */
+    public static void checkCancelled() {
+        AtomicReference<Throwable> scope = SCOPE.get();
+        if (scope != null && scope.get() != null) throw new CancellationException("a sibling task failed");
+    }
+
+    /** Runs the tasks (in parallel where the policy allows) and returns their results in order. */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<T> out = new ArrayList<>(tasks.size());
+        if (!forks(tasks.size())) {
+            for (Callable<T> task : tasks) {
+                try {
+                    out.add(task.call());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return out;
+        }
+        boolean saturates = tasks.size() >= pool.getParallelism();
+        List<ForkJoinTask<T>> adapted = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            adapted.add(ForkJoinTask.adapt(() -> {
+                Granularity outer = SATURATED.get();
+                if (saturates) SATURATED.set(Granularity.VOTER_CHUNK);
+                try {
+                    return task.call();
+                } finally {
+                    SATURATED.set(outer);
+                }
+            }));
+        }
+        run(() -> ForkJoinTask.invokeAll(adapted));
+        for (ForkJoinTask<T> task : adapted) out.add(task.join());
+        return out;
+    }
+
+    // items of a VOTER_CHUNK level are single voters: short ranges aren't worth a fork
+    private boolean forks(Granularity level, int items) {
+        if (level == Granularity.VOTER_CHUNK && items < minParallelVoters) return false;
+        return forks(items);
+    }
+
+    private static void within(Granularity level, boolean saturates, Runnable body) {
+        within(level, saturates, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    private static <R> R within(Granularity level, boolean saturates, Supplier<R> body) {
+        if (!saturates) return body.get();
+        Granularity outer = SATURATED.get();
+        SATURATED.set(level);
+        try {
+            return body.get();
+        } finally {
+            SATURATED.set(outer);
+        }
+    }
+
+    // runs inline on one of this pool's workers, otherwise hands the work to the pool and waits
+    private void run(Runnable body) {
+        if (inPool()) body.run();
+        else pool.invoke(ForkJoinTask.adapt(body));
+    }
+
+    private <R> R call(Supplier<R> body) {
+        if (inPool()) return body.get();
+        return pool.invoke(ForkJoinTask.adapt((Callable<R>) body::get));
+    }
+
+    private boolean inPool() {
+        return Thread.currentThread() instanceof ForkJoinWorkerThread w && w.getPool() == pool;
+    }
+}
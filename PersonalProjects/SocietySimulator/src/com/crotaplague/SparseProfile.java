@@ -0,0 +1,64 @@
+package com.crotaplague;
+
+/**
+ * A citizen's ValueProfile without the zeros: the issues it cares about (importance > 0) in ascending
+ * issue order, with their importance and opinion. Built once per citizen and cached there, so tallies
+ * over the same electorate don't rebuild a dense profile per voter on every call. Voters with many
+ * issues also keep the dense profile, for the vectorized scoring path.
+ */
+final class SparseProfile {
+
+    private static final int[] NO_ISSUES = new int[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    final int[] index;
+    final double[] importance;
+    final double[] opinion;
+    // null unless index.length >= OptimizedVoteUtils.DENSE_THRESHOLD
+    final ValueProfile dense;
+
+    // what it was built from: a later issue list or added value makes it stale
+    private final int issuesVersion;
+    private final int valueCount;
+
+    private SparseProfile(int[] index, double[] importance, double[] opinion, ValueProfile dense,
+                          int issuesVersion, int valueCount) {
+        this.index = index;
+        this.importance = importance;
+        this.opinion = opinion;
+        this.dense = dense;
+        this.issuesVersion = issuesVersion;
+        this.valueCount = valueCount;
+    }
+
+    boolean isCurrent(int valueCount) {
+        return this.valueCount == valueCount && issuesVersion == ValueAssigner.issuesVersion();
+    }
+
+    static SparseProfile of(Citizen c) {
+        int version = ValueAssigner.issuesVersion();
+        int valueCount = c.getValues().size();
+        // same mapping as ProfileFactory, so scores match the dense profiles to the bit
+        ValueProfile full = ProfileFactory.buildProfileFromValues(
+                c.getValues(), ValueAssigner.issueIndex(), ValueAssigner.getIssueCount());
+        double[] imp = full.importance;
+        int count = 0;
+        for (double w : imp) if (w > 0.0) count++;
+        if (count == 0) return new SparseProfile(NO_ISSUES, NO_VALUES, NO_VALUES, null, version, valueCount);
+
+        int[] index = new int[count];
+        double[] importance = new double[count];
+        double[] opinion = new double[count];
+        int pos = 0;
+        for (int i = 0; i < imp.length; i++) {
+            if (imp[i] > 0.0) {
+                index[pos] = i;
+                importance[pos] = imp[i];
+                opinion[pos] = full.opinion[i];
+                pos++;
+            }
+        }
+        ValueProfile dense = count >= OptimizedVoteUtils.DENSE_THRESHOLD ? full : null;
+        return new SparseProfile(index, importance, opinion, dense, version, valueCount);
+    }
+}
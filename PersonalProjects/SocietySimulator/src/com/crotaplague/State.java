@@ -40,13 +40,7 @@ public class State {
 
     public void sortPickRepresentative(List<Representative> re) {
         List<Party> parties = new ArrayList<>(country.getParties());
-        parties.sort(RandomScripts.unstableComparator(true));
-        Party[] p = new Party[parties.size()];
-        for(Representative r : re){
-            Party pae = RandomScripts.search(r.getCitizen(), parties.toArray(p));
-            pae.addOption(r);
-            r.setParty(pae);
-        }
+        country.getPartyMatcher().assign(re);
 
         for(Party party : parties){
             int tracker = -1;
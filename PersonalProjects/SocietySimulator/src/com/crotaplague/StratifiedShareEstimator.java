@@ -0,0 +1,313 @@
+package com.crotaplague;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Approximate national popular-vote shares from a stratified citizen sample.
+ *
+ * Strata are counties (falling back to states, then the whole country when no finer structure
+ * exists). Citizens are drawn by random index, proportionally to stratum size, and their votes
+ * are counted with exactly the same rules as OptimizedVoteUtils.computePopularPartyShares. The
+ * sample grows in doubling batches until every party's standard error is at or below the
+ * requested maximum, or the sample cap is hit.
+ *
+ * The result keeps the per-stratum proportions so downstream statistics (the seat/vote MSE)
+ * can propagate the sampling uncertainty instead of treating the shares as exact.
+ *
+ * Variances use the unbiased within-stratum estimate (divisor n_s - 1) on add-one smoothed
+ * proportions, so a small stratum that happens to vote unanimously still contributes variance
+ * instead of reporting its proportions as exact.
+ */
+public final class StratifiedShareEstimator {
+
+    public static final double DEFAULT_MAX_STD_ERROR = 0.002;
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+
+    private static final int MIN_BATCH = 1024;
+    private static final int MIN_PER_STRATUM = 2;
+
+    /** One party's estimated share with its standard error and confidence interval. */
+    public static final class ShareInterval {
+        public final String party;
+        public final double share;
+        public final double stdError;
+        public final double lower;
+        public final double upper;
+
+        ShareInterval(String party, double share, double stdError, double lower, double upper) {
+            this.party = party;
+            this.share = share;
+            this.stdError = stdError;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %.4f ± %.4f [%.4f, %.4f]", party, share, stdError, lower, upper);
+        }
+    }
+
+    /** Estimated shares, best first, plus what is needed to propagate their variance. */
+    public static final class Estimate {
+        public final List<ShareInterval> ranking;
+        public final int sampled;
+        public final boolean converged;
+        public final double confidence;
+
+        private final Map<String, Double> shares;
+        // per stratum: normalized weight, voters that cast a vote, smoothed vote proportions by slot
+        private final String[] slotNames;
+        private final double[] weight;
+        private final long[] voted;
+        private final double[][] proportions;
+
+        Estimate(List<ShareInterval> ranking, int sampled, boolean converged, double confidence,
+                 String[] slotNames, double[] weight, long[] voted, double[][] proportions) {
+            this.ranking = ranking;
+            this.sampled = sampled;
+            this.converged = converged;
+            this.confidence = confidence;
+            this.slotNames = slotNames;
+            this.weight = weight;
+            this.voted = voted;
+            this.proportions = proportions;
+            LinkedHashMap<String, Double> m = new LinkedHashMap<>();
+            for (ShareInterval si : ranking) m.put(si.party, si.share);
+            this.shares = Collections.unmodifiableMap(m);
+        }
+
+        /** Wraps fully counted shares; every standard error is zero. */
+        public static Estimate exact(Map<String, Double> shares) {
+            List<ShareInterval> ranking = new ArrayList<>(shares.size());
+            for (Map.Entry<String, Double> e : shares.entrySet()) {
+                double v = e.getValue();
+                ranking.add(new ShareInterval(e.getKey(), v, 0.0, v, v));
+            }
+            return new Estimate(Collections.unmodifiableList(ranking), 0, true, 1.0,
+                    new String[0], new double[0], new long[0], new double[0][]);
+        }
+
+        /** Party name -> estimated share, largest first (same shape as computePopularPartyShares). */
+        public Map<String, Double> shares() { return shares; }
+
+        public double maxStdError() {
+            double m = 0.0;
+            for (ShareInterval si : ranking) m = Math.max(m, si.stdError);
+            return m;
+        }
+
+        /**
+         * Sampling variance of sum_k g_k * share_k. Within a stratum that is the variance of a
+         * per-voter mean of g(vote), so covariances between parties are included:
+         * sum_s W_s^2 / (n_s - 1) * (sum_k g_k^2 p_sk - (sum_k g_k p_sk)^2), p_sk smoothed.
+         */
+        public double varianceOfLinear(ToDoubleFunction<String> coefficient) {
+            final int slots = slotNames.length;
+            if (slots == 0) return 0.0;
+            final double[] g = new double[slots];
+            for (int k = 0; k < slots; k++) g[k] = coefficient.applyAsDouble(slotNames[k]);
+            double var = 0.0;
+            for (int s = 0; s < weight.length; s++) {
+                if (voted[s] == 0) continue;
+                double m1 = 0.0, m2 = 0.0;
+                double[] p = proportions[s];
+                for (int k = 0; k < slots; k++) {
+                    m1 += g[k] * p[k];
+                    m2 += g[k] * g[k] * p[k];
+                }
+                var += weight[s] * weight[s] * Math.max(0.0, m2 - m1 * m1) / dof(voted[s]);
+            }
+            return var;
+        }
+    }
+
+    private final double maxStdError;
+    private final double confidence;
+    private final int maxSample;
+
+    /**
+     * @param maxStdError stop once every party's standard error is at or below this
+     * @param confidence  two-sided confidence for the reported intervals (0.5..0.9999)
+     * @param maxSample   hard cap on citizens scored
+     */
+    public StratifiedShareEstimator(double maxStdError, double confidence, int maxSample) {
+        if (!(maxStdError > 0.0)) throw new IllegalArgumentException("maxStdError must be > 0");
+        if (!(confidence > 0.5 && confidence < 1.0)) throw new IllegalArgumentException("confidence must be in (0.5, 1)");
+        this.maxStdError = maxStdError;
+        this.confidence = confidence;
+        this.maxSample = Math.max(1, maxSample);
+    }
+
+    public Estimate estimate(Country country,
+                             List<Representative> candidates,
+                             VotingUtils.FavoriteMode mode,
+                             boolean parallel) {
+        final Estimate empty = new Estimate(List.of(), 0, false, confidence,
+                new String[0], new double[0], new long[0], new double[0][]);
+        if (country == null || candidates == null || candidates.isEmpty()) return empty;
+
+        // ---------------- strata ----------------
+        List<List<Citizen>> strata = new ArrayList<>();
+        for (State st : country.getStates()) {
+            for (County co : st.getCounties()) {
+                List<Citizen> cs = co.getCitizens();
+                if (cs != null && !cs.isEmpty()) strata.add(cs);
+            }
+        }
+        if (strata.isEmpty()) {
+            for (State st : country.getStates()) {
+                List<Citizen> cs = st.getCitizens();
+                if (cs != null && !cs.isEmpty()) strata.add(cs);
+            }
+        }
+        if (strata.isEmpty()) {
+            List<Citizen> all = country.getCitizens();
+            if (all == null || all.isEmpty()) return empty;
+            strata.add(all);
+        }
+        final int nStrata = strata.size();
+        long population = 0L;
+        for (List<Citizen> cs : strata) population += cs.size();
+        final double[] popWeight = new double[nStrata];
+        for (int s = 0; s < nStrata; s++) popWeight[s] = strata.get(s).size() / (double) population;
+
+        // ---------------- sequential sampling ----------------
+        final int cap = (int) Math.min(maxSample, population);
+        final Map<String, long[]> countsByParty = new LinkedHashMap<>();
+        int total = 0;
+        int batch = Math.min(cap, Math.max(MIN_BATCH, MIN_PER_STRATUM * nStrata));
+        boolean first = true;
+        boolean converged = false;
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        Snapshot snap = null;
+
+        while (total < cap) {
+            int thisBatch = Math.min(batch, cap - total);
+            List<Citizen> sample = new ArrayList<>(thisBatch + MIN_PER_STRATUM * nStrata);
+            int[] stratumOf = new int[thisBatch + MIN_PER_STRATUM * nStrata];
+            for (int s = 0; s < nStrata; s++) {
+                List<Citizen> cs = strata.get(s);
+                // proportional allocation with randomized rounding keeps the design unbiased
+                double exact = thisBatch * popWeight[s];
+                int take = (int) exact;
+                if (tlr.nextDouble() < exact - take) take++;
+                if (first) take = Math.max(take, Math.min(MIN_PER_STRATUM, cs.size()));
+                for (int i = 0; i < take; i++) {
+                    if (sample.size() == stratumOf.length) stratumOf = Arrays.copyOf(stratumOf, stratumOf.length * 2);
+                    stratumOf[sample.size()] = s;
+                    sample.add(cs.get(tlr.nextInt(cs.size())));
+                }
+            }
+            first = false;
+            batch *= 2;
+            if (sample.isEmpty()) continue;
+            total += sample.size();
+
+            OptimizedVoteUtils.VoteTally tally = OptimizedVoteUtils.tallyVotes(
+                    candidates, sample, stratumOf, nStrata, mode, parallel, false, Integer.MAX_VALUE, 0);
+            if (tally != null) {
+                for (int k = 0; k < tally.slots; k++) {
+                    long[] row = countsByParty.computeIfAbsent(tally.outputNames[k], n -> new long[nStrata]);
+                    for (int s = 0; s < nStrata; s++) row[s] += tally.counts[s * tally.slots + k];
+                }
+            }
+
+            snap = snapshot(countsByParty, popWeight);
+            if (snap != null && snap.maxStdError() <= maxStdError) {
+                converged = true;
+                break;
+            }
+        }
+        if (snap == null) return empty;
+
+        final double z = SequentialTopTwoEstimator.inverseNormalCdf(1.0 - (1.0 - confidence) / 2.0);
+        final int slots = snap.names.length;
+        Integer[] order = new Integer[slots];
+        for (int k = 0; k < slots; k++) order[k] = k;
+        final double[] shares = snap.shares;
+        Arrays.sort(order, (a, b) -> Double.compare(shares[b], shares[a]));
+        List<ShareInterval> ranking = new ArrayList<>(slots);
+        for (int k : order) {
+            if (shares[k] <= 0.0) continue;
+            double se = Math.sqrt(snap.variances[k]);
+            ranking.add(new ShareInterval(snap.names[k], shares[k], se,
+                    Math.max(0.0, shares[k] - z * se), Math.min(1.0, shares[k] + z * se)));
+        }
+        return new Estimate(Collections.unmodifiableList(ranking), total, converged, confidence,
+                snap.names, snap.weight, snap.voted, snap.proportions);
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Stratified shares at one point of the sequential loop. */
+    private static final class Snapshot {
+        final String[] names;
+        final double[] weight;
+        final long[] voted;
+        final double[][] proportions;
+        final double[] shares;
+        final double[] variances;
+
+        Snapshot(String[] names, double[] weight, long[] voted, double[][] proportions,
+                 double[] shares, double[] variances) {
+            this.names = names;
+            this.weight = weight;
+            this.voted = voted;
+            this.proportions = proportions;
+            this.shares = shares;
+            this.variances = variances;
+        }
+
+        double maxStdError() {
+            double m = 0.0;
+            for (double v : variances) m = Math.max(m, v);
+            return Math.sqrt(m);
+        }
+    }
+
+    /**
+     * Share p_k = sum_s W_s c_sk / n_s and variance sum_s W_s^2 q_sk (1 - q_sk) / (n_s - 1), where
+     * n_s counts voters in stratum s that cast a vote, W_s is renormalized over strata that have any,
+     * and q_sk = (c_sk + 1) / (n_s + K) adds one vote to each of the K slots (for two slots, the
+     * usual add-one interval), so an all-or-nothing stratum never reports zero variance.
+     */
+    private static Snapshot snapshot(Map<String, long[]> countsByParty, double[] popWeight) {
+        final int nStrata = popWeight.length;
+        final int slots = countsByParty.size();
+        if (slots == 0) return null;
+        final String[] names = countsByParty.keySet().toArray(new String[0]);
+        final long[][] counts = countsByParty.values().toArray(new long[0][]);
+
+        long[] voted = new long[nStrata];
+        for (long[] row : counts) for (int s = 0; s < nStrata; s++) voted[s] += row[s];
+        double covered = 0.0;
+        for (int s = 0; s < nStrata; s++) if (voted[s] > 0) covered += popWeight[s];
+        if (covered <= 0.0) return null;
+
+        double[] weight = new double[nStrata];
+        double[][] proportions = new double[nStrata][];
+        double[] shares = new double[slots];
+        double[] variances = new double[slots];
+        for (int s = 0; s < nStrata; s++) {
+            if (voted[s] == 0) continue;
+            double w = popWeight[s] / covered;
+            weight[s] = w;
+            double[] q = new double[slots];
+            for (int k = 0; k < slots; k++) {
+                shares[k] += w * counts[k][s] / (double) voted[s];
+                q[k] = (counts[k][s] + 1.0) / (voted[s] + slots);
+                variances[k] += w * w * q[k] * (1.0 - q[k]) / dof(voted[s]);
+            }
+            proportions[s] = q;
+        }
+        return new Snapshot(names, weight, voted, proportions, shares, variances);
+    }
+
+    // n_s - 1 for the unbiased within-stratum variance; a single voter is divided by one
+    private static long dof(long voted) {
+        return Math.max(1L, voted - 1L);
+    }
+}
@@ -12,6 +12,10 @@ public final class ValueAssigner {
     // Define issues with their weight (likelihood), salience (polarization bias), and alignment (average stance)
     private static final List<Issue> ISSUES = new ArrayList<>();
 
+    // bumped whenever ISSUES changes, so profiles cached against an older issue list get rebuilt
+    private static volatile int issuesVersion = 0;
+    private static volatile Map<String, Integer> issueIndex = null;
+
     public static void init(){
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
@@ -29,6 +33,15 @@ public final class ValueAssigner {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        issueIndex = null;
+        issuesVersion++;
+    }
+
+    /** Replaces the issue list with the one in the given file (same "name,weight,salience,alignment" lines). */
+    public static synchronized void init(String issuesFile) {
+        filename = issuesFile;
+        ISSUES.clear();
+        init();
     }
 
     public static void assignValuesToCitizen(Citizen citizen) {
@@ -91,6 +104,17 @@ public final class ValueAssigner {
         return ISSUES.size();
     }
 
+    static int issuesVersion() {
+        return issuesVersion;
+    }
+
+    /** Shared read-only copy of getIssueIndexMap(), rebuilt after init(). */
+    static Map<String, Integer> issueIndex() {
+        Map<String, Integer> map = issueIndex;
+        if (map == null) issueIndex = map = Collections.unmodifiableMap(getIssueIndexMap());
+        return map;
+    }
+
     public static Map<String, Integer> getIssueIndexMap() {
         Map<String, Integer> map = new HashMap<>();
         for (int i = 0; i < ISSUES.size(); i++) {
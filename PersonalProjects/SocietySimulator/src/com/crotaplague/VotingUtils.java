@@ -3,7 +3,10 @@ package com.crotaplague;
 import com.crotaplague.Ballots.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 public class VotingUtils {
 
@@ -213,30 +216,20 @@ public class VotingUtils {
         if (candidates == null || candidates.isEmpty()) return null;
         if (voters == null || voters.isEmpty()) return null;
 
-        final int nCands = candidates.size();
-
-        // candidate -> index for O(1) updates
-        Map<Representative, Integer> idx = new HashMap<>(nCands);
-        for (int i = 0; i < nCands; i++) idx.put(candidates.get(i), i);
-
-        // Use LongAdders for contention-free parallel counting
-        java.util.concurrent.atomic.LongAdder[] adders = new java.util.concurrent.atomic.LongAdder[nCands];
-        for (int i = 0; i < nCands; i++) adders[i] = new java.util.concurrent.atomic.LongAdder();
+        // First choices by branch-and-bound over bias-sorted candidates, counted in per-thread arrays
+        return runFPTP(candidates, FirstChoice.of(candidates).tally(voters));
+    }
 
-        // Parallel evaluation of first choices without allocating ballot objects
-        voters.parallelStream().forEach(voter -> {
-            List<Representative> ranked = VotingUtils.rankCandidatesForVoter(voter, candidates);
-            if (ranked != null && !ranked.isEmpty()) {
-                Integer i = idx.get(ranked.get(0));
-                if (i != null) adders[i].increment();
-            }
-        });
+    /** FPTP from first-choice counts by candidate index; as a FirstChoiceMethod: (FirstChoiceMethod) VotingUtils::runFPTP. */
+    public static Representative runFPTP(List<Representative> candidates, long[] firstChoices) {
+        if (candidates == null || candidates.isEmpty()) return null;
+        final int nCands = candidates.size();
 
         // Find winner
         int bestIdx = -1;
         long bestCount = Long.MIN_VALUE;
         for (int i = 0; i < nCands; i++) {
-            long c = adders[i].sum();
+            long c = firstChoices[i];
             if (c > bestCount) {
                 bestCount = c;
                 bestIdx = i;
@@ -267,24 +260,27 @@ public class VotingUtils {
         }
 
         // PARALLEL: compute ranked preferences + first choices
-        List<Result> allResults =
-                voters.parallelStream().map(voter -> {
+        Result[] results = new Result[voters.size()];
+        SimulationExecutor.get().forEachVoter(results.length, vi -> {
 
-                    List<Representative> ranked =
-                            VotingUtils.rankCandidatesForVoter(voter, candidates);
+            List<Representative> ranked =
+                    VotingUtils.rankCandidatesForVoter(voters.get(vi), candidates);
 
-                    if (ranked == null || ranked.isEmpty())
-                        return new Result(new int[0], -1);
+            if (ranked == null || ranked.isEmpty()) {
+                results[vi] = new Result(new int[0], -1);
+                return;
+            }
 
-                    int[] r = new int[ranked.size()];
-                    for (int i = 0; i < ranked.size(); i++)
-                        r[i] = idx.get(ranked.get(i));
+            int[] r = new int[ranked.size()];
+            for (int i = 0; i < ranked.size(); i++)
+                r[i] = idx.get(ranked.get(i));
 
-                    int first = r.length > 0 ? r[0] : -1;
+            int first = r.length > 0 ? r[0] : -1;
 
-                    return new Result(r, first);
+            results[vi] = new Result(r, first);
 
-                }).toList();
+        });
+        List<Result> allResults = Arrays.asList(results);
 
         // Reduce first-round counts
         int[] firstCounts = new int[nCands];
@@ -317,17 +313,18 @@ public class VotingUtils {
 
         int finalTop = top;
         int finalSecond = second;
-        Strategic reduced = allResults.parallelStream().map(res -> {
-            int tc = 0, sc = 0;
-            for (int pos : res.ranks) {
-                if (pos == finalTop) { tc++; break; }
-                if (pos == finalSecond) { sc++; break; }
-            }
-            return new Strategic(tc, sc);
-
-        }).reduce(
-                new Strategic(0, 0),
-                (a, b) -> new Strategic(a.topCount + b.topCount, a.secondCount + b.secondCount)
+        Strategic reduced = SimulationExecutor.get().collect(SimulationExecutor.Granularity.VOTER_CHUNK, allResults,
+                () -> new Strategic(0, 0),
+                (acc, res) -> {
+                    for (int pos : res.ranks) {
+                        if (pos == finalTop) { acc.topCount++; break; }
+                        if (pos == finalSecond) { acc.secondCount++; break; }
+                    }
+                },
+                (a, b) -> {
+                    a.topCount += b.topCount;
+                    a.secondCount += b.secondCount;
+                }
         );
 
         return (reduced.topCount >= reduced.secondCount)
@@ -380,13 +377,64 @@ public class VotingUtils {
         return sumSq / allParties.size();
     }
 
-    public static Representative runApprovalElection(
-            List<Representative> candidates,
-            List<Citizen> voters
-    ) {
-        if (candidates == null || candidates.isEmpty()) return null;
-        if (voters == null || voters.isEmpty()) return null;
+    /** MSE between seat shares and estimated popular shares, with its sampling standard error. */
+    public static final class MseEstimate {
+        public final double mse;
+        public final double stdError;
+
+        MseEstimate(double mse, double stdError) {
+            this.mse = mse;
+            this.stdError = stdError;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.6f ± %.6f", mse, stdError);
+        }
+    }
 
+    /**
+     * Same MSE as above, computed against sampled popular shares. The uncertainty of the shares is
+     * propagated with the delta method: d(MSE)/d(share_p) = -2 (seatShare_p - share_p) / |parties|,
+     * and the variance of that linear combination comes from the estimate's stratified sample.
+     */
+    public static MseEstimate computeMSEBetweenSeatsAndPopularVote(
+            List<Representative> winners,
+            StratifiedShareEstimator.Estimate popular) {
+
+        Map<String, Double> popularShares = popular == null ? null : popular.shares();
+        double mse = computeMSEBetweenSeatsAndPopularVote(winners, popularShares);
+        if (popular == null) return new MseEstimate(mse, 0.0);
+
+        Map<String, Integer> seatCounts = new HashMap<>();
+        int totalSeats = 0;
+        if (winners != null) {
+            totalSeats = winners.size();
+            for (Representative r : winners) {
+                if (r == null) continue;
+                String pname = (r.getParty() == null || r.getParty().getName() == null)
+                        ? "Independent/None" : r.getParty().getName();
+                seatCounts.merge(pname, 1, Integer::sum);
+            }
+        }
+        Set<String> allParties = new HashSet<>(popularShares.keySet());
+        allParties.addAll(seatCounts.keySet());
+        if (allParties.isEmpty()) return new MseEstimate(mse, 0.0);
+
+        final int seats = totalSeats;
+        final double n = allParties.size();
+        double var = popular.varianceOfLinear(p -> {
+            double seatShare = seats > 0 ? seatCounts.getOrDefault(p, 0) / (double) seats : 0.0;
+            return -2.0 * (seatShare - popularShares.getOrDefault(p, 0.0)) / n;
+        });
+        return new MseEstimate(mse, Math.sqrt(var));
+    }
+
+    /**
+     * Approval ballots as bitsets: bit c of row v (word c / 64) is set when voter v approves candidates[c]
+     * (ApprovalBallot.fromCitizen). Built in parallel over voters.
+     */
+    public static long[][] approvalBitsets(List<Representative> candidates, List<Citizen> voters) {
         final int nCands = candidates.size();
         final int nVoters = voters.size();
 
@@ -394,12 +442,11 @@ public class VotingUtils {
         Map<Representative, Integer> idx = new HashMap<>(nCands);
         for (int i = 0; i < nCands; i++) idx.put(candidates.get(i), i);
 
-        // Step 1: Build approvals bitsets per voter in parallel
-        long[][] bitsets; // use 64-bit chunks for memory locality when many candidates
+        // use 64-bit chunks for memory locality when many candidates
         int longsPerRow = (nCands + 63) >>> 6;
-        bitsets = new long[nVoters][longsPerRow];
+        long[][] bitsets = new long[nVoters][longsPerRow];
 
-        java.util.stream.IntStream.range(0, nVoters).parallel().forEach(vi -> {
+        SimulationExecutor.get().forEachVoter(nVoters, vi -> {
             Citizen voter = voters.get(vi);
             ApprovalBallot ballot = ApprovalBallot.fromCitizen(voter, candidates);
             long[] row = bitsets[vi];
@@ -412,6 +459,21 @@ public class VotingUtils {
                 }
             }
         });
+        return bitsets;
+    }
+
+    public static Representative runApprovalElection(
+            List<Representative> candidates,
+            List<Citizen> voters
+    ) {
+        if (candidates == null || candidates.isEmpty()) return null;
+        if (voters == null || voters.isEmpty()) return null;
+
+        final int nCands = candidates.size();
+        final int nVoters = voters.size();
+
+        // Step 1: Build approvals bitsets per voter in parallel
+        long[][] bitsets = approvalBitsets(candidates, voters);
 
         // Step 2: Count total approvals per candidate
         int[] totalApprovals = new int[nCands];
@@ -443,10 +505,10 @@ public class VotingUtils {
         // Step 4: Runoff count in parallel
         int finalFirst = first;
         int finalSecond = second;
-        java.util.concurrent.atomic.LongAdder firstVotes = new java.util.concurrent.atomic.LongAdder();
-        java.util.concurrent.atomic.LongAdder secondVotes = new java.util.concurrent.atomic.LongAdder();
+        LongAdder firstVotes = new LongAdder();
+        LongAdder secondVotes = new LongAdder();
 
-        java.util.stream.IntStream.range(0, nVoters).parallel().forEach(vi -> {
+        SimulationExecutor.get().forEachVoter(nVoters, vi -> {
             long[] row = bitsets[vi];
             boolean approveFirst = ((row[finalFirst >>> 6] >>> (finalFirst & 63)) & 1L) != 0L;
             boolean approveSecond = ((row[finalSecond >>> 6] >>> (finalSecond & 63)) & 1L) != 0L;
@@ -458,115 +520,288 @@ public class VotingUtils {
         return (firstVotes.sum() >= secondVotes.sum()) ? candidates.get(first) : candidates.get(second);
     }
 
-    private static String cachedTopParty = null;
-    private static String cachedSecondParty = null;
-    private static int cachedCandidateHash = 0;
+    // ---------------- national strategic FPTP ----------------
 
-    public static Representative runFPTPNationalStrategic(
-            List<Representative> candidates,
-            List<Citizen> localVoters
-    ) {
-        if (candidates == null || candidates.isEmpty()) return null;
+    // voters per counting chunk in the local pass; smaller districts are counted on the calling thread
+    private static final int LOCAL_CHUNK = 16_384;
 
-        final int nCands = candidates.size();
-        final List<Citizen> allCitizens = Main.country.getCitizens();
+    /**
+     * Per-country party preferences, computed once: every citizen's first and second party,
+     * the national top two (by first preferences) and, per citizen, which of those two they'd back.
+     */
+    private static final class NationalPreferences {
+        final Country country;
+        final int partyHash;
+        final Party[] parties;
+        final Map<Party, Integer> partyIndex;
+        final ValueProfile[] partyProfiles;
+        final double[] partyBias;
+        final Citizen[] citizens; // citizens[i].nationalIndex() == i for everyone built here
+        final int[] topPref;      // citizen -> party index, -1 if none
+        final int[] secondPref;   // citizen -> party index, -1 if none
+        final byte[] backsSecond; // citizen -> 1 if they prefer nationalSecond over nationalTop
+        final int nationalTop;
+        final int nationalSecond;
+
+        NationalPreferences(Country country, int partyHash, Party[] parties, Map<Party, Integer> partyIndex,
+                            ValueProfile[] partyProfiles, double[] partyBias, Citizen[] citizens,
+                            int[] topPref, int[] secondPref, byte[] backsSecond, int nationalTop, int nationalSecond) {
+            this.country = country;
+            this.partyHash = partyHash;
+            this.parties = parties;
+            this.partyIndex = partyIndex;
+            this.partyProfiles = partyProfiles;
+            this.partyBias = partyBias;
+            this.citizens = citizens;
+            this.topPref = topPref;
+            this.secondPref = secondPref;
+            this.backsSecond = backsSecond;
+            this.nationalTop = nationalTop;
+            this.nationalSecond = nationalSecond;
+        }
 
-        // Compute hash of candidates to detect change
-        int candidateHash = candidates.hashCode();
-        Map<String, List<Representative>> partyToCandidates = new HashMap<>();
-        for (Representative r : candidates) {
-            partyToCandidates.computeIfAbsent(r.getParty().getName(), k -> new ArrayList<>()).add(r);
+        boolean matches(Country c, int hash) { return country == c && partyHash == hash; }
+
+        /** Whether the voter backs nationalSecond over nationalTop; scored directly if they weren't in the build. */
+        boolean backsSecond(Citizen voter) {
+            int ci = voter.nationalIndex();
+            if (ci >= 0 && ci < citizens.length && citizens[ci] == voter) return backsSecond[ci] != 0;
+            return prefersParty(voter, nationalSecond, nationalTop, partyBias, partyProfiles);
+        }
+    }
+
+    // Only the most recent country is kept so sweeps don't pin every population they build.
+    private static final AtomicReference<CompletableFuture<NationalPreferences>> NATIONAL_PREFS = new AtomicReference<>();
+    private static volatile NationalPreferences lastNational = null;
+
+    private static NationalPreferences nationalPreferences(Country country) {
+        final List<Party> partyList = country.getParties();
+        final int hash = partyList.hashCode() ^ country.getCitizens().size();
+
+        NationalPreferences last = lastNational;
+        if (last != null && last.matches(country, hash)) return last;
+
+        while (true) {
+            CompletableFuture<NationalPreferences> current = NATIONAL_PREFS.get();
+            if (current != null) {
+                NationalPreferences np = current.join();
+                if (np.matches(country, hash)) return np;
+            }
+            CompletableFuture<NationalPreferences> created = new CompletableFuture<>();
+            if (!NATIONAL_PREFS.compareAndSet(current, created)) continue; // someone else is computing; re-check theirs
+            try {
+                NationalPreferences np = buildNationalPreferences(country, hash, partyList);
+                lastNational = np;
+                created.complete(np);
+                return np;
+            } catch (Throwable t) {
+                NATIONAL_PREFS.compareAndSet(created, null);
+                created.completeExceptionally(t);
+                throw t;
+            }
         }
+    }
+
+    private static NationalPreferences buildNationalPreferences(Country country, int hash, List<Party> partyList) {
+        final Party[] parties = partyList.toArray(new Party[0]);
+        final int nParties = parties.length;
+        final Map<Party, Integer> partyIndex = new HashMap<>(nParties * 2);
+        for (int i = 0; i < nParties; i++) partyIndex.put(parties[i], i);
 
-        // ------------------- Compute national top two parties -------------------
-        if (candidateHash != cachedCandidateHash) {
-            Map<String, Integer> partyCounts = new HashMap<>();
+        ensureIssueIndexLoaded();
+        final ValueProfile[] partyProfiles = new ValueProfile[nParties];
+        final double[] partyBias = new double[nParties];
+        for (int i = 0; i < nParties; i++) {
+            partyProfiles[i] = ProfileFactory.buildProfileFromValues(parties[i].getValues(), ISSUE_INDEX, ISSUE_COUNT);
+            partyBias[i] = parties[i].getBias();
+        }
 
-            allCitizens.parallelStream().forEach(voter -> {
-                List<Representative> ranked = VotingUtils.rankCandidatesForVoter(voter, candidates);
-                if (ranked != null && !ranked.isEmpty()) {
-                    String party = ranked.get(0).getParty().getName();
-                    synchronized (partyCounts) {
-                        partyCounts.put(party, partyCounts.getOrDefault(party, 0) + 1);
+        final List<Citizen> citizens = country.getCitizens();
+        final int n = citizens.size();
+        final Citizen[] byIndex = citizens.toArray(new Citizen[0]);
+        for (int i = 0; i < n; i++) byIndex[i].setNationalIndex(i);
+
+        final int[] topPref = new int[n];
+        final int[] secondPref = new int[n];
+
+        // pass 1: each citizen's two favourite parties, first-preference tallies per chunk
+        final int chunks = Math.max(1, (n + LOCAL_CHUNK - 1) / LOCAL_CHUNK);
+        long[] firstCounts = SimulationExecutor.get().collectChunks(chunks, () -> new long[nParties], (local, ch) -> {
+            int end = Math.min(n, (ch + 1) * LOCAL_CHUNK);
+            for (int vi = ch * LOCAL_CHUNK; vi < end; vi++) {
+                Citizen c = byIndex[vi];
+                ValueProfile vp = ProfileFactory.buildProfileFromValues(c.getValues(), ISSUE_INDEX, ISSUE_COUNT);
+                double vb = c.getBias();
+                int best = -1, next = -1;
+                double bestScore = Double.NEGATIVE_INFINITY, nextScore = Double.NEGATIVE_INFINITY;
+                for (int p = 0; p < nParties; p++) {
+                    double s = partyScore(vb, vp, partyBias[p], partyProfiles[p]);
+                    if (s > bestScore) {
+                        next = best; nextScore = bestScore;
+                        best = p; bestScore = s;
+                    } else if (s > nextScore) {
+                        next = p; nextScore = s;
                     }
                 }
-            });
+                topPref[vi] = best;
+                secondPref[vi] = next;
+                if (best >= 0) local[best]++;
+            }
+        }, (a, b) -> {
+            for (int i = 0; i < nParties; i++) a[i] += b[i];
+        });
 
-            String top = null, second = null;
-            int vTop = -1, vSecond = -1;
-            for (Map.Entry<String, Integer> entry : partyCounts.entrySet()) {
-                int v = entry.getValue();
-                if (v > vTop) {
-                    second = top; vSecond = vTop;
-                    top = entry.getKey(); vTop = v;
-                } else if (v > vSecond) {
-                    second = entry.getKey(); vSecond = v;
-                }
+        int top = -1, second = -1;
+        long vTop = -1, vSecond = -1;
+        for (int p = 0; p < nParties; p++) {
+            long v = firstCounts[p];
+            if (v > vTop) {
+                second = top; vSecond = vTop;
+                top = p; vTop = v;
+            } else if (v > vSecond) {
+                second = p; vSecond = v;
             }
+        }
 
-            cachedTopParty = top;
-            cachedSecondParty = second;
-            cachedCandidateHash = candidateHash;
+        // pass 2: resolve which of the national two each citizen backs (only scores A and B when needed)
+        final byte[] backsSecond = new byte[n];
+        if (top >= 0 && second >= 0) {
+            final int a = top, b = second;
+            SimulationExecutor.get().forEachChunk(chunks, ch -> {
+                int end = Math.min(n, (ch + 1) * LOCAL_CHUNK);
+                for (int vi = ch * LOCAL_CHUNK; vi < end; vi++) {
+                    int t = topPref[vi], s2 = secondPref[vi];
+                    boolean preferB;
+                    if (t == a) preferB = false;
+                    else if (t == b) preferB = true;
+                    else if (s2 == a) preferB = false;
+                    else if (s2 == b) preferB = true;
+                    // neither front-runner in their top two: rebuild the profile and score just A and B
+                    else preferB = prefersParty(byIndex[vi], b, a, partyBias, partyProfiles);
+                    backsSecond[vi] = (byte) (preferB ? 1 : 0);
+                }
+            });
         }
 
-        if (cachedTopParty == null) return null;
-        if (cachedSecondParty == null) return runFPTPStrategic(candidates, localVoters);
+        return new NationalPreferences(country, hash, parties, partyIndex, partyProfiles, partyBias, byIndex,
+                topPref, secondPref, backsSecond, top, second);
+    }
 
-        final String topParty = cachedTopParty;
-        final String secondParty = cachedSecondParty;
+    /** Whether the citizen scores party b strictly above party a. */
+    private static boolean prefersParty(Citizen c, int b, int a, double[] partyBias, ValueProfile[] partyProfiles) {
+        ValueProfile vp = ProfileFactory.buildProfileFromValues(c.getValues(), ISSUE_INDEX, ISSUE_COUNT);
+        double vb = c.getBias();
+        return partyScore(vb, vp, partyBias[b], partyProfiles[b]) > partyScore(vb, vp, partyBias[a], partyProfiles[a]);
+    }
 
-        // ------------------- Local strategic voting -------------------
-        Map<Representative, Integer> idx = new HashMap<>();
-        for (int i = 0; i < nCands; i++) idx.put(candidates.get(i), i);
+    /** Party-level analogue of rankCandidatesForVoter's score (no personal-candidate term, no jitter). */
+    private static double partyScore(double voterBias, ValueProfile voter, double partyBias, ValueProfile party) {
+        double normBiasDist = Math.abs(voterBias - partyBias) / 100.0;
+        double biasSim = clamp01(1.0 - normBiasDist);
+        double align = AlignmentUtils.computeAlignmentScoreNoCache(voter, party);
+        double valuesMultiplier = 1.0 - (normBiasDist * normBiasDist);
+        return 0.60 * biasSim + 0.40 * align * valuesMultiplier;
+    }
 
-        class StrategicCount {
-            int topCount, secondCount;
-            StrategicCount(int t, int s) { topCount = t; secondCount = s; }
+    /**
+     * National strategic FPTP: every voter backs whichever of the two national front-runners
+     * they prefer, voting for their favourite local candidate of that party. Voters whose party
+     * has no local candidate vote for the district's strategic FPTP winner instead, and so does
+     * the whole district when the country has no national second party.
+     * National preferences are computed once per country; each district is then a single
+     * counting pass, scoring voters only against their party's local candidates.
+     */
+    public static Representative runFPTPNationalStrategic(
+            List<Representative> candidates,
+            List<Citizen> localVoters
+    ) {
+        if (candidates == null || candidates.isEmpty()) return null;
+        if (localVoters == null || localVoters.isEmpty()) return null;
+
+        Country country = localVoters.get(0).getCountry();
+        if (country == null) country = Main.country;
+        if (country == null || country.getCitizens().isEmpty()) return runFPTPStrategic(candidates, localVoters);
+
+        final NationalPreferences np = nationalPreferences(country);
+        if (np.nationalTop < 0) return null;
+        if (np.nationalSecond < 0) return runFPTPStrategic(candidates, localVoters);
+
+        // local candidates of each front-runner, by index into candidates
+        final List<Representative> topLocals = new ArrayList<>(), secondLocals = new ArrayList<>();
+        final List<Integer> topIdx = new ArrayList<>(), secondIdx = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Representative r = candidates.get(i);
+            if (r == null || r.getParty() == null) continue;
+            Integer pi = np.partyIndex.get(r.getParty());
+            if (pi == null) continue;
+            if (pi == np.nationalTop) { topLocals.add(r); topIdx.add(i); }
+            else if (pi == np.nationalSecond) { secondLocals.add(r); secondIdx.add(i); }
         }
+        // neither front-runner stands here: everyone takes the fallback
+        if (topLocals.isEmpty() && secondLocals.isEmpty()) return runFPTPStrategic(candidates, localVoters);
 
-        StrategicCount total = localVoters.parallelStream().map(voter -> {
-            List<Representative> ranked = VotingUtils.rankCandidatesForVoter(voter, candidates);
-            if (ranked == null || ranked.isEmpty()) return new StrategicCount(0, 0);
-
-            // Determine which of the two parties the voter prefers
-            String preferredParty = null;
-            for (Representative r : ranked) {
-                String party = r.getParty().getName();
-                if (party.equals(topParty) || party.equals(secondParty)) {
-                    preferredParty = party;
-                    break;
-                }
-            }
+        final LocalChoice topChoice = LocalChoice.of(topLocals, topIdx);
+        final LocalChoice secondChoice = LocalChoice.of(secondLocals, secondIdx);
+        final int nCands = candidates.size();
+        final int n = localVoters.size();
+        // counts[nCands] holds the voters whose front-runner has no local candidate
+        final long[] counts;
+        if (n <= LOCAL_CHUNK) {
+            counts = countNationalStrategic(np, topChoice, secondChoice, localVoters, 0, n, nCands);
+        } else {
+            int chunks = (n + LOCAL_CHUNK - 1) / LOCAL_CHUNK;
+            counts = SimulationExecutor.get().collectChunks(chunks, () -> new long[nCands + 1],
+                    (acc, ch) -> {
+                        long[] c = countNationalStrategic(np, topChoice, secondChoice, localVoters,
+                                ch * LOCAL_CHUNK, Math.min(n, (ch + 1) * LOCAL_CHUNK), nCands);
+                        for (int i = 0; i <= nCands; i++) acc[i] += c[i];
+                    },
+                    (a, b) -> {
+                        for (int i = 0; i <= nCands; i++) a[i] += b[i];
+                    });
+        }
 
-            // Attempt to vote for a candidate of that party locally
-            Representative chosen = null;
-            if (preferredParty != null) {
-                for (Representative r : candidates) {
-                    if ((r.getParty().getName().equals(preferredParty))) {
-                        chosen = r;
-                        break;
-                    }
-                }
-            }
+        if (counts[nCands] > 0) {
+            Representative fallback = runFPTPStrategic(candidates, localVoters);
+            int fi = fallback == null ? -1 : candidates.indexOf(fallback);
+            if (fi >= 0) counts[fi] += counts[nCands];
+        }
+        return runFPTP(candidates, counts);
+    }
 
-            // Fallback: if no candidate from preferred party, use local strategic vote
-            if (chosen == null) {
-                chosen = runFPTPStrategic(candidates, List.of(voter));
-            }
+    /** One front-runner's local candidates and their indices in the district's candidate list. */
+    private static final class LocalChoice {
+        final FirstChoice choice; // null with fewer than two locals
+        final int[] index;
 
-            int tc = 0, sc = 0;
-            if (chosen != null) {
-                if (chosen.getParty().getName().equals(topParty)) tc = 1;
-                else if (chosen.getParty().getName().equals(secondParty)) sc = 1;
-            }
+        private LocalChoice(FirstChoice choice, int[] index) {
+            this.choice = choice;
+            this.index = index;
+        }
 
-            return new StrategicCount(tc, sc);
-        }).reduce(new StrategicCount(0,0),
-                (a,b) -> new StrategicCount(a.topCount + b.topCount, a.secondCount + b.secondCount));
+        static LocalChoice of(List<Representative> locals, List<Integer> index) {
+            int[] idx = new int[index.size()];
+            for (int i = 0; i < idx.length; i++) idx[i] = index.get(i);
+            return new LocalChoice(locals.size() > 1 ? FirstChoice.of(locals) : null, idx);
+        }
+    }
 
-        return (total.topCount >= total.secondCount)
-                ? partyToCandidates.get(topParty).get(0)
-                : partyToCandidates.get(secondParty).get(0);
+    /** Counts votes per candidate index for voters in [from, to); slot nCands counts fallback voters. */
+    private static long[] countNationalStrategic(NationalPreferences np, LocalChoice top, LocalChoice second,
+                                                 List<Citizen> voters, int from, int to, int nCands) {
+        final long[] counts = new long[nCands + 1];
+        final FirstChoice.Searcher topSearch = top.choice == null ? null : top.choice.searcher();
+        final FirstChoice.Searcher secondSearch = second.choice == null ? null : second.choice.searcher();
+        for (int i = from; i < to; i++) {
+            Citizen voter = voters.get(i);
+            boolean backsSecond = np.backsSecond(voter);
+            LocalChoice local = backsSecond ? second : top;
+            FirstChoice.Searcher search = backsSecond ? secondSearch : topSearch;
+            if (local.index.length == 0) counts[nCands]++;
+            else if (search == null) counts[local.index[0]]++;
+            else counts[local.index[search.first(voter)]]++;
+        }
+        return counts;
     }
 
     public static Party chooseBetweenTwoParties(Citizen voter, Party a, Party b) {
@@ -629,79 +864,71 @@ public class VotingUtils {
     ) {
         if (candidates == null || candidates.isEmpty()) return null;
         if (voters == null || voters.isEmpty()) return null;
+        return runRCVElection(RankedBallots.rank(candidates, voters));
+    }
 
-        final int nCands = candidates.size();
-        final int nVoters = voters.size();
-
-        // candidate -> index and back
-        Map<Representative, Integer> idx = new HashMap<>(nCands);
-        for (int i = 0; i < nCands; i++) idx.put(candidates.get(i), i);
-
-        // Build compact preference lists (indices) once
-        int[][] prefs = new int[nVoters][];
-        for (int vi = 0; vi < nVoters; vi++) {
-            Citizen voter = voters.get(vi);
-            List<Representative> ranked = VotingUtils.rankCandidatesForVoter(voter, candidates);
-            if (ranked == null || ranked.isEmpty()) {
-                prefs[vi] = new int[0];
-            } else {
-                int m = ranked.size();
-                int[] arr = new int[m];
-                for (int j = 0; j < m; j++) arr[j] = idx.get(ranked.get(j));
-                prefs[vi] = arr;
-            }
-        }
+    /** Instant runoff over precomputed rankings (shareable with other RankedMethods for the same race). */
+    public static Representative runRCVElection(RankedBallots ballots) {
+        final List<Representative> candidates = ballots.getCandidates();
+        final int nCands = ballots.candidateCount();
+        final int nVoters = ballots.voterCount();
+        if (nCands == 0 || nVoters == 0) return null;
 
         boolean[] eliminated = new boolean[nCands];
         int remaining = nCands;
 
         // temporary counts
         int[] counts = new int[nCands];
-
-        while (remaining > 1) {
-            Arrays.fill(counts, 0);
-            int totalVotes = 0;
-
-            // Count each ballot's highest-ranked non-eliminated candidate
-            for (int vi = 0; vi < nVoters; vi++) {
-                int[] p = prefs[vi];
-                for (int k = 0; k < p.length; k++) {
-                    int c = p[k];
-                    if (!eliminated[c]) {
-                        counts[c]++;
-                        totalVotes++;
-                        break;
+        int rounds = 0;
+
+        try {
+            while (remaining > 1) {
+                rounds++;
+                Arrays.fill(counts, 0);
+                int totalVotes = 0;
+
+                // Count each ballot's highest-ranked non-eliminated candidate
+                for (int vi = 0; vi < nVoters; vi++) {
+                    for (int k = 0; k < nCands; k++) {
+                        int c = ballots.at(vi, k);
+                        if (!eliminated[c]) {
+                            counts[c]++;
+                            totalVotes++;
+                            break;
+                        }
                     }
                 }
-            }
 
-            if (totalVotes == 0) return null;
+                if (totalVotes == 0) return null;
 
-            // Check majority
-            for (int c = 0; c < nCands; c++) {
-                if (!eliminated[c] && counts[c] * 2 > totalVotes) {
-                    return candidates.get(c);
+                // Check majority
+                for (int c = 0; c < nCands; c++) {
+                    if (!eliminated[c] && counts[c] * 2 > totalVotes) {
+                        return candidates.get(c);
+                    }
                 }
-            }
 
-            // Find lowest among active
-            int lowest = -1;
-            int worst = Integer.MAX_VALUE;
-            for (int c = 0; c < nCands; c++) {
-                if (!eliminated[c] && counts[c] < worst) {
-                    worst = counts[c];
-                    lowest = c;
+                // Find lowest among active
+                int lowest = -1;
+                int worst = Integer.MAX_VALUE;
+                for (int c = 0; c < nCands; c++) {
+                    if (!eliminated[c] && counts[c] < worst) {
+                        worst = counts[c];
+                        lowest = c;
+                    }
                 }
+
+                if (lowest < 0) break;
+                eliminated[lowest] = true;
+                remaining--;
             }
 
-            if (lowest < 0) break;
-            eliminated[lowest] = true;
-            remaining--;
+            // Return any remaining active candidate
+            for (int c = 0; c < nCands; c++) if (!eliminated[c]) return candidates.get(c);
+            return null;
+        } finally {
+            ballots.metrics().record("rcv.rounds", rounds);
         }
-
-        // Return any remaining active candidate
-        for (int c = 0; c < nCands; c++) if (!eliminated[c]) return candidates.get(c);
-        return null;
     }
 
     public static Representative findTopCandidateForVoterFast(Citizen voter) {
@@ -34,6 +34,13 @@ public class SimulationSettings {
     public int minVotingAge      = -1;
     public int maxVotingAge      = -1;
 
+    // Parallelism: worker threads of the simulation pool, and the shortest voter range split across them
+    public int threads           = -1;
+    public int minParallelVoters = -1;
+
+    // Party sweeps: estimate the popular-vote target from a stratified sample instead of counting everyone
+    public boolean approximatePopularShares = false;
+
     // Party override list
     public final List<PartySpec> parties = new ArrayList<>();
     public boolean partiesOverride = false;
@@ -92,6 +99,9 @@ public class SimulationSettings {
             s.partyCount          = parseIntDefault(p.getProperty("partyCount"), s.partyCount);
             s.minVotingAge        = parseIntDefault(p.getProperty("minVotingAge"), s.minVotingAge);
             s.maxVotingAge        = parseIntDefault(p.getProperty("maxVotingAge"), s.maxVotingAge);
+            s.threads             = parseIntDefault(p.getProperty("threads"), s.threads);
+            s.minParallelVoters   = parseIntDefault(p.getProperty("minParallelVoters"), s.minParallelVoters);
+            s.approximatePopularShares = parseBool(p.getProperty("approximatePopularShares"), s.approximatePopularShares);
 
             // ---------------- PARTY OVERRIDE SECTION -----------------
             String raw = p.getProperty("parties");